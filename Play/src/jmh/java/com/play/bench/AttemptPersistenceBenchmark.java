@@ -0,0 +1,139 @@
+package com.play.bench;
+
+import com.play.model.Attempt;
+import com.play.utils.AttemptLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Caricamento e salvataggio dei tentativi tramite {@link AttemptLog}, in una cartella temporanea.
+ *
+ * Il caricamento è misurato sia dal solo log JSON Lines sia dallo snapshot colonnare prodotto
+ * dalla compattazione, oltre al ricaricamento incrementale dopo nuove scritture; il salvataggio
+ * sia per un singolo tentativo sia per un gruppo.
+ *
+ * Esecuzione: {@code mvn -Pjmh compile exec:exec@jmh -Djmh.args="AttemptPersistenceBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class AttemptPersistenceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int attempts;
+
+    private Path logDir;
+    private Path snapshotDir;
+    private Path appendDir;
+    private Path incrementalDir;
+    private AttemptLog incrementalLog;
+    private AttemptLog fromSnapshot;
+    private AttemptLog appendLog;
+    private List<Attempt> batch;
+    private Attempt single;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        List<Attempt> history = SyntheticAttempts.generate(attempts, 42);
+
+        logDir = Files.createTempDirectory("play-bench-log");
+        AttemptLog fromLog = new AttemptLog(logDir);
+        fromLog.append(history, false);
+        fromLog.close();
+
+        snapshotDir = Files.createTempDirectory("play-bench-snapshot");
+        fromSnapshot = new AttemptLog(snapshotDir);
+        fromSnapshot.append(history, false);
+        fromSnapshot.compact();
+
+        batch = SyntheticAttempts.generate(100, 7);
+        single = batch.get(0);
+    }
+
+    /** Ogni iterazione di scrittura parte da un log vuoto, per non far crescere il file senza limite */
+    @Setup(Level.Iteration)
+    public void resetAppendLog() throws IOException {
+        if (appendLog != null) appendLog.close();
+        if (appendDir != null) delete(appendDir);
+        appendDir = Files.createTempDirectory("play-bench-append");
+        appendLog = new AttemptLog(appendDir);
+    }
+
+    /**
+     * Ogni iterazione del ricaricamento incrementale parte da una copia del log iniziale già caricata,
+     * così le aggiunte delle iterazioni precedenti non si accumulano sul log misurato da {@link #loadFromLog()}
+     */
+    @Setup(Level.Iteration)
+    public void resetIncrementalLog() throws IOException {
+        if (incrementalLog != null) incrementalLog.close();
+        if (incrementalDir != null) delete(incrementalDir);
+        incrementalDir = Files.createTempDirectory("play-bench-incremental");
+        try (Stream<Path> files = Files.list(logDir)) {
+            for (Path p : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".jsonl"))::iterator) {
+                Files.copy(p, incrementalDir.resolve(p.getFileName()));
+            }
+        }
+        incrementalLog = new AttemptLog(incrementalDir);
+        incrementalLog.loadAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fromSnapshot.close();
+        appendLog.close();
+        incrementalLog.close();
+        delete(logDir);
+        delete(snapshotDir);
+        delete(appendDir);
+        delete(incrementalDir);
+    }
+
+    /** Caricamento di tutti i tentativi dal log JSON Lines (istanza nuova: cache vuota) */
+    @Benchmark
+    public List<Attempt> loadFromLog() {
+        return new AttemptLog(logDir).loadAll();
+    }
+
+    /** Caricamento di tutti i tentativi dallo snapshot compattato (istanza nuova: cache vuota) */
+    @Benchmark
+    public List<Attempt> loadFromSnapshot() {
+        return new AttemptLog(snapshotDir).loadAll();
+    }
+
+    /** Ricaricamento dopo 100 tentativi nuovi: si leggono solo i byte aggiunti al segmento */
+    @Benchmark
+    public List<Attempt> loadIncremental() throws IOException {
+        incrementalLog.append(batch, false);
+        return incrementalLog.loadAll();
+    }
+
+    /** Salvataggio di un tentativo, senza forzare su disco */
+    @Benchmark
+    public void saveOne() throws IOException {
+        appendLog.append(List.of(single), false);
+    }
+
+    /** Salvataggio di un gruppo di 100 tentativi con un'unica scrittura */
+    @Benchmark
+    public void saveBatch() throws IOException {
+        appendLog.append(batch, false);
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
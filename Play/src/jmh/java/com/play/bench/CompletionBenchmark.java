@@ -0,0 +1,87 @@
+package com.play.bench;
+
+import com.play.model.Exercise;
+import com.play.service.CompletionBitmap;
+import com.play.service.ExerciseCatalog;
+import com.play.service.ExerciseService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Percentuale di completamento e selezione degli esercizi di una sessione,
+ * con un utente che ha completato circa metà del catalogo.
+ * La percentuale è misurata sia dall'insieme di ID sia dalla bitmap sugli ordinali del catalogo.
+ *
+ * Esecuzione: {@code mvn -Pjmh compile exec:exec@jmh -Djmh.args="CompletionBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompletionBenchmark {
+
+    private static final String[] LEVELS = {"facile", "medio", "difficile"};
+
+    private ExerciseService service;
+    private ExerciseCatalog catalog;
+    private Set<String> completedIds;
+    private CompletionBitmap completed;
+    private String[] types;
+
+    @Setup
+    public void setup() {
+        service = new ExerciseService();
+        catalog = ExerciseCatalog.getInstance();
+        completedIds = new HashSet<>();
+        completed = new CompletionBitmap(catalog.size());
+        List<Exercise> all = catalog.getAll();
+        for (int i = 0; i < all.size(); i += 2) {
+            completedIds.add(all.get(i).getId());
+            completed.set(catalog.ordinalOf(all.get(i).getId()));
+        }
+        types = ExerciseCatalog.types().toArray(new String[0]);
+    }
+
+    /** Percentuale di completamento per ogni tipo e livello (come nella dashboard) */
+    @Benchmark
+    public double completionPercentage() {
+        double sum = 0;
+        for (String type : types) {
+            for (String level : LEVELS) {
+                sum += service.calculateCompletionPercentage(type, level, completedIds);
+            }
+        }
+        return sum;
+    }
+
+    /** Percentuale di completamento per ogni tipo e livello con il popcount della bitmap */
+    @Benchmark
+    public double completionPercentageBitmap() {
+        double sum = 0;
+        for (String type : types) {
+            for (String level : LEVELS) {
+                ExerciseCatalog.OrdinalRange range = catalog.rangeOf(type, level);
+                if (!range.isEmpty()) sum += (completed.count(range) * 100.0) / range.size();
+            }
+        }
+        return sum;
+    }
+
+    /** Esercizi ancora da svolgere per ogni tipo e livello */
+    @Benchmark
+    public int loadExercises() {
+        int count = 0;
+        for (String type : types) {
+            for (String level : LEVELS) {
+                count += service.loadExercises(type, level, completedIds).size();
+            }
+        }
+        return count;
+    }
+}
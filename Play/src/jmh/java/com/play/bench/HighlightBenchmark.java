@@ -0,0 +1,71 @@
+package com.play.bench;
+
+import com.play.model.Exercise;
+import com.play.service.ExerciseCatalog;
+import com.play.utils.SyntaxHighlighter;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confronto tra il lexer di {@link SyntaxHighlighter} e l'evidenziatore a espressione regolare
+ * ({@link LegacySyntaxHighlighter}) su un frammento reale degli esercizi e su un sorgente lungo.
+ *
+ * Esecuzione: {@code mvn -Pjmh compile exec:exec@jmh -Djmh.args="HighlightBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighlightBenchmark {
+
+    /** small: il frammento più lungo tra gli esercizi; large: circa 5000 righe di codice */
+    @Param({"small", "large"})
+    public String snippet;
+
+    private String code;
+
+    @Setup
+    public void setup() {
+        String longest = "";
+        for (Exercise e : ExerciseCatalog.loadFromJson().getAll()) {
+            if (e.getCode() instanceof String && ((String) e.getCode()).length() > longest.length()) {
+                longest = (String) e.getCode();
+            }
+        }
+        code = "small".equals(snippet) ? longest : largeSource(5000);
+    }
+
+    @Benchmark
+    public StyleSpans<Collection<String>> lexer() {
+        return SyntaxHighlighter.computeHighlighting(code);
+    }
+
+    @Benchmark
+    public StyleSpans<Collection<String>> legacyRegex() {
+        return LegacySyntaxHighlighter.computeHighlighting(code);
+    }
+
+    /**
+     * Genera un sorgente Java sintetico con commenti a blocco lunghi, stringhe e letterali.
+     *
+     * @param lines Numero approssimativo di righe
+     * @return Sorgente generato
+     */
+    static String largeSource(int lines) {
+        StringBuilder sb = new StringBuilder("package demo;\n\npublic class Large {\n");
+        for (int i = 0; sb.length() < lines * 40; i++) {
+            sb.append("    /*\n     * Metodo numero ").append(i).append("\n     * con un commento su più righe\n     */\n");
+            sb.append("    @Override\n    public int method").append(i).append("(int[] values) {\n");
+            sb.append("        String s = \"valore \\\"").append(i).append("\\\"\"; // commento di riga\n");
+            sb.append("        char c = '\\n';\n");
+            sb.append("        for (int k = 0; k < values.length; k++) { values[k] += 0x1F + 2.5e-3; }\n");
+            sb.append("        return s.length();\n    }\n\n");
+        }
+        return sb.append("}\n").toString();
+    }
+}
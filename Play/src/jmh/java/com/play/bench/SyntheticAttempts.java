@@ -0,0 +1,61 @@
+package com.play.bench;
+
+import com.play.model.Attempt;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generatore di tentativi sintetici per i benchmark.
+ * Le stringhe (utenti, tipi, livelli, domande) e i timestamp provengono da insiemi limitati
+ * e condivisi, così che anche milioni di tentativi restino in memoria.
+ */
+public final class SyntheticAttempts {
+
+    private static final String[] TYPES = {"trovaErrore", "output", "completa", "correggiErrore"};
+    private static final String[] LEVELS = {"facile", "medio", "difficile"};
+    private static final int EXERCISES_PER_TYPE = 9;
+    private static final int TIMESTAMPS = 1440;
+
+    private SyntheticAttempts() {}
+
+    /**
+     * @param count Numero di tentativi
+     * @param seed  Seme del generatore casuale
+     * @return Tentativi generati, in ordine cronologico approssimativo
+     */
+    public static List<Attempt> generate(int count, long seed) {
+        Random random = new Random(seed);
+        int userCount = Math.max(10, Math.min(100_000, count / 100));
+
+        String[] users = new String[userCount];
+        for (int i = 0; i < userCount; i++) users[i] = "user" + i;
+
+        String[] ids = new String[TYPES.length * EXERCISES_PER_TYPE];
+        String[] questions = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = TYPES[i / EXERCISES_PER_TYPE] + "_" + (i % EXERCISES_PER_TYPE + 1);
+            questions[i] = "Domanda " + ids[i];
+        }
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime[] timestamps = new LocalDateTime[TIMESTAMPS];
+        for (int i = 0; i < TIMESTAMPS; i++) timestamps[i] = start.plusMinutes(i);
+
+        List<Attempt> attempts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int exercise = random.nextInt(ids.length);
+            attempts.add(new Attempt(
+                    users[random.nextInt(userCount)],
+                    TYPES[exercise / EXERCISES_PER_TYPE],
+                    LEVELS[(exercise % EXERCISES_PER_TYPE) / 3],
+                    questions[exercise],
+                    random.nextInt(3) != 0,
+                    ids[exercise],
+                    timestamps[(int) ((long) i * TIMESTAMPS / Math.max(1, count))]));
+        }
+        return attempts;
+    }
+}
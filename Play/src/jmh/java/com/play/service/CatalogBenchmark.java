@@ -0,0 +1,39 @@
+package com.play.service;
+
+import com.play.model.Exercise;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caricamento del catalogo esercizi: parsing dei file JSON contro lettura del catalogo precompilato.
+ * Nello stesso package di {@link ExerciseCatalog} per usarne il caricamento binario, non pubblico.
+ *
+ * Esecuzione: {@code mvn -Pjmh compile exec:exec@jmh -Djmh.args="CatalogBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+
+    /** Parsing dei file JSON e costruzione degli indici */
+    @Benchmark
+    public ExerciseCatalog loadFromJson() {
+        return ExerciseCatalog.loadFromJson();
+    }
+
+    /** Lettura di data/catalog.bin (prodotto in fase di build) e costruzione degli indici */
+    @Benchmark
+    public ExerciseCatalog loadFromBinary() {
+        Map<String, List<Exercise>> exercises = CatalogBinary.load();
+        if (exercises == null) {
+            throw new IllegalStateException("Catalogo precompilato assente o non aggiornato: eseguire la build completa");
+        }
+        return new ExerciseCatalog(exercises);
+    }
+}
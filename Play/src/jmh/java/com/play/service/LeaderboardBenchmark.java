@@ -0,0 +1,84 @@
+package com.play.service;
+
+import com.play.bench.SyntheticAttempts;
+import com.play.model.Attempt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregazione della classifica su 1k, 100k e 10M tentativi sintetici.
+ *
+ * Confronta la costruzione di {@link Leaderboard} con l'aggregazione completa (mappa + ordinamento)
+ * che la vista classifica eseguiva ad ogni apertura, e misura aggiornamento incrementale e query.
+ * Nello stesso package di {@link Leaderboard} per usarne il costruttore non collegato all'archivio.
+ *
+ * Esecuzione: {@code mvn -Pjmh compile exec:exec@jmh -Djmh.args="LeaderboardBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LeaderboardBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int attempts;
+
+    private List<Attempt> history;
+    private Leaderboard leaderboard;
+    private Attempt[] incoming;
+    private String[] usernames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        history = SyntheticAttempts.generate(attempts, 42);
+        leaderboard = new Leaderboard(history);
+
+        // Tentativi "nuovi" riusati ciclicamente per l'aggiornamento incrementale
+        incoming = SyntheticAttempts.generate(1024, 7).toArray(new Attempt[0]);
+        usernames = new String[incoming.length];
+        for (int i = 0; i < incoming.length; i++) usernames[i] = history.get(i % history.size()).getUsername();
+    }
+
+    /** Costruzione della classifica incrementale da tutto lo storico (avvio dell'applicazione) */
+    @Benchmark
+    public Leaderboard build() {
+        return new Leaderboard(history);
+    }
+
+    /** Aggregazione completa con mappa e ordinamento (comportamento precedente della vista classifica) */
+    @Benchmark
+    public List<Map.Entry<String, Integer>> fullAggregation() {
+        Map<String, Integer> scores = new HashMap<>();
+        for (Attempt attempt : history) {
+            scores.merge(attempt.getUsername(), Leaderboard.points(attempt), Integer::sum);
+        }
+        List<Map.Entry<String, Integer>> sorted = new ArrayList<>(scores.entrySet());
+        sorted.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        return sorted;
+    }
+
+    /** Registrazione di un nuovo tentativo */
+    @Benchmark
+    public int recordAttempt() {
+        Attempt attempt = incoming[next++ & (incoming.length - 1)];
+        leaderboard.onAttemptRecorded(attempt);
+        return leaderboard.size();
+    }
+
+    /** Prime dieci posizioni */
+    @Benchmark
+    public List<Leaderboard.Entry> top10() {
+        return leaderboard.topK(10);
+    }
+
+    /** Rango di un utente */
+    @Benchmark
+    public int rankOf() {
+        return leaderboard.rankOf(usernames[next++ & (usernames.length - 1)]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.play.service;
+
+import com.play.model.Attempt;
+import com.play.model.Exercise;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scelta degli esercizi di una sessione su un catalogo sintetico di 1k, 10k e 100k esercizi
+ * dello stesso tipo e livello, con un utente che ne ha già tentati circa metà (un terzo con esito errato).
+ *
+ * Confronta il pianificatore del ripasso con la selezione lineare "primi non completati" usata in precedenza.
+ * Nello stesso package di {@link ReviewScheduler} per usarne il costruttore non collegato all'archivio.
+ *
+ * Esecuzione: {@code mvn -Pjmh compile exec:exec@jmh -Djmh.args="ReviewSchedulerBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReviewSchedulerBenchmark {
+
+    private static final String TYPE = "output";
+    private static final String LEVEL = "facile";
+    private static final String USER = "studente";
+    private static final int SESSION = 3;
+
+    @Param({"1000", "10000", "100000"})
+    public int exercises;
+
+    private ExerciseCatalog catalog;
+    private ReviewScheduler scheduler;
+    private Set<String> completedIds;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Exercise> list = new ArrayList<>(exercises);
+        for (int i = 0; i < exercises; i++) {
+            list.add(new Exercise(TYPE + "_" + i, TYPE, LEVEL, "Domanda " + i, null, List.of("a", "b"), 0));
+        }
+        catalog = new ExerciseCatalog(Map.of(TYPE, list));
+
+        // Tentativi su metà degli esercizi, sparsi nel catalogo, distribuiti su 30 giorni
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Attempt> history = new ArrayList<>();
+        completedIds = new HashSet<>();
+        for (int i = 0; i < exercises / 2; i++) {
+            Exercise e = list.get(random.nextInt(exercises));
+            boolean correct = random.nextInt(3) != 0;
+            history.add(new Attempt(USER, TYPE, LEVEL, e.getQuestion(), correct, e.getId(),
+                    start.plusMinutes((long) i * 30 * 24 * 60 / Math.max(1, exercises / 2))));
+            if (correct) completedIds.add(e.getId());
+        }
+        now = start.plusDays(30);
+
+        scheduler = new ReviewScheduler(catalog, user -> history);
+        scheduler.nextSession(USER, TYPE, LEVEL, SESSION, now);   // Costruzione dello stato dell'utente
+    }
+
+    /** Sessione con il ripasso pianificato (ripassi scaduti, poi esercizi nuovi) */
+    @Benchmark
+    public List<Exercise> scheduledSession() {
+        return scheduler.nextSession(USER, TYPE, LEVEL, SESSION, now);
+    }
+
+    /** Selezione lineare dei primi esercizi non completati (come ExerciseService.loadExercises con gli ID) */
+    @Benchmark
+    public List<Exercise> linearSession() {
+        List<Exercise> session = new ArrayList<>(SESSION);
+        for (Exercise e : catalog.getByTypeAndLevel(TYPE, LEVEL)) {
+            if (!completedIds.contains(e.getId())) {
+                session.add(e);
+                if (session.size() == SESSION) break;
+            }
+        }
+        return session;
+    }
+}
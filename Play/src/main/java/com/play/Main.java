@@ -1,18 +1,67 @@
 package com.play;
 
+import com.play.controller.Navigator;
+import com.play.server.PlayServer;
+import com.play.service.ExerciseCatalog;
+import com.play.service.Leaderboard;
+import com.play.service.UserRegistry;
+import com.play.utils.AttemptWriter;
+import com.play.utils.HighlightCache;
+import com.play.utils.SyntaxHighlighter;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
+import javafx.application.Preloader;
 import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
-import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Classe principale dell'applicazione JavaFX.
  * Esegue l'avvio del programma e carica inizialmente la schermata di login.
+ * Prima di mostrare la finestra prepara in parallelo i dati e le viste più usate,
+ * mentre {@link PlayPreloader} mostra l'avanzamento.
  * Estende {@link javafx.application.Application}, come richiesto da JavaFX.
  */
 public class Main extends Application {
 
+    /**
+     * Metodo chiamato da JavaFX prima di {@link #start(Stage)}, fuori dal thread dell'interfaccia.
+     * Preriscalda su thread virtuali il catalogo esercizi, gli indici dei tentativi (con la classifica),
+     * il pattern di evidenziazione della sintassi e la vista della dashboard (che resta in cache).
+     */
+    @Override
+    public void init() {
+        List<Runnable> tasks = List.of(
+                ExerciseCatalog::getInstance,
+                Leaderboard::getInstance,       // carica anche AttemptStore
+                UserRegistry::getInstance,
+                SyntaxHighlighter::warmUp,
+                () -> Navigator.preload(Navigator.DASHBOARD)
+        );
+
+        AtomicInteger completed = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Runnable task : tasks) {
+                executor.submit(() -> {
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        // Il preriscaldamento è facoltativo: l'errore si ripresenterà quando servirà davvero
+                        e.printStackTrace();
+                    }
+                    double progress = completed.incrementAndGet() / (double) tasks.size();
+                    notifyPreloader(new Preloader.ProgressNotification(progress));
+                });
+            }
+        }
+    }
+
     /**
      * Metodo chiamato automaticamente da JavaFX all'avvio dell'app.
      * Inizializza lo stage principale e carica la prima scena (LoginView.fxml).
@@ -22,11 +71,13 @@ public class Main extends Application {
      */
     @Override
     public void start(Stage primaryStage) throws Exception {
-        // Carica il layout della schermata iniziale (login)
-        Parent root = FXMLLoader.load(getClass().getResource("/view/LoginView.fxml"));
+        // Crea l'unica scena dell'app con dimensioni iniziali generose (non determinanti):
+        // la navigazione ne sostituisce solo la radice
+        Scene scene = new Scene(new Pane(), 1500, 1500); // ← imposta dimensioni iniziali ampie (poi sovrascritte sotto)
+        Navigator.setScene(scene);
 
-        // Crea una scena con il layout caricato e dimensioni iniziali generose (non determinanti)
-        Scene scene = new Scene(root, 1500, 1500); // ← imposta dimensioni iniziali ampie (poi sovrascritte sotto)
+        // Mostra la schermata iniziale (login)
+        Navigator.show(Navigator.LOGIN);
 
         primaryStage.setTitle("Playground!");     // Titolo della finestra
 
@@ -39,6 +90,9 @@ public class Main extends Application {
         primaryStage.setMinWidth(1000);
         primaryStage.setMinHeight(1000);
 
+        // Alla chiusura della finestra svuota la coda dei tentativi ancora da salvare
+        primaryStage.setOnCloseRequest(e -> AttemptWriter.getInstance().shutdown());
+
         // Centra la finestra al centro dello schermo
         primaryStage.centerOnScreen();
 
@@ -46,12 +100,30 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    /**
+     * Metodo chiamato da JavaFX alla chiusura dell'applicazione (anche via Platform.exit).
+     * Garantisce che i tentativi accodati vengano scritti prima dell'uscita
+     * e salva la cache di evidenziazione del codice per le sessioni successive.
+     */
+    @Override
+    public void stop() {
+        AttemptWriter.getInstance().shutdown();
+        HighlightCache.getInstance().save();
+    }
+
     /**
      * Metodo statico di avvio dell'applicazione.
+     * Con {@code --server [--port N]} avvia invece il server HTTP senza interfaccia (vedi {@link PlayServer}).
      *
-     * @param args Argomenti passati da linea di comando (non utilizzati)
+     * @param args Argomenti passati da linea di comando
+     * @throws IOException Se il server non può essere avviato
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (Arrays.asList(args).contains("--server")) {
+            PlayServer.run(args);
+            return;
+        }
+        System.setProperty("javafx.preloader", PlayPreloader.class.getName());
         launch(args); // Avvia JavaFX
     }
 }
@@ -0,0 +1,60 @@
+package com.play;
+
+import javafx.application.Preloader;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+/**
+ * Schermata di caricamento mostrata mentre {@link Main#init()} prepara catalogo,
+ * tentativi e viste in background. Si chiude appena parte {@link Main#start(Stage)}.
+ */
+public class PlayPreloader extends Preloader {
+
+    private Stage stage;
+    private ProgressBar progressBar;
+
+    @Override
+    public void start(Stage primaryStage) {
+        this.stage = primaryStage;
+
+        Label title = new Label("Playground!");
+        title.setStyle("-fx-font-size: 22px; -fx-font-weight: bold;");
+
+        progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(260);
+
+        VBox root = new VBox(15, title, progressBar, new Label("Caricamento in corso..."));
+        root.setAlignment(Pos.CENTER);
+        root.setStyle("-fx-background-color: #f5f5f5; -fx-padding: 40;");
+
+        primaryStage.initStyle(StageStyle.UNDECORATED);
+        primaryStage.setScene(new Scene(root, 400, 200));
+        primaryStage.centerOnScreen();
+        primaryStage.show();
+    }
+
+    /**
+     * Aggiorna la barra con l'avanzamento notificato da {@link Main#init()}.
+     */
+    @Override
+    public void handleApplicationNotification(PreloaderNotification info) {
+        if (info instanceof ProgressNotification progress) {
+            progressBar.setProgress(progress.getProgress());
+        }
+    }
+
+    /**
+     * Chiude la schermata di caricamento quando l'applicazione sta per mostrare la propria finestra.
+     */
+    @Override
+    public void handleStateChangeNotification(StateChangeNotification info) {
+        if (info.getType() == StateChangeNotification.Type.BEFORE_START) {
+            stage.hide();
+        }
+    }
+}
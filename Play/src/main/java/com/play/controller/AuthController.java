@@ -1,23 +1,15 @@
 package com.play.controller;
 
-import com.play.model.User;
-import com.play.utils.FileManager;
+import com.play.service.AsyncService;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
-import javafx.scene.Parent;
-
-import java.io.IOException;
-import java.util.List;
 
 /**
  * Controller responsabile della gestione dell'autenticazione dell'utente.
- * Gestisce le azioni di login e di registrazione, interagendo con il FileManager per validare le credenziali.
- * Inoltre, consente la navigazione tra le diverse scene dell'applicazione.
+ * Gestisce le azioni di login e di registrazione, interagendo con il registro utenti per validare le credenziali.
+ * Inoltre, consente la navigazione verso la registrazione e la dashboard.
  */
-public class AuthController {
+public class AuthController implements Refreshable {
 
     /** Variabile statica per salvare l'username dell'utente loggato */
     public static String loggedUser;
@@ -31,60 +23,83 @@ public class AuthController {
     /** Etichetta per mostrare messaggi di login all'utente */
     @FXML private Label loginMessageLabel;
 
+    /** Indicatore mostrato durante la verifica delle credenziali */
+    @FXML private ProgressIndicator loadingIndicator;
+
+    /** Bottone di login, disattivato durante la verifica */
+    @FXML private Button loginButton;
+
+    private final BackgroundTasks tasks = new BackgroundTasks();
+
+    /**
+     * Collega l'indicatore di caricamento alle operazioni in corso.
+     */
+    @FXML
+    public void initialize() {
+        loadingIndicator.visibleProperty().bind(tasks.runningProperty());
+        loadingIndicator.managedProperty().bind(tasks.runningProperty());
+        loginButton.disableProperty().bind(tasks.runningProperty());
+    }
+
+    /**
+     * Ripulisce il form ogni volta che la schermata di login viene mostrata (es. dopo il logout).
+     */
+    @Override
+    public void refresh() {
+        usernameField.clear();
+        passwordField.clear();
+        loginMessageLabel.setText("");
+    }
+
+    @Override
+    public void onHide() {
+        tasks.cancelAll();
+    }
+
     /**
      * Metodo chiamato al click del pulsante "Login".
      * Verifica le credenziali inserite e carica la scena successiva in caso di successo.
      * In caso di fallimento, mostra un messaggio di errore.
+     *
+     * La verifica avviene in background ({@link AsyncService#login(String, String)});
+     * se le credenziali sono valide, le statistiche della dashboard vengono precalcolate
+     * mentre la scena successiva viene caricata.
      */
     @FXML
     private void onLogin() {
         String username = usernameField.getText();
         String password = passwordField.getText();
+        loginMessageLabel.setText("");
 
-        // Verifica delle credenziali tramite il FileManager
-        if (FileManager.authenticate(username, password).isPresent()) {
-            // Se l'autenticazione ha successo, salva l'utente loggato
-            loggedUser = username;
-            // Carica la dashboard dopo il login
-            loadSelectionScene();
-        } else {
-            // Mostra un messaggio di errore se le credenziali sono errate
-            loginMessageLabel.setText("❌ Credenziali errate");
-        }
+        tasks.run(AsyncService.login(username, password), user -> {
+            if (user.isPresent()) {
+                // Se l'autenticazione ha successo, salva l'utente loggato
+                loggedUser = username;
+                // Carica la dashboard dopo il login
+                loadSelectionScene();
+            } else {
+                // Mostra un messaggio di errore se le credenziali sono errate
+                loginMessageLabel.setText("❌ Credenziali errate");
+            }
+        }, error -> {
+            error.printStackTrace();
+            loginMessageLabel.setText("❌ Impossibile verificare le credenziali");
+        });
     }
 
     /**
      * Metodo chiamato al click del pulsante "Registrati".
-     * Cambia la scena corrente e carica il form di registrazione.
+     * Mostra il form di registrazione.
      */
     @FXML
     private void onRegister() {
-        try {
-            // Carica il file FXML della vista di registrazione
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/RegisterView.fxml"));
-            Parent root = loader.load();
-
-            // Ottiene lo stage corrente dalla scena attuale e imposta la nuova scena
-            Stage stage = (Stage) usernameField.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            // In caso di errore nel caricamento del file FXML, stampa lo stack trace
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.REGISTER);
     }
 
     /**
-     * Carica la scena della dashboard principale dopo un login riuscito.
-     * Gestisce l'eventuale errore di I/O durante il caricamento della vista.
+     * Mostra la dashboard principale dopo un login riuscito.
      */
     private void loadSelectionScene() {
-        try {
-            // Carica la dashboard dopo il login
-            Parent root = FXMLLoader.load(getClass().getResource("/view/DashboardView.fxml"));
-            Stage stage = (Stage) usernameField.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.DASHBOARD);
     }
 }
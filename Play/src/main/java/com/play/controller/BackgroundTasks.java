@@ -0,0 +1,93 @@
+package com.play.controller;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Operazioni in background avviate da una vista (vedi {@link com.play.service.AsyncService}).
+ * I risultati vengono consegnati sul thread JavaFX; quelli delle operazioni annullate,
+ * anche se arrivano dopo, vengono scartati.
+ *
+ * {@link #runningProperty()} indica se c'è almeno un'operazione in corso e si collega
+ * all'indicatore di caricamento della vista. Da usare solo dal thread JavaFX.
+ */
+final class BackgroundTasks {
+
+    private final Set<CompletableFuture<?>> pending = new HashSet<>();
+    private final ReadOnlyBooleanWrapper running = new ReadOnlyBooleanWrapper(false);
+
+    /**
+     * Segue un'operazione in corso e ne pubblica il risultato sul thread JavaFX.
+     * In caso di errore lo stack viene stampato.
+     *
+     * @param future    Operazione avviata
+     * @param onSuccess Azione sul risultato, eseguita sul thread JavaFX
+     * @param <T>       Tipo del risultato
+     * @return Lo stesso future, per poterlo annullare singolarmente
+     */
+    <T> CompletableFuture<T> run(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        return run(future, onSuccess, Throwable::printStackTrace);
+    }
+
+    /**
+     * Segue un'operazione in corso e ne pubblica il risultato o l'errore sul thread JavaFX.
+     *
+     * @param future    Operazione avviata
+     * @param onSuccess Azione sul risultato, eseguita sul thread JavaFX
+     * @param onError   Azione sull'errore, eseguita sul thread JavaFX
+     * @param <T>       Tipo del risultato
+     * @return Lo stesso future, per poterlo annullare singolarmente
+     */
+    <T> CompletableFuture<T> run(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        pending.add(future);
+        running.set(true);
+        future.whenComplete((value, error) -> Platform.runLater(() -> {
+            // Già annullata (esplicitamente o lasciando la vista): il risultato non interessa più
+            if (!pending.remove(future)) return;
+            running.set(!pending.isEmpty());
+            if (error == null) {
+                onSuccess.accept(value);
+            } else {
+                // Si toglie solo l'involucro aggiunto dal future, non la causa di un'eccezione vera
+                boolean wrapped = error instanceof CompletionException || error instanceof ExecutionException;
+                onError.accept(wrapped && error.getCause() != null ? error.getCause() : error);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Annulla un'operazione: il suo risultato non verrà consegnato.
+     *
+     * @param future Operazione da annullare (ignorata se null o già conclusa)
+     */
+    void cancel(CompletableFuture<?> future) {
+        if (future == null || !pending.remove(future)) return;
+        future.cancel(false);
+        running.set(!pending.isEmpty());
+    }
+
+    /**
+     * Annulla tutte le operazioni in corso (es. quando l'utente lascia la vista).
+     */
+    void cancelAll() {
+        for (CompletableFuture<?> future : pending) {
+            future.cancel(false);
+        }
+        pending.clear();
+        running.set(false);
+    }
+
+    /** @return true mentre almeno un'operazione è in corso */
+    ReadOnlyBooleanProperty runningProperty() {
+        return running.getReadOnlyProperty();
+    }
+}
@@ -1,30 +1,24 @@
 package com.play.controller;
 
-import com.play.model.Attempt;
-import com.play.service.ExerciseService;
-import com.play.utils.FileManager;
+import com.play.service.AsyncService;
+import com.play.service.DashboardStats;
 import javafx.animation.FadeTransition;
 import javafx.animation.ScaleTransition;
-import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.Node;
-import javafx.stage.Stage;
 import javafx.util.Duration;
 
-import java.io.IOException;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller della dashboard principale dell'applicazione.
  * Visualizza statistiche, barre di avanzamento e gestisce la navigazione tra le diverse sezioni.
+ *
+ * Le statistiche sono aggregate in background ({@link AsyncService#dashboardStats(String)})
+ * e pubblicate su etichette e barre con un solo aggiornamento del thread JavaFX.
  */
-public class DashboardController {
+public class DashboardController implements Refreshable {
 
     // Etichette e barre di avanzamento collegate al layout FXML
     @FXML private Label welcomeLabel;
@@ -42,15 +36,28 @@ public class DashboardController {
     @FXML private Label debugLabel;
     @FXML private Label quizLabel;
 
-    // Service per l'accesso ai dati sugli esercizi
-    private final ExerciseService service = new ExerciseService();
+    // Indicatore mostrato mentre le statistiche vengono calcolate
+    @FXML private ProgressIndicator loadingIndicator;
+
+    // Calcolo delle statistiche in corso (annullato se la dashboard viene riaperta o lasciata prima che finisca)
+    private final BackgroundTasks tasks = new BackgroundTasks();
+    private CompletableFuture<DashboardStats> statsFuture;
 
     /**
-     * Metodo di inizializzazione del controller chiamato automaticamente da JavaFX.
-     * Verifica se l'utente è loggato, mostra messaggi di benvenuto e avvia il calcolo delle statistiche.
+     * Collega l'indicatore di caricamento al calcolo delle statistiche.
      */
     @FXML
     public void initialize() {
+        loadingIndicator.visibleProperty().bind(tasks.runningProperty());
+        loadingIndicator.managedProperty().bind(tasks.runningProperty());
+    }
+
+    /**
+     * Metodo chiamato ad ogni visualizzazione della dashboard.
+     * Verifica se l'utente è loggato, mostra messaggi di benvenuto e popola le statistiche.
+     */
+    @Override
+    public void refresh() {
         // Verifica se l'utente è loggato
         if (AuthController.loggedUser == null) {
             System.err.println("⚠️ Utente non loggato!");
@@ -65,34 +72,49 @@ public class DashboardController {
         fadeInNode(attemptsCountLabel);
         fadeInNode(successRateLabel);
 
-        // Esegui update asincroni dopo il rendering UI
-        Platform.runLater(() -> {
-            updateProgress();
-            updateGlobalProgress();
-        });
+        loadStats(user);
     }
 
     /**
-     * Aggiorna le statistiche di avanzamento per ogni tipo di esercizio e mostra il tasso di successo complessivo.
+     * Calcola le statistiche dell'utente su un thread virtuale: precalcolate al login se pronte,
+     * altrimenti ricavate ora dai contatori per tipo e dal popcount della bitmap di completamento
+     * (vedi {@link DashboardStats#compute(String)}), senza scorrere i suoi tentativi.
+     * Il thread JavaFX resta libero e riceve il risultato già completo; il risultato di un calcolo
+     * precedente ancora in corso viene scartato.
+     *
+     * @param user Utente loggato
      */
-    private void updateProgress() {
-        String username = AuthController.loggedUser;
+    private void loadStats(String user) {
+        tasks.cancel(statsFuture);
+        statsFuture = tasks.run(AsyncService.dashboardStats(user), stats -> {
+            updateProgress(stats);
+            updateGlobalProgress(stats);
+        }, error -> {
+            System.err.println("Errore nel calcolo delle statistiche di: " + user);
+            error.printStackTrace();
+        });
+    }
 
-        int totalAttempts = 0;
+    @Override
+    public void onHide() {
+        tasks.cancelAll();
+    }
 
+    /**
+     * Aggiorna le statistiche di avanzamento per ogni tipo di esercizio e mostra il tasso di successo complessivo.
+     *
+     * @param stats Statistiche dell'utente loggato
+     */
+    private void updateProgress(DashboardStats stats) {
         // Aggiorna le statistiche per ogni categoria di esercizio
-        totalAttempts += updateSingleProgress("output", readCodeBar, readCodeLabel, username);
-        totalAttempts += updateSingleProgress("completa", orderStepsBar, orderStepsLabel, username);
-        totalAttempts += updateSingleProgress("correggiErrore", debugBar, debugLabel, username);
-        totalAttempts += updateSingleProgress("trovaErrore", quizBar, quizLabel, username);
-
-        // Calcola la percentuale media di successo
-        double globalPercent = (readCodeBar.getProgress() + orderStepsBar.getProgress()
-                + debugBar.getProgress() + quizBar.getProgress()) / 4.0 * 100.0;
+        updateSingleProgress("output", readCodeBar, readCodeLabel, stats);
+        updateSingleProgress("completa", orderStepsBar, orderStepsLabel, stats);
+        updateSingleProgress("correggiErrore", debugBar, debugLabel, stats);
+        updateSingleProgress("trovaErrore", quizBar, quizLabel, stats);
 
         // Aggiorna le etichette UI
-        attemptsCountLabel.setText(String.valueOf(totalAttempts));
-        successRateLabel.setText(String.format("%.0f%%", globalPercent));
+        attemptsCountLabel.setText(String.valueOf(stats.getTotalAttempts()));
+        successRateLabel.setText(String.format("%.0f%%", stats.getSuccessRate()));
     }
 
     /**
@@ -101,29 +123,10 @@ public class DashboardController {
      * @param type Tipo di esercizio (es. "output", "completa", ...)
      * @param bar ProgressBar associata al tipo
      * @param label Label associata al tipo
-     * @param username Nome dell'utente loggato
-     * @return Numero di tentativi effettuati dall'utente per quel tipo
+     * @param stats Statistiche dell'utente loggato
      */
-    private int updateSingleProgress(String type, ProgressBar bar, Label label, String username) {
-        // Filtra i tentativi per tipo e utente
-        List<Attempt> attempts = FileManager.loadAttempts().stream()
-                .filter(a -> a.getUsername().equals(username))
-                .filter(a -> a.getType().equals(type))
-                .collect(Collectors.toList());
-
-        // Identifica gli esercizi risolti correttamente
-        Set<String> correctIds = attempts.stream()
-                .filter(Attempt::isCorrect)
-                .map(Attempt::getExerciseId)
-                .collect(Collectors.toSet());
-
-        int totalExercises = service.getExerciseCountByType(type);
-        double percent = totalExercises == 0 ? 0 : (correctIds.size() * 100.0) / totalExercises;
-        int attemptCount = attempts.size();
-
-        // Aggiorna UI per quella categoria
-        updateBar(bar, label, percent, attemptCount);
-        return attemptCount;
+    private void updateSingleProgress(String type, ProgressBar bar, Label label, DashboardStats stats) {
+        updateBar(bar, label, stats.getPercent(type), stats.getAttempts(type));
     }
 
     /**
@@ -174,24 +177,14 @@ public class DashboardController {
     }
 
     /**
-     * Calcola il progresso globale dell'utente basandosi su tutti gli esercizi completati.
+     * Mostra il progresso globale dell'utente basato su tutti gli esercizi completati.
+     *
+     * @param stats Statistiche dell'utente loggato
      */
-    private void updateGlobalProgress() {
+    private void updateGlobalProgress(DashboardStats stats) {
         if (globalProgressBar == null) return;
 
-        String user = AuthController.loggedUser;
-
-        double correct = FileManager.loadAttempts().stream()
-                .filter(a -> a.getUsername().equals(user))
-                .filter(Attempt::isCorrect)
-                .map(Attempt::getExerciseId)
-                .distinct()
-                .count();
-
-        double total = FileManager.loadExercises().size();
-        double percent = (total == 0) ? 0 : correct / total;
-
-        globalProgressBar.setProgress(percent);
+        globalProgressBar.setProgress(stats.getGlobalProgress());
         animateProgressBar(globalProgressBar);
     }
 
@@ -211,14 +204,8 @@ public class DashboardController {
      * @param type Tipo di esercizio da pre-selezionare
      */
     private void navigate(String type) {
-        try {
-            ExerciseSelectionController.setPreselectedType(type);
-            Parent root = FXMLLoader.load(getClass().getResource("/view/ExerciseSelectionView.fxml"));
-            Stage stage = (Stage) welcomeLabel.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        ExerciseSelectionController.setPreselectedType(type);
+        Navigator.show(Navigator.SELECTION);
     }
 
     /**
@@ -226,13 +213,7 @@ public class DashboardController {
      */
     @FXML
     private void onLogout() {
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/LoginView.fxml"));
-            Stage stage = (Stage) welcomeLabel.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.LOGIN);
     }
 
     /**
@@ -240,12 +221,6 @@ public class DashboardController {
      */
     @FXML
     private void onLeaderboard() {
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/LeaderboardView.fxml"));
-            Stage stage = (Stage) welcomeLabel.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.LEADERBOARD);
     }
 }
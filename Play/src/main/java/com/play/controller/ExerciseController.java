@@ -2,23 +2,19 @@ package com.play.controller;
 
 import com.play.model.Attempt;
 import com.play.model.Exercise;
-import com.play.utils.FileManager;
-import com.play.utils.SyntaxHighlighter;
+import com.play.service.AttemptStore;
+import com.play.utils.HighlightCache;
+import com.play.utils.IncrementalHighlighter;
 import javafx.animation.*;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
-import javafx.scene.Parent;
 import javafx.scene.text.Font;
 import javafx.util.Duration;
 import org.fxmisc.richtext.CodeArea;
 import org.fxmisc.richtext.LineNumberFactory;
 import org.fxmisc.richtext.model.StyleSpans;
 
-import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 
@@ -27,7 +23,7 @@ import java.util.List;
  * Gestisce la visualizzazione delle domande, del codice, delle opzioni di risposta
  * e delle statistiche temporali e di correttezza dell'utente.
  */
-public class ExerciseController {
+public class ExerciseController implements Refreshable {
 
     @FXML private Label questionLabel;
     @FXML private VBox optionsBox;
@@ -36,28 +32,46 @@ public class ExerciseController {
     @FXML private Button exitButton;
 
     private CodeArea codeArea;                // Editor per il codice evidenziato
+    private IncrementalHighlighter highlighter; // Evidenziazione incrementale durante la modifica
     private List<Exercise> exercises;         // Lista degli esercizi da svolgere
     private int currentIndex = 0;             // Indice dell'esercizio corrente
     private int correctCount = 0;             // Conteggio delle risposte corrette
     private long totalTimeMillis = 0;         // Tempo totale impiegato
     private long startTime;                   // Inizio del timer per la domanda corrente
     private Timeline timer;                   // Timer per visualizzare il tempo in UI
+    private PauseTransition nextPause;        // Pausa prima della domanda successiva
 
     /**
      * Metodo chiamato automaticamente all'inizializzazione del controller.
-     * Carica gli esercizi selezionati e mostra il primo.
+     * Prepara l'area di codice, riutilizzata da tutte le sessioni.
      */
     @FXML
     public void initialize() {
+        setupCodeArea();
+    }
+
+    /**
+     * Metodo chiamato ad ogni visualizzazione della vista: avvia una nuova sessione
+     * con gli esercizi selezionati e mostra il primo.
+     */
+    @Override
+    public void refresh() {
+        stopSession();
         exercises = ExerciseSelectionController.getSelectedExercises();
+        currentIndex = 0;
+        correctCount = 0;
+        totalTimeMillis = 0;
+        timerLabel.setText("");
 
         // Verifica che esistano esercizi da svolgere
         if (exercises == null || exercises.isEmpty()) {
             questionLabel.setText("Nessun esercizio disponibile.");
+            optionsBox.getChildren().clear();
+            codeArea.clear();
+            codeArea.setVisible(false);
             return;
         }
 
-        setupCodeArea();
         fadeIn(questionLabel);
         showExercise();
     }
@@ -74,6 +88,9 @@ public class ExerciseController {
         codeArea.setPrefHeight(250);
         codeArea.getStylesheets().add(getClass().getResource("/styles/syntax.css").toExternalForm());
         codeContainer.getChildren().add(codeArea);
+
+        // Rievidenzia solo i paragrafi modificati quando il codice è modificabile
+        highlighter = new IncrementalHighlighter(codeArea);
     }
 
     /**
@@ -93,9 +110,11 @@ public class ExerciseController {
         if (rawCode instanceof String && !((String) rawCode).trim().isEmpty()) {
             String code = (String) rawCode;
             codeArea.setVisible(true);
-            codeArea.replaceText(code);
-            StyleSpans<Collection<String>> spans = SyntaxHighlighter.computeHighlighting(code);
-            codeArea.setStyleSpans(0, spans);
+            // Evidenziazione dalla cache (di norma già precalcolata alla scelta della sessione)
+            StyleSpans<Collection<String>> spans = HighlightCache.getInstance().get(ex.getId(), code);
+            highlighter.replaceText(code, spans);
+            // Negli esercizi "correggi l'errore" lo studente può modificare il codice per provare la correzione
+            codeArea.setEditable(isEditable(ex));
         } else {
             codeArea.clear();
             codeArea.setVisible(false);
@@ -106,6 +125,14 @@ public class ExerciseController {
         startTimer();
     }
 
+    /**
+     * @param ex Esercizio
+     * @return true se il codice dell'esercizio può essere modificato dallo studente
+     */
+    private boolean isEditable(Exercise ex) {
+        return "correggiErrore".equals(ex.getType());
+    }
+
     /**
      * Mostra le opzioni di risposta come pulsanti.
      *
@@ -167,8 +194,8 @@ public class ExerciseController {
 
         if (correct) correctCount++;
 
-        // Salva il tentativo dell'utente
-        FileManager.saveAttempt(new Attempt(
+        // Registra il tentativo: indicizzato subito, scritto su disco in background
+        AttemptStore.getInstance().record(new Attempt(
                 AuthController.loggedUser,
                 ex.getType(),
                 ex.getLevel(),
@@ -178,12 +205,12 @@ public class ExerciseController {
         ));
 
         // Passa al prossimo esercizio con breve pausa
-        PauseTransition pause = new PauseTransition(Duration.seconds(1.5));
-        pause.setOnFinished(e -> {
+        nextPause = new PauseTransition(Duration.seconds(1.5));
+        nextPause.setOnFinished(e -> {
             currentIndex++;
             showExercise();
         });
-        pause.play();
+        nextPause.play();
     }
 
     /**
@@ -231,18 +258,12 @@ public class ExerciseController {
      * Naviga alla schermata di riepilogo finale con i risultati dell’utente.
      */
     private void goToSummary() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/SummaryView.fxml"));
-            Parent root = loader.load();
+        if (timer != null) timer.stop();
+        SummaryController controller = Navigator.show(Navigator.SUMMARY);
 
-            // Passa i dati al controller del riepilogo
-            SummaryController controller = loader.getController();
+        // Passa i dati al controller del riepilogo
+        if (controller != null) {
             controller.setData(correctCount, exercises.size(), totalTimeMillis);
-
-            Stage stage = (Stage) questionLabel.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
         }
     }
 
@@ -268,18 +289,21 @@ public class ExerciseController {
         btn.setOnMouseExited(e -> btn.setStyle("-fx-background-color: #eeeeee; -fx-border-color: #cccccc;"));
     }
 
+    /**
+     * Ferma timer e pausa in corso, così che la sessione interrotta non prosegua
+     * sulla vista riutilizzata.
+     */
+    private void stopSession() {
+        if (timer != null) timer.stop();
+        if (nextPause != null) nextPause.stop();
+    }
+
     /**
      * Metodo associato al pulsante "Esci". Ferma il timer e torna alla dashboard.
      */
     @FXML
     private void onExit() {
-        if (timer != null) timer.stop();
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/DashboardView.fxml"));
-            Stage stage = (Stage) questionLabel.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        stopSession();
+        Navigator.show(Navigator.DASHBOARD);
     }
 }
@@ -1,27 +1,23 @@
 package com.play.controller;
 
-import com.play.model.Attempt;
 import com.play.model.Exercise;
-import com.play.service.ExerciseService;
-import com.play.utils.FileManager;
+import com.play.service.AsyncService;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
-import javafx.stage.Stage;
 
-import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller per la selezione degli esercizi.
  * Permette all'utente di scegliere la tipologia e il livello degli esercizi,
  * visualizzare il progresso e iniziare una nuova sessione.
+ *
+ * Completamento e scelta degli esercizi sono calcolati in background ({@link AsyncService});
+ * cambiando selezione il calcolo precedente viene annullato.
  */
-public class ExerciseSelectionController {
+public class ExerciseSelectionController implements Refreshable {
 
     // ToggleButton per la selezione del tipo di esercizio
     @FXML private ToggleButton btnOutput;
@@ -34,11 +30,17 @@ public class ExerciseSelectionController {
     @FXML private ComboBox<String> levelComboBox; // Dropdown per il livello
     @FXML private ProgressBar progressBar;
     @FXML private Label progressLabel;
+    @FXML private ProgressIndicator loadingIndicator;
+    @FXML private Button startButton;
 
     private ToggleGroup typeGroup; // Gestione mutua esclusione bottoni tipo
 
     private static List<Exercise> selectedExercises; // Esercizi caricati per la sessione
-    private final ExerciseService service = new ExerciseService();
+
+    // Operazioni in background della vista e calcolo del completamento in corso
+    private final BackgroundTasks tasks = new BackgroundTasks();
+    private CompletableFuture<Double> progressFuture;
+    private CompletableFuture<List<Exercise>> sessionFuture;
 
     // Selezioni preimpostate per accesso diretto da altri controller
     private static String preselectedType = null;
@@ -67,7 +69,7 @@ public class ExerciseSelectionController {
 
     /**
      * Metodo chiamato all'inizializzazione della scena.
-     * Imposta i bottoni dei tipi, i listener, e aggiorna il progresso.
+     * Imposta i bottoni dei tipi, le difficoltà e i listener.
      */
     @FXML
     public void initialize() {
@@ -81,31 +83,44 @@ public class ExerciseSelectionController {
         // Aggiunge le difficoltà disponibili
         levelComboBox.getItems().addAll("facile", "medio", "difficile");
 
-        // Nasconde tutti i bottoni tranne quello pre-selezionato (se presente)
-        if (preselectedType != null) {
-            for (javafx.scene.Node node : exerciseButtonsBox.getChildren()) {
-                if (node instanceof ToggleButton) {
-                    ToggleButton btn = (ToggleButton) node;
-                    boolean match = btn.getUserData().equals(preselectedType);
-                    btn.setVisible(match);
-                    btn.setManaged(match);
-                    if (match) btn.setSelected(true);
-                }
+        // Listener per aggiornare il progresso dinamicamente
+        levelComboBox.setOnAction(e -> updateProgress());
+        typeGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> updateProgress());
+
+        loadingIndicator.visibleProperty().bind(tasks.runningProperty());
+        loadingIndicator.managedProperty().bind(tasks.runningProperty());
+    }
+
+    /**
+     * Metodo chiamato ad ogni visualizzazione della scena.
+     * Applica le selezioni preimpostate e aggiorna il progresso.
+     */
+    @Override
+    public void refresh() {
+        // Mostra solo il bottone pre-selezionato (se presente), altrimenti tutti e nessuno selezionato
+        typeGroup.selectToggle(null);
+        for (javafx.scene.Node node : exerciseButtonsBox.getChildren()) {
+            if (node instanceof ToggleButton) {
+                ToggleButton btn = (ToggleButton) node;
+                boolean match = preselectedType == null || btn.getUserData().equals(preselectedType);
+                btn.setVisible(match);
+                btn.setManaged(match);
+                if (match && preselectedType != null) btn.setSelected(true);
             }
         }
 
         // Seleziona livello predefinito se fornito
-        if (preselectedLevel != null) {
-            levelComboBox.setValue(preselectedLevel);
-        }
-
-        // Listener per aggiornare il progresso dinamicamente
-        levelComboBox.setOnAction(e -> updateProgress());
-        typeGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> updateProgress());
+        levelComboBox.setValue(preselectedLevel);
 
         updateProgress();
     }
 
+    @Override
+    public void onHide() {
+        tasks.cancelAll();
+        startButton.setDisable(false);
+    }
+
     /**
      * Calcola e aggiorna il progresso dell'utente in base a tipo e livello selezionati.
      */
@@ -113,6 +128,9 @@ public class ExerciseSelectionController {
         Toggle selected = typeGroup.getSelectedToggle();
         String level = levelComboBox.getValue();
 
+        // Un calcolo per una selezione precedente non serve più
+        tasks.cancel(progressFuture);
+
         // Controlla se i filtri sono validi
         if (selected == null || level == null) {
             progressBar.setProgress(0);
@@ -122,18 +140,12 @@ public class ExerciseSelectionController {
 
         String selectedType = (String) selected.getUserData();
 
-        // Recupera tentativi completati correttamente dall'utente loggato
-        List<Attempt> done = FileManager.loadAttempts();
-        Set<String> completedCorrect = done.stream()
-                .filter(a -> a.getUsername().equals(AuthController.loggedUser))
-                .filter(Attempt::isCorrect)
-                .map(Attempt::getExerciseId)
-                .collect(Collectors.toSet());
-
-        // Calcola la percentuale di completamento
-        double completion = service.calculateCompletionPercentage(selectedType, level, completedCorrect);
-        progressBar.setProgress(completion / 100.0);
-        progressLabel.setText("Completamento: " + Math.round(completion) + "%");
+        // Calcola la percentuale di completamento sugli esercizi risolti dall'utente loggato
+        progressFuture = tasks.run(AsyncService.completion(AuthController.loggedUser, selectedType, level),
+                completion -> {
+                    progressBar.setProgress(completion / 100.0);
+                    progressLabel.setText("Completamento: " + Math.round(completion) + "%");
+                });
     }
 
     /**
@@ -152,38 +164,35 @@ public class ExerciseSelectionController {
 
         String selectedType = (String) selected.getUserData();
 
-        try {
-            // Ottiene esercizi ancora da completare per l'utente
-            List<Attempt> done = FileManager.loadAttempts();
-            Set<String> completedCorrect = done.stream()
-                    .filter(a -> a.getUsername().equals(AuthController.loggedUser))
-                    .filter(Attempt::isCorrect)
-                    .map(Attempt::getExerciseId)
-                    .collect(Collectors.toSet());
-
-            selectedExercises = service.loadExercises(selectedType, level, completedCorrect);
-
-            // Se l’utente ha completato tutti gli esercizi, mostra avviso
-            if (selectedExercises.isEmpty()) {
-                new Alert(Alert.AlertType.INFORMATION, "Hai completato tutti gli esercizi per questa categoria.").show();
+        // Ottiene in background gli esercizi ancora da completare per l'utente;
+        // il codice delle domande viene evidenziato mentre l'utente legge le istruzioni
+        tasks.cancel(sessionFuture);
+        startButton.setDisable(true);
+        sessionFuture = tasks.run(AsyncService.startSession(AuthController.loggedUser, selectedType, level), exercises -> {
+            startButton.setDisable(false);
+
+            // Se l’utente ha completato tutti gli esercizi e non ha ripassi in scadenza, mostra avviso
+            if (exercises.isEmpty()) {
+                new Alert(Alert.AlertType.INFORMATION, "Hai completato tutti gli esercizi per questa categoria. "
+                        + "Torna più tardi per ripassarli.").show();
                 return;
             }
+            selectedExercises = exercises;
 
             // Passa il tipo selezionato all’InstructionController
             InstructionController.setExerciseType(selectedType);
 
-            // Carica la schermata di istruzioni
-            Parent root = FXMLLoader.load(getClass().getResource("/view/InstructionView.fxml"));
-            Stage stage = (Stage) levelComboBox.getScene().getWindow();
-            stage.setScene(new Scene(root));
+            // Mostra la schermata di istruzioni
+            Navigator.show(Navigator.INSTRUCTION);
 
             // Reset dei valori preimpostati
             preselectedType = null;
             preselectedLevel = null;
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        }, error -> {
+            startButton.setDisable(false);
+            error.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Impossibile preparare la sessione, riprova.").show();
+        });
     }
 
     /**
@@ -191,13 +200,7 @@ public class ExerciseSelectionController {
      */
     @FXML
     private void onLeaderboard() {
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/LeaderboardView.fxml"));
-            Stage stage = (Stage) levelComboBox.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.LEADERBOARD);
     }
 
     /**
@@ -205,12 +208,6 @@ public class ExerciseSelectionController {
      */
     @FXML
     private void onBack() {
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/DashboardView.fxml"));
-            Stage stage = (Stage) levelComboBox.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.DASHBOARD);
     }
 }
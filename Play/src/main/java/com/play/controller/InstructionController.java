@@ -1,17 +1,13 @@
 package com.play.controller;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
-import javafx.scene.Parent;
-import javafx.stage.Stage;
 
 /**
  * Controller per la schermata introduttiva degli esercizi.
  * Mostra un messaggio personalizzato a seconda del tipo di esercizio selezionato.
  */
-public class InstructionController {
+public class InstructionController implements Refreshable {
 
     @FXML private Label instructionLabel;
 
@@ -20,7 +16,7 @@ public class InstructionController {
 
     /**
      * Imposta il tipo di esercizio per cui verrà mostrata l'istruzione.
-     * Metodo statico chiamato prima del caricamento della scena.
+     * Metodo statico chiamato prima di mostrare la vista.
      *
      * @param type Tipo dell'esercizio (output, correggiErrore, ecc.)
      */
@@ -29,11 +25,11 @@ public class InstructionController {
     }
 
     /**
-     * Metodo chiamato all'inizializzazione della schermata.
+     * Metodo chiamato ad ogni visualizzazione della schermata.
      * Imposta il messaggio di istruzione in base al tipo di esercizio selezionato.
      */
-    @FXML
-    public void initialize() {
+    @Override
+    public void refresh() {
         String text;
 
         // Messaggi personalizzati per ciascun tipo di esercizio
@@ -64,13 +60,6 @@ public class InstructionController {
      */
     @FXML
     private void onOkClick() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/ExerciseView.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) instructionLabel.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.EXERCISE);
     }
 }
@@ -1,108 +1,176 @@
 package com.play.controller;
 
-import com.play.model.Attempt;
-import com.play.utils.FileManager;
+import com.play.service.AsyncService;
+import com.play.service.Leaderboard;
+import com.play.service.UserRegistry;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
-import javafx.fxml.FXMLLoader;
 
-import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller per la classifica degli utenti.
  * Mostra il punteggio totale degli utenti in base agli esercizi completati correttamente,
  * e assegna badge in base alla posizione (oro, argento, bronzo).
+ *
+ * La tabella non riceve mai l'intera classifica: le righe vengono lette dalla classifica
+ * incrementale una pagina alla volta, solo quando la tabella le mostra (vedi {@link PagedRows}),
+ * quindi lo scorrimento resta fluido anche con centinaia di migliaia di utenti.
+ * Le pagine sono lette dalla memoria; caricamento della classifica, ricerca e salto alla propria
+ * posizione passano da {@link AsyncService} e non bloccano l'interfaccia.
  */
-public class LeaderboardController {
+public class LeaderboardController implements Refreshable {
+
+    // Righe lette dalla classifica per ogni pagina e pagine tenute in memoria
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 20;
+
+    // Risultati massimi mostrati per una ricerca per prefisso
+    private static final int MAX_SEARCH_RESULTS = 500;
+
+    // Altezza fissa delle righe: la tabella non deve misurare ogni cella durante lo scorrimento
+    private static final double ROW_HEIGHT = 30;
 
     // Colonne della tabella
     @FXML private TableView<UserStats> leaderboardTable;
+    @FXML private TableColumn<UserStats, String> rankCol;
     @FXML private TableColumn<UserStats, String> usernameCol;
     @FXML private TableColumn<UserStats, String> scoreCol;
     @FXML private TableColumn<UserStats, String> badgeCol;
 
+    // Ricerca e stato
+    @FXML private TextField searchField;
+    @FXML private Label statusLabel;
+    @FXML private ProgressIndicator loadingIndicator;
+
+    // Operazioni in background della vista; una sola richiesta di contenuto alla volta
+    private final BackgroundTasks tasks = new BackgroundTasks();
+    private CompletableFuture<?> contentFuture;
+
     /**
      * Metodo di inizializzazione chiamato da JavaFX.
-     * Popola la tabella con gli utenti ordinati per punteggio e assegna le medaglie.
+     * Collega le colonne della tabella alle proprietà di {@link UserStats}.
      */
     @FXML
     public void initialize() {
         // Mappa le proprietà della classe UserStats alle colonne della tabella
+        rankCol.setCellValueFactory(data -> data.getValue().rankProperty());
         usernameCol.setCellValueFactory(data -> data.getValue().usernameProperty());
         scoreCol.setCellValueFactory(data -> data.getValue().scoreProperty());
         badgeCol.setCellValueFactory(data -> data.getValue().badgeProperty());
+        leaderboardTable.setFixedCellSize(ROW_HEIGHT);
+        leaderboardTable.setPlaceholder(new Label("Caricamento della classifica..."));
+        loadingIndicator.visibleProperty().bind(tasks.runningProperty());
+        loadingIndicator.managedProperty().bind(tasks.runningProperty());
 
-        // Carica e ordina i dati
-        List<UserStats> statsList = loadLeaderboardData();
-        statsList.sort(Comparator.comparingInt(UserStats::getScore).reversed());
-
-        // Assegna medaglie in base alla posizione
-        for (int i = 0; i < statsList.size(); i++) {
-            UserStats user = statsList.get(i);
-            switch (i) {
-                case 0:
-                    user.setBadge("🥇 Gold");
-                    break;
-                case 1:
-                    user.setBadge("🥈 Silver");
-                    break;
-                case 2:
-                    user.setBadge("🥉 Bronze");
-                    break;
-                default:
-                    user.setBadge("🎓 Newbie");
-                    break;
-            }
-        }
+        // Svuotando il campo di ricerca si torna alla classifica completa
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            if (newText.isBlank() && !oldText.isBlank()) showAll();
+        });
+    }
 
-        // Popola la tabella con i dati finali
-        leaderboardTable.setItems(FXCollections.observableArrayList(statsList));
+    /**
+     * Chiamato ad ogni visualizzazione della classifica.
+     * Mostra la classifica completa, letta a pagine dalla classifica incrementale.
+     */
+    @Override
+    public void refresh() {
+        searchField.clear();
+        showAll();
+    }
+
+    @Override
+    public void onHide() {
+        tasks.cancelAll();
+    }
+
+    private void showAll() {
+        showAll(null);
     }
 
     /**
-     * Carica e aggrega i tentativi degli utenti per calcolare il punteggio.
-     * Il punteggio varia a seconda del livello di difficoltà:
-     * - facile = 10 pt
-     * - medio = 20 pt
-     * - difficile = 30 pt
+     * Mostra la classifica completa appena disponibile (costruirla la prima volta richiede lo storico).
      *
-     * @return Lista degli utenti con i relativi punteggi
+     * @param then Azione da eseguire dopo aver mostrato la classifica, oppure null
      */
-    private List<UserStats> loadLeaderboardData() {
-        List<Attempt> allAttempts = FileManager.loadAttempts();
+    private void showAll(Runnable then) {
+        tasks.cancel(contentFuture);
+        contentFuture = tasks.run(AsyncService.leaderboard(), leaderboard -> {
+            PagedRows rows = new PagedRows(leaderboard, UserRegistry.getInstance());
+            leaderboardTable.setItems(rows);
+            statusLabel.setText(rows.size() + " utenti in classifica");
+            if (then != null) then.run();
+        });
+    }
 
-        // Raggruppa i tentativi per utente
-        Map<String, List<Attempt>> attemptsByUser = allAttempts.stream()
-                .collect(Collectors.groupingBy(Attempt::getUsername));
+    // ==============================================================
+    // ====================  RICERCA E SALTO ========================
+    // ==============================================================
 
-        List<UserStats> stats = new ArrayList<>();
+    /**
+     * Mostra solo gli utenti il cui username inizia con il testo cercato, con la loro posizione reale.
+     */
+    @FXML
+    private void onSearch() {
+        String prefix = searchField.getText();
+        if (prefix == null || prefix.isBlank()) {
+            showAll();
+            return;
+        }
 
-        for (Map.Entry<String, List<Attempt>> entry : attemptsByUser.entrySet()) {
-            String user = entry.getKey();
-            List<Attempt> userAttempts = entry.getValue();
+        tasks.cancel(contentFuture);
+        contentFuture = tasks.run(AsyncService.searchLeaderboard(prefix, MAX_SEARCH_RESULTS), entries -> {
+            UserRegistry registry = UserRegistry.getInstance();
+            List<UserStats> results = new ArrayList<>();
+            for (Leaderboard.Entry entry : entries) {
+                results.add(UserStats.of(registry, entry));
+            }
+            leaderboardTable.setItems(FXCollections.observableArrayList(results));
+            leaderboardTable.scrollTo(0);
+            statusLabel.setText(results.isEmpty() ? "Nessun utente trovato"
+                    : results.size() == MAX_SEARCH_RESULTS ? "Primi " + results.size() + " risultati"
+                    : results.size() + " risultati");
+        });
+    }
 
-            // Calcola il punteggio totale per utente, solo per tentativi corretti
-            int score = userAttempts.stream()
-                    .filter(Attempt::isCorrect)
-                    .mapToInt(attempt -> {
-                        String level = attempt.getLevel().toLowerCase();
-                        if (level.equals("facile")) return 10;
-                        if (level.equals("medio")) return 20;
-                        if (level.equals("difficile")) return 30;
-                        return 0;
-                    }).sum();
+    /**
+     * Torna alla classifica completa e la fa scorrere fino alla riga dell'utente connesso.
+     */
+    @FXML
+    private void onJumpToMe() {
+        // Svuotare il campo di ricerca fa già ripartire la classifica completa (vedi initialize)
+        if (!searchField.getText().isBlank()) searchField.clear();
+        boolean loading = contentFuture != null && !contentFuture.isDone();
+        if (loading || !(leaderboardTable.getItems() instanceof PagedRows)) {
+            // Il salto avviene appena la classifica completa è pronta
+            showAll(this::jumpToMe);
+        } else {
+            jumpToMe();
+        }
+    }
 
-            stats.add(new UserStats(user, score));
+    private void jumpToMe() {
+        if (AuthController.loggedUser == null) {
+            statusLabel.setText("Non sei ancora in classifica: completa un esercizio!");
+            return;
         }
+        tasks.run(AsyncService.leaderboardPosition(AuthController.loggedUser), this::scrollToPosition);
+    }
 
-        return stats;
+    private void scrollToPosition(int position) {
+        if (position < 0 || position >= leaderboardTable.getItems().size()) {
+            statusLabel.setText("Non sei ancora in classifica: completa un esercizio!");
+            return;
+        }
+        // Qualche riga di contesto sopra quella dell'utente
+        leaderboardTable.scrollTo(Math.max(0, position - 3));
+        leaderboardTable.getSelectionModel().select(position);
+        statusLabel.setText("Sei in posizione " + (position + 1) + " su " + leaderboardTable.getItems().size());
     }
 
     /**
@@ -110,47 +178,161 @@ public class LeaderboardController {
      */
     @FXML
     private void onBack() {
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/DashboardView.fxml"));
-            Stage stage = (Stage) leaderboardTable.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (IOException e) {
-            e.printStackTrace();
+        Navigator.show(Navigator.DASHBOARD);
+    }
+
+    // "Nome Cognome (username)" per gli utenti registrati, altrimenti solo l'username
+    private static String label(UserRegistry registry, String username) {
+        String name = registry.displayName(username);
+        return name.equals(username) ? username : name + " (" + username + ")";
+    }
+
+    // Medaglie in base alla posizione in classifica
+    private static String badgeFor(int position) {
+        switch (position) {
+            case 0:
+                return "🥇 Gold";
+            case 1:
+                return "🥈 Silver";
+            case 2:
+                return "🥉 Bronze";
+            default:
+                return "🎓 Newbie";
+        }
+    }
+
+    // ==============================================================
+    // ======================  RIGHE A PAGINE =======================
+    // ==============================================================
+
+    /**
+     * Lista osservabile di sola lettura sopra la classifica: ha la dimensione della classifica
+     * al momento della creazione, ma le righe sono lette a blocchi di {@link #PAGE_SIZE}
+     * solo quando la tabella le chiede. Le pagine usate meno di recente vengono scartate.
+     *
+     * Le righe di una pagina restano le stesse finché la pagina è in memoria,
+     * così la tabella non ricrea le proprietà delle celle ad ogni ridisegno.
+     * Se nel frattempo la classifica cambia (vedi {@link Leaderboard#version()}) tutte le pagine
+     * vengono scartate: righe di pagine lette prima e dopo un aggiornamento potrebbero altrimenti
+     * mostrare lo stesso utente due volte, o saltarne uno.
+     */
+    private static final class PagedRows extends ObservableListBase<UserStats> {
+
+        private final Leaderboard leaderboard;
+        private final UserRegistry registry;
+        private final int size;
+        // Versione della classifica a cui appartengono le pagine in memoria
+        private long version;
+
+        // Pagine in ordine di accesso: la più vecchia viene scartata oltre MAX_CACHED_PAGES
+        private final Map<Integer, List<UserStats>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<UserStats>> eldest) {
+                return size() > MAX_CACHED_PAGES;
+            }
+        };
+
+        PagedRows(Leaderboard leaderboard, UserRegistry registry) {
+            this.leaderboard = leaderboard;
+            this.registry = registry;
+            this.size = leaderboard.size();
+            this.version = leaderboard.version();
+        }
+
+        @Override
+        public UserStats get(int index) {
+            Objects.checkIndex(index, size);
+            long current = leaderboard.version();
+            if (current != version) {
+                pages.clear();
+                version = current;
+            }
+            int page = index / PAGE_SIZE;
+            List<UserStats> rows = pages.get(page);
+            if (rows == null) {
+                rows = loadPage(page);
+                pages.put(page, rows);
+            }
+            int offset = index - page * PAGE_SIZE;
+            // La classifica può essersi accorciata dopo la creazione della lista (utente cancellato)
+            return offset < rows.size() ? rows.get(offset) : UserStats.EMPTY;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private List<UserStats> loadPage(int page) {
+            List<UserStats> rows = new ArrayList<>(PAGE_SIZE);
+            for (Leaderboard.Entry entry : leaderboard.range(page * PAGE_SIZE, PAGE_SIZE)) {
+                rows.add(UserStats.of(registry, entry));
+            }
+            return rows;
         }
     }
 
     /**
      * Classe interna per rappresentare le statistiche utente.
-     * Ogni istanza rappresenta un utente con username, punteggio e badge assegnato.
+     * Ogni istanza rappresenta un utente con posizione, username, punteggio e badge assegnato;
+     * le proprietà mostrate dalla tabella sono create una sola volta.
      */
     public static class UserStats {
-        private final String username;
-        private final int score;
-        private String badge;
+        // Riga vuota per posizioni non più presenti in classifica
+        static final UserStats EMPTY = new UserStats("", 0, -1);
+
+        private final ReadOnlyStringWrapper rank;
+        private final ReadOnlyStringWrapper username;
+        private final ReadOnlyStringWrapper score;
+        private final ReadOnlyStringWrapper badge;
+        private final int scoreValue;
 
         public UserStats(String username, int score) {
-            this.username = username;
-            this.score = score;
+            this(username, score, -1);
+        }
+
+        /**
+         * @param username Nome da mostrare
+         * @param score    Punteggio totale
+         * @param rank     Rango (1-based), oppure -1 se non noto
+         */
+        public UserStats(String username, int score, int rank) {
+            this.rank = new ReadOnlyStringWrapper(rank > 0 ? String.valueOf(rank) : "");
+            this.username = new ReadOnlyStringWrapper(username);
+            this.score = new ReadOnlyStringWrapper(username.isEmpty() ? "" : String.valueOf(score));
+            this.badge = new ReadOnlyStringWrapper("");
+            this.scoreValue = score;
+        }
+
+        // Riga per una voce della classifica, con il badge della sua posizione
+        static UserStats of(UserRegistry registry, Leaderboard.Entry entry) {
+            UserStats stats = new UserStats(label(registry, entry.getUsername()), entry.getScore(), entry.getRank());
+            stats.setBadge(badgeFor(entry.getPosition()));
+            return stats;
+        }
+
+        public ReadOnlyStringProperty rankProperty() {
+            return rank.getReadOnlyProperty();
         }
 
-        public javafx.beans.property.SimpleStringProperty usernameProperty() {
-            return new javafx.beans.property.SimpleStringProperty(username);
+        public ReadOnlyStringProperty usernameProperty() {
+            return username.getReadOnlyProperty();
         }
 
-        public javafx.beans.property.SimpleStringProperty scoreProperty() {
-            return new javafx.beans.property.SimpleStringProperty(String.valueOf(score));
+        public ReadOnlyStringProperty scoreProperty() {
+            return score.getReadOnlyProperty();
         }
 
-        public javafx.beans.property.SimpleStringProperty badgeProperty() {
-            return new javafx.beans.property.SimpleStringProperty(badge);
+        public ReadOnlyStringProperty badgeProperty() {
+            return badge.getReadOnlyProperty();
         }
 
         public void setBadge(String badge) {
-            this.badge = badge;
+            this.badge.set(badge);
         }
 
         public int getScore() {
-            return score;
+            return scoreValue;
         }
     }
 }
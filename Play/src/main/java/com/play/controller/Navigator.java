@@ -0,0 +1,114 @@
+package com.play.controller;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Servizio di navigazione tra le viste dell'applicazione.
+ * Ogni file FXML viene caricato una sola volta: layout e controller restano in cache
+ * e la navigazione sostituisce solo la radice dell'unica {@link Scene} della finestra,
+ * senza ripetere parsing FXML, riflessione e applicazione dei CSS ad ogni click.
+ *
+ * I controller che implementano {@link Refreshable} vengono aggiornati ad ogni visualizzazione
+ * e avvisati quando la loro vista viene lasciata.
+ */
+public final class Navigator {
+
+    // Viste dell'applicazione
+    public static final String LOGIN = "/view/LoginView.fxml";
+    public static final String REGISTER = "/view/RegisterView.fxml";
+    public static final String DASHBOARD = "/view/DashboardView.fxml";
+    public static final String SELECTION = "/view/ExerciseSelectionView.fxml";
+    public static final String INSTRUCTION = "/view/InstructionView.fxml";
+    public static final String EXERCISE = "/view/ExerciseView.fxml";
+    public static final String SUMMARY = "/view/SummaryView.fxml";
+    public static final String LEADERBOARD = "/view/LeaderboardView.fxml";
+
+    /**
+     * Vista caricata: radice del layout e relativo controller.
+     */
+    private static final class View {
+        final Parent root;
+        final Object controller;
+
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+
+    private static final Map<String, View> cache = new HashMap<>();
+    private static Scene scene;
+    private static View current;
+
+    private Navigator() {}
+
+    /**
+     * Imposta la scena della finestra principale, su cui verranno sostituite le radici delle viste.
+     *
+     * @param mainScene Scena della finestra principale
+     */
+    public static void setScene(Scene mainScene) {
+        scene = mainScene;
+    }
+
+    /**
+     * Mostra una vista sostituendo la radice della scena e ne aggiorna il controller.
+     * Da chiamare sul thread dell'interfaccia.
+     *
+     * @param view Percorso FXML della vista (vedi costanti)
+     * @param <T>  Tipo del controller
+     * @return Controller della vista, oppure null se il caricamento fallisce
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T show(String view) {
+        View loaded = load(view);
+        if (loaded == null) return null;
+
+        if (current != null && current != loaded && current.controller instanceof Refreshable) {
+            ((Refreshable) current.controller).onHide();
+        }
+        current = loaded;
+
+        scene.setRoot(loaded.root);
+        if (loaded.controller instanceof Refreshable) {
+            ((Refreshable) loaded.controller).refresh();
+        }
+        return (T) loaded.controller;
+    }
+
+    /**
+     * Carica una vista in cache senza mostrarla (es. durante il preriscaldamento all'avvio).
+     * Può essere chiamato da un thread diverso da quello dell'interfaccia.
+     *
+     * @param view Percorso FXML della vista
+     */
+    public static void preload(String view) {
+        load(view);
+    }
+
+    /**
+     * Restituisce la vista dalla cache, caricandola al primo accesso.
+     */
+    private static synchronized View load(String view) {
+        View cached = cache.get(view);
+        if (cached != null) return cached;
+
+        try {
+            FXMLLoader loader = new FXMLLoader(Navigator.class.getResource(view));
+            Parent root = loader.load();
+            View loaded = new View(root, loader.getController());
+            cache.put(view, loaded);
+            return loaded;
+        } catch (IOException e) {
+            System.err.println("Errore nel caricamento della vista: " + view);
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.play.controller;
+
+/**
+ * Controller di una vista riutilizzata da {@link Navigator}.
+ * Poiché il layout FXML viene caricato una sola volta, {@code initialize()} prepara solo
+ * la struttura della vista; i dati vanno (ri)caricati in {@link #refresh()},
+ * chiamato ogni volta che la vista viene mostrata, compresa la prima.
+ */
+public interface Refreshable {
+
+    /**
+     * Aggiorna la vista con lo stato corrente dell'applicazione (utente loggato, tentativi, ...).
+     */
+    void refresh();
+
+    /**
+     * Chiamato quando la vista viene sostituita da un'altra: le operazioni in background
+     * avviate dalla vista vanno annullate, i loro risultati non servono più.
+     */
+    default void onHide() {}
+}
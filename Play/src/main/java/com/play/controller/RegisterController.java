@@ -1,21 +1,15 @@
 package com.play.controller;
 
 import com.play.model.User;
-import com.play.utils.FileManager;
+import com.play.service.AsyncService;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
-import javafx.scene.Parent;
-
-import java.util.List;
 
 /**
  * Controller della schermata di registrazione.
  * Consente all'utente di creare un nuovo account, verificando che l'username non sia già esistente.
  */
-public class RegisterController {
+public class RegisterController implements Refreshable {
 
     // Campi FXML per l'inserimento dati utente
     @FXML private TextField usernameField;
@@ -23,9 +17,42 @@ public class RegisterController {
     @FXML private TextField nameField;
     @FXML private TextField surnameField;
 
+    // Indicatore e bottone legati al salvataggio in corso
+    @FXML private ProgressIndicator loadingIndicator;
+    @FXML private Button registerButton;
+
+    private final BackgroundTasks tasks = new BackgroundTasks();
+
+    /**
+     * Collega l'indicatore di caricamento al salvataggio in corso.
+     */
+    @FXML
+    public void initialize() {
+        loadingIndicator.visibleProperty().bind(tasks.runningProperty());
+        loadingIndicator.managedProperty().bind(tasks.runningProperty());
+        registerButton.disableProperty().bind(tasks.runningProperty());
+    }
+
+    /**
+     * Ripulisce il form ogni volta che la schermata di registrazione viene mostrata.
+     */
+    @Override
+    public void refresh() {
+        usernameField.clear();
+        passwordField.clear();
+        nameField.clear();
+        surnameField.clear();
+    }
+
+    @Override
+    public void onHide() {
+        tasks.cancelAll();
+    }
+
     /**
      * Metodo chiamato al click sul pulsante "Registrati".
      * Valida i campi, controlla l'univocità dell'username, salva l'utente e ritorna alla login.
+     * Il salvataggio avviene in background ({@link AsyncService#register(User)}).
      */
     @FXML
     private void onRegister() {
@@ -41,30 +68,23 @@ public class RegisterController {
             return;
         }
 
-        // Controlla se l'username è già registrato
-        List<User> users = FileManager.loadUsers();
-        boolean exists = users.stream().anyMatch(u -> u.getUsername().equalsIgnoreCase(username));
-
-        if (exists) {
-            showAlert(Alert.AlertType.ERROR, "Errore", "Username già esistente. Scegli un altro.");
-            return;
-        }
-
-        // Crea il nuovo utente e lo salva nel file
+        // Registra l'utente se l'username è libero (controllo e salvataggio in un solo passaggio)
         User newUser = new User(username, password, nome, cognome);
-        FileManager.saveUser(newUser);
+        tasks.run(AsyncService.register(newUser), registered -> {
+            if (!registered) {
+                showAlert(Alert.AlertType.ERROR, "Errore", "Username già esistente. Scegli un altro.");
+                return;
+            }
 
-        // Conferma registrazione completata
-        showAlert(Alert.AlertType.INFORMATION, "Successo", "Registrazione completata!");
+            // Conferma registrazione completata
+            showAlert(Alert.AlertType.INFORMATION, "Successo", "Registrazione completata!");
 
-        // Torna alla schermata di login
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/LoginView.fxml"));
-            Stage stage = (Stage) usernameField.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+            // Torna alla schermata di login
+            Navigator.show(Navigator.LOGIN);
+        }, error -> {
+            error.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Errore", "Registrazione non riuscita, riprova.");
+        });
     }
 
     /**
@@ -72,13 +92,7 @@ public class RegisterController {
      */
     @FXML
     private void onBack() {
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/LoginView.fxml"));
-            Stage stage = (Stage) usernameField.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.LOGIN);
     }
 
     /**
@@ -1,11 +1,7 @@
 package com.play.controller;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
-import javafx.stage.Stage;
-import javafx.scene.Parent;
 
 /**
  * Controller per la schermata di riepilogo finale.
@@ -22,7 +18,8 @@ public class SummaryController {
     private long totalTimeMillis;
 
     /**
-     * Metodo pubblico chiamato per impostare i dati della sessione completata.
+     * Metodo pubblico chiamato per impostare i dati della sessione completata,
+     * subito dopo aver mostrato la vista tramite {@link Navigator#show(String)}.
      * Calcola anche la percentuale di risposte corrette.
      *
      * @param correct Numero di risposte corrette
@@ -48,12 +45,6 @@ public class SummaryController {
      */
     @FXML
     private void onBack() {
-        try {
-            Parent root = FXMLLoader.load(getClass().getResource("/view/DashboardView.fxml"));
-            Stage stage = (Stage) resultLabel.getScene().getWindow();
-            stage.setScene(new Scene(root));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.DASHBOARD);
     }
 }
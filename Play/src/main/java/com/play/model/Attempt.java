@@ -41,6 +41,28 @@ public class Attempt {
         this.timestamp = LocalDateTime.now();
     }
 
+    /**
+     * Costruttore completo con timestamp esplicito, usato quando il tentativo viene ricostruito da file.
+     *
+     * @param username   Nome utente
+     * @param type       Tipo dell'esercizio
+     * @param level      Livello di difficoltà
+     * @param question   Domanda visualizzata
+     * @param correct    Esito del tentativo (true se corretto)
+     * @param exerciseId Identificatore univoco dell'esercizio
+     * @param timestamp  Data e ora del tentativo
+     */
+    public Attempt(String username, String type, String level, String question, boolean correct, String exerciseId,
+                   LocalDateTime timestamp) {
+        this.username = username;
+        this.type = type;
+        this.level = level;
+        this.question = question;
+        this.correct = correct;
+        this.exerciseId = exerciseId;
+        this.timestamp = timestamp;
+    }
+
     // ===== Getter Methods =====
 
     /** @return Nome utente che ha svolto l’esercizio */
@@ -17,6 +17,32 @@ public class Exercise {
     private List<String> options;       // Lista delle possibili risposte
     private int correctOptionIndex;     // Indice della risposta corretta nella lista delle opzioni
 
+    /**
+     * Costruttore vuoto richiesto da librerie di serializzazione come Gson.
+     */
+    public Exercise() {}
+
+    /**
+     * Costruttore completo, usato quando l'esercizio viene letto dal catalogo precompilato.
+     *
+     * @param id                 Identificatore univoco
+     * @param type               Tipo di esercizio
+     * @param level              Livello di difficoltà
+     * @param question           Testo della domanda
+     * @param code               Codice associato (può essere null)
+     * @param options            Opzioni di risposta
+     * @param correctOptionIndex Indice dell'opzione corretta
+     */
+    public Exercise(String id, String type, String level, String question, Object code,
+                    List<String> options, int correctOptionIndex) {
+        this.id = id;
+        this.type = type;
+        this.level = level;
+        this.question = question;
+        this.code = code;
+        this.options = options;
+        this.correctOptionIndex = correctOptionIndex;
+    }
 
     /**
      * @return Identificatore univoco dell'esercizio
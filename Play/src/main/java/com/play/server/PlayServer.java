@@ -0,0 +1,441 @@
+package com.play.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.play.model.Attempt;
+import com.play.model.Exercise;
+import com.play.model.User;
+import com.play.service.*;
+import com.play.utils.AttemptWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modalità server senza interfaccia, per usare un unico archivio da tutta una classe.
+ * Espone come API JSON la selezione degli esercizi di una sessione, la registrazione delle risposte,
+ * il progresso dell'utente e la classifica, sugli stessi servizi dell'applicazione desktop
+ * ({@link ExerciseService}, {@link AttemptStore}, {@link Leaderboard}, {@link UserRegistry}).
+ *
+ * Usa il server HTTP del JDK con un thread virtuale per richiesta: centinaia di studenti
+ * collegati non richiedono un pool di thread dimensionato a mano.
+ *
+ * Endpoint:
+ * - POST /api/register     {username, password, name, surname}
+ * - POST /api/login        {username, password} → {token}
+ * - GET  /api/session      ?type=&amp;level=  (autenticato) → esercizi della sessione, senza soluzione
+ * - POST /api/attempts     {exerciseId, answer} (autenticato) → esito e risposta corretta
+ * - GET  /api/progress     (autenticato) → tentativi e completamento per tipo
+ * - POST /api/progress/reset (autenticato) → cancella tutti i tentativi dell'utente
+ * - GET  /api/leaderboard  ?limit=
+ *
+ * Le richieste autenticate portano l'header {@code Authorization: Bearer <token>}.
+ * Un token scade dopo {@code play.server.sessionMinutes} minuti (default 120) senza richieste;
+ * i token scaduti vengono rimossi al più una volta al minuto, in occasione di un login.
+ * I percorsi devono coincidere esattamente con quelli elencati: gli altri ricevono 404.
+ *
+ * Avvio: {@code mvn exec:java -Dplay.dataDir=<cartella> -Dexec.args="--server --port 8080"}
+ */
+public final class PlayServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_LEADERBOARD_LIMIT = 10;
+    private static final Set<String> LEVELS = Set.of("facile", "medio", "difficile");
+    private static final long SESSION_TTL_MILLIS = Long.getLong("play.server.sessionMinutes", 120) * 60_000;
+    private static final long SESSION_SWEEP_MILLIS = 60_000;
+
+    static {
+        // Il server del JDK scrive intestazioni e corpo separatamente: senza TCP_NODELAY ogni risposta
+        // su connessione persistente attende l'ACK ritardato del client (circa 40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /** Errore da restituire al client con il relativo codice HTTP */
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /** Gestore di un endpoint: riceve la richiesta e l'utente autenticato (null se non richiesto) */
+    private interface Endpoint {
+        Object handle(HttpExchange exchange, String username) throws IOException;
+    }
+
+    // ====== Corpi delle richieste ======
+
+    private static final class Credentials {
+        String username;
+        String password;
+        String name;
+        String surname;
+    }
+
+    private static final class Answer {
+        String exerciseId;
+        Integer answer;
+    }
+
+    // ====== Corpi delle risposte ======
+
+    /** Esercizio inviato al client, senza l'indice della risposta corretta */
+    private static final class ExerciseView {
+        final String id;
+        final String type;
+        final String level;
+        final String question;
+        final Object code;
+        final List<String> options;
+
+        ExerciseView(Exercise e) {
+            this.id = e.getId();
+            this.type = e.getType();
+            this.level = e.getLevel();
+            this.question = e.getQuestion();
+            this.code = e.getCode();
+            this.options = e.getOptions();
+        }
+    }
+
+    /** Sessione di un utente: scade se non usata per la durata configurata */
+    private static final class Session {
+        final String username;
+        volatile long expiresAt;
+
+        Session(String username, long expiresAt) {
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class LeaderboardRow {
+        final int position;
+        final int rank;
+        final String username;
+        final String displayName;
+        final int score;
+
+        LeaderboardRow(Leaderboard.Entry entry, String displayName) {
+            this.position = entry.getPosition();
+            this.rank = entry.getRank();
+            this.username = entry.getUsername();
+            this.displayName = displayName;
+            this.score = entry.getScore();
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+    private final ExerciseService service = new ExerciseService();
+
+    // Token di sessione → sessione
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long sessionTtlMillis;
+    private volatile long lastSweep = System.currentTimeMillis();
+
+    /**
+     * Crea il server sulla porta indicata (0 = porta libera scelta dal sistema). Non lo avvia.
+     *
+     * @param port Porta di ascolto
+     * @throws IOException Se la porta non è disponibile
+     */
+    public PlayServer(int port) throws IOException {
+        this(port, SESSION_TTL_MILLIS);
+    }
+
+    /**
+     * @param port             Porta di ascolto
+     * @param sessionTtlMillis Inattività dopo la quale un token di sessione scade
+     * @throws IOException Se la porta non è disponibile
+     */
+    PlayServer(int port, long sessionTtlMillis) throws IOException {
+        this.sessionTtlMillis = sessionTtlMillis;
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(executor);
+
+        route("/api/register", "POST", 201, false, this::register);
+        route("/api/login", "POST", 200, false, this::login);
+        route("/api/session", "GET", 200, true, this::session);
+        route("/api/attempts", "POST", 200, true, this::attempt);
+        route("/api/progress", "GET", 200, true, this::progress);
+        route("/api/progress/reset", "POST", 200, true, this::resetProgress);
+        route("/api/leaderboard", "GET", 200, false, this::leaderboard);
+    }
+
+    /**
+     * Avvia il server in modalità headless, come da riga di comando di {@code Main --server}.
+     * Carica subito catalogo, tentativi e utenti, e alla chiusura del processo svuota la coda dei tentativi.
+     *
+     * @param args Argomenti (es. --port 8080)
+     * @throws IOException Se la porta non è disponibile
+     */
+    public static void run(String[] args) throws IOException {
+        int port = Integer.getInteger("play.server.port", DEFAULT_PORT);
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("--port")) port = Integer.parseInt(args[i + 1]);
+        }
+
+        long start = System.nanoTime();
+        ExerciseCatalog.getInstance();
+        Leaderboard.getInstance();      // carica anche AttemptStore
+        UserRegistry.getInstance();
+
+        PlayServer server = new PlayServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            AttemptWriter.getInstance().shutdown();
+        }, "play-server-shutdown"));
+        server.start();
+
+        System.out.printf("✅ Server avviato su http://localhost:%d (pronto in %.0f ms)%n",
+                server.getPort(), (System.nanoTime() - start) / 1e6);
+    }
+
+    /** Avvia l'ascolto delle richieste */
+    public void start() {
+        server.start();
+    }
+
+    /** Smette di accettare richieste, attende al massimo un secondo quelle in corso e chiude il server */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /** @return Porta effettiva di ascolto */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // ==============================================================
+    // =========================  ENDPOINT ==========================
+    // ==============================================================
+
+    private Object register(HttpExchange exchange, String ignored) throws IOException {
+        Credentials body = readBody(exchange, Credentials.class);
+        if (isBlank(body.username) || isBlank(body.password) || isBlank(body.name) || isBlank(body.surname)) {
+            throw new HttpError(400, "Tutti i campi sono obbligatori");
+        }
+        User user = new User(body.username.trim(), body.password.trim(), body.name.trim(), body.surname.trim());
+        boolean registered;
+        try {
+            registered = UserRegistry.getInstance().register(user);
+        } catch (IOException e) {
+            // Non va confusa con una disconnessione del client: l'utente non è stato salvato
+            e.printStackTrace();
+            throw new HttpError(503, "Registrazione non riuscita, riprova");
+        }
+        if (!registered) throw new HttpError(409, "Username già esistente");
+        return Map.of("username", user.getUsername());
+    }
+
+    private Object login(HttpExchange exchange, String ignored) throws IOException {
+        Credentials body = readBody(exchange, Credentials.class);
+        Optional<User> user = UserRegistry.getInstance().authenticate(body.username, body.password);
+        if (user.isEmpty()) throw new HttpError(401, "Credenziali errate");
+
+        long now = System.currentTimeMillis();
+        if (now - lastSweep >= SESSION_SWEEP_MILLIS) {
+            lastSweep = now;
+            sessions.values().removeIf(session -> session.expiresAt <= now);
+        }
+        String token = UUID.randomUUID().toString();
+        sessions.put(token, new Session(user.get().getUsername(), now + sessionTtlMillis));
+        return Map.of("token", token, "username", user.get().getUsername());
+    }
+
+    /**
+     * Esercizi di una sessione per tipo e livello, con ripassi ed esercizi nuovi (come la schermata di selezione).
+     */
+    private Object session(HttpExchange exchange, String username) {
+        Map<String, String> query = query(exchange);
+        String type = query.get("type");
+        String level = query.get("level");
+        if (type == null || !ExerciseCatalog.types().contains(type)) throw new HttpError(400, "Tipo non valido");
+        if (level == null || !LEVELS.contains(level)) throw new HttpError(400, "Livello non valido");
+
+        List<ExerciseView> exercises = new ArrayList<>();
+        for (Exercise e : service.loadExercises(username, type, level)) {
+            exercises.add(new ExerciseView(e));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("type", type);
+        response.put("level", level);
+        response.put("completion", service.calculateCompletionPercentage(username, type, level));
+        response.put("exercises", exercises);
+        return response;
+    }
+
+    /**
+     * Registra la risposta di un utente: l'esito è calcolato dal server sul catalogo.
+     */
+    private Object attempt(HttpExchange exchange, String username) throws IOException {
+        Answer body = readBody(exchange, Answer.class);
+        if (body.exerciseId == null || body.answer == null) throw new HttpError(400, "exerciseId e answer obbligatori");
+
+        Exercise exercise = ExerciseCatalog.getInstance().getById(body.exerciseId);
+        if (exercise == null) throw new HttpError(404, "Esercizio sconosciuto");
+        int options = exercise.getOptions() == null ? 0 : exercise.getOptions().size();
+        if (body.answer < 0 || body.answer >= options) throw new HttpError(400, "Risposta non valida");
+
+        boolean correct = body.answer == exercise.getCorrectOptionIndex();
+        AttemptStore.getInstance().record(new Attempt(username, exercise.getType(), exercise.getLevel(),
+                exercise.getQuestion(), correct, exercise.getId()));
+
+        return Map.of("correct", correct, "correctOptionIndex", exercise.getCorrectOptionIndex());
+    }
+
+    private Object progress(HttpExchange exchange, String username) {
+        DashboardStats stats = DashboardStats.compute(username);
+
+        Map<String, Object> types = new LinkedHashMap<>();
+        for (String type : ExerciseCatalog.types()) {
+            types.put(type, Map.of("attempts", stats.getAttempts(type), "percent", stats.getPercent(type)));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("username", username);
+        response.put("totalAttempts", stats.getTotalAttempts());
+        response.put("successRate", stats.getSuccessRate());
+        response.put("globalProgress", stats.getGlobalProgress());
+        response.put("types", types);
+        return response;
+    }
+
+    /**
+     * Azzera i progressi dell'utente: i suoi tentativi spariscono da progresso e classifica,
+     * e nel log viene accodato un tombstone.
+     */
+    private Object resetProgress(HttpExchange exchange, String username) {
+        AttemptStore.getInstance().deleteUser(username);
+        return Map.of("username", username, "reset", true);
+    }
+
+    private Object leaderboard(HttpExchange exchange, String ignored) {
+        int limit = DEFAULT_LEADERBOARD_LIMIT;
+        String value = query(exchange).get("limit");
+        if (value != null) {
+            try {
+                limit = Math.max(1, Math.min(1000, Integer.parseInt(value)));
+            } catch (NumberFormatException e) {
+                throw new HttpError(400, "limit non valido");
+            }
+        }
+
+        UserRegistry registry = UserRegistry.getInstance();
+        List<LeaderboardRow> rows = new ArrayList<>();
+        for (Leaderboard.Entry entry : Leaderboard.getInstance().topK(limit)) {
+            rows.add(new LeaderboardRow(entry, registry.displayName(entry.getUsername())));
+        }
+        return rows;
+    }
+
+    // ==============================================================
+    // =====================  GESTIONE RICHIESTE ====================
+    // ==============================================================
+
+    /**
+     * Registra un endpoint: controllo del metodo, autenticazione, serializzazione della risposta
+     * e traduzione degli errori in codici HTTP.
+     */
+    private void route(String path, String method, int status, boolean authenticated, Endpoint endpoint) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                try {
+                    // Il server del JDK instrada per prefisso: /api/sessionX arriverebbe a /api/session
+                    if (!exchange.getRequestURI().getPath().equals(path)) {
+                        throw new HttpError(404, "Risorsa non trovata");
+                    }
+                    if (!exchange.getRequestMethod().equals(method)) {
+                        exchange.getResponseHeaders().set("Allow", method);
+                        throw new HttpError(405, "Metodo non consentito");
+                    }
+                    String username = authenticated ? authenticate(exchange) : null;
+                    Object body = endpoint.handle(exchange, username);
+                    send(exchange, status, body);
+                } catch (HttpError e) {
+                    send(exchange, e.status, Map.of("error", e.getMessage()));
+                } catch (JsonParseException e) {
+                    send(exchange, 400, Map.of("error", "JSON non valido"));
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    send(exchange, 500, Map.of("error", "Errore interno"));
+                }
+            } catch (IOException e) {
+                // Client disconnesso durante la risposta
+                System.err.println("Risposta non inviata: " + e.getMessage());
+            }
+        });
+    }
+
+    private String authenticate(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        String token = header != null && header.startsWith("Bearer ") ? header.substring("Bearer ".length()).trim() : null;
+        Session session = token == null ? null : sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (session != null && session.expiresAt <= now) {
+            sessions.remove(token, session);
+            session = null;
+        }
+        if (session == null) throw new HttpError(401, "Autenticazione richiesta");
+        // Scadenza a partire dall'ultima richiesta
+        session.expiresAt = now + sessionTtlMillis;
+        return session.username;
+    }
+
+    private <T> T readBody(HttpExchange exchange, Class<T> type) throws IOException {
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            T body = gson.fromJson(reader, type);
+            if (body == null) throw new HttpError(400, "Corpo della richiesta mancante");
+            return body;
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
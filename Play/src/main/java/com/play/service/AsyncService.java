@@ -0,0 +1,150 @@
+package com.play.service;
+
+import com.play.model.Exercise;
+import com.play.model.User;
+import com.play.utils.HighlightCache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Versione non bloccante delle operazioni usate dall'interfaccia: ogni metodo restituisce subito
+ * un {@link CompletableFuture} e svolge il lavoro (letture da disco comprese, al primo accesso
+ * a registro utenti, tentativi e catalogo) su un thread virtuale.
+ *
+ * Il risultato va pubblicato sul thread JavaFX dal chiamante (vedi {@code BackgroundTasks} nei controller).
+ * Annullare il future scarta il risultato; il lavoro già avviato viene comunque portato a termine,
+ * così che indici e file restino coerenti.
+ */
+public final class AsyncService {
+
+    // Un thread virtuale per operazione: le attese su disco non occupano thread di piattaforma
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncService() {}
+
+    /**
+     * Esegue un'operazione qualsiasi sull'executor condiviso.
+     *
+     * @param work Operazione da eseguire
+     * @param <T>  Tipo del risultato
+     * @return Future completato con il risultato o con l'eccezione sollevata
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, EXECUTOR);
+    }
+
+    // ==============================================================
+    // ==========================  UTENTI ===========================
+    // ==============================================================
+
+    /**
+     * Verifica le credenziali e, se valide, avvia il precalcolo delle statistiche della dashboard.
+     *
+     * @param username Nome utente
+     * @param password Password in chiaro
+     * @return Utente autenticato, se le credenziali sono valide
+     */
+    public static CompletableFuture<Optional<User>> login(String username, String password) {
+        return supply(() -> {
+            Optional<User> user = UserRegistry.getInstance().authenticate(username, password);
+            user.ifPresent(u -> DashboardStats.prefetch(username));
+            return user;
+        });
+    }
+
+    /**
+     * Registra un nuovo utente, se l'username è libero.
+     *
+     * @param user Nuovo utente
+     * @return false se l'username è già in uso; completato con errore se l'utente non è stato salvato
+     */
+    public static CompletableFuture<Boolean> register(User user) {
+        return supply(() -> {
+            try {
+                return UserRegistry.getInstance().register(user);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // ==============================================================
+    // ========================  DASHBOARD ==========================
+    // ==============================================================
+
+    /**
+     * @param username Nome utente
+     * @return Statistiche della dashboard (precalcolate al login, se pronte)
+     */
+    public static CompletableFuture<DashboardStats> dashboardStats(String username) {
+        return supply(() -> DashboardStats.forUser(username));
+    }
+
+    // ==============================================================
+    // =========================  ESERCIZI ==========================
+    // ==============================================================
+
+    /**
+     * @param username Nome utente
+     * @param type     Tipo di esercizio
+     * @param level    Livello
+     * @return Percentuale (0-100) di esercizi di quel tipo e livello risolti dall'utente
+     */
+    public static CompletableFuture<Double> completion(String username, String type, String level) {
+        return supply(() -> new ExerciseService().calculateCompletionPercentage(username, type, level));
+    }
+
+    /**
+     * Prepara una sessione: sceglie ripassi scaduti ed esercizi nuovi e ne avvia l'evidenziazione del codice.
+     *
+     * @param username Nome utente
+     * @param type     Tipo di esercizio
+     * @param level    Livello
+     * @return Esercizi della sessione (vuota se non ci sono esercizi nuovi né ripassi scaduti)
+     */
+    public static CompletableFuture<List<Exercise>> startSession(String username, String type, String level) {
+        return supply(() -> {
+            List<Exercise> session = new ExerciseService().loadExercises(username, type, level);
+            if (!session.isEmpty()) HighlightCache.getInstance().precompute(session);
+            return session;
+        });
+    }
+
+    // ==============================================================
+    // ========================  CLASSIFICA =========================
+    // ==============================================================
+
+    /**
+     * @return Classifica condivisa, costruita dallo storico al primo accesso
+     */
+    public static CompletableFuture<Leaderboard> leaderboard() {
+        return supply(() -> {
+            // Anche il registro utenti serve alla vista (nomi mostrati): caricato qui, non sul thread JavaFX
+            UserRegistry.getInstance();
+            return Leaderboard.getInstance();
+        });
+    }
+
+    /**
+     * @param prefix Prefisso dell'username
+     * @param limit  Numero massimo di voci
+     * @return Voci il cui username inizia con il prefisso, in ordine di classifica
+     */
+    public static CompletableFuture<List<Leaderboard.Entry>> searchLeaderboard(String prefix, int limit) {
+        return supply(() -> Leaderboard.getInstance().searchPrefix(prefix, limit));
+    }
+
+    /**
+     * @param username Nome utente
+     * @return Posizione (0-based) dell'utente in classifica, -1 se assente
+     */
+    public static CompletableFuture<Integer> leaderboardPosition(String username) {
+        return supply(() -> Leaderboard.getInstance().positionOf(username));
+    }
+}
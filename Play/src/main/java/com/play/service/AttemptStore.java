@@ -0,0 +1,355 @@
+package com.play.service;
+
+import com.play.model.Attempt;
+import com.play.utils.AttemptLog;
+import com.play.utils.AttemptWriter;
+import com.play.utils.FileManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Archivio in memoria dei tentativi, condiviso da tutta l'applicazione.
+ * Carica il log dei tentativi all'avvio e mantiene indici secondari
+ * (per utente, per utente e tipo, per esercizio, per esito) così che le query
+ * di dashboard, selezione e classifica costino in proporzione al risultato
+ * e non alla dimensione dello storico.
+ *
+ * Per ogni utente gli esercizi risolti sono tenuti in una {@link CompletionBitmap}
+ * sugli ordinali del catalogo, così le percentuali di completamento per tipo e livello
+ * si contano con un popcount, senza costruire insiemi di ID.
+ *
+ * Anche le scritture passano dall'archivio: il tentativo viene indicizzato subito
+ * e salvato su disco in background tramite {@link AttemptWriter}.
+ *
+ * Ogni {@code play.attempts.refreshMillis} ms (default 15000, 0 per disattivare) un thread
+ * in background indicizza i tentativi e le cancellazioni comparsi nel log dopo l'ultima lettura,
+ * cioè quelli delle altre postazioni che condividono la cartella dati.
+ */
+public class AttemptStore {
+
+    /**
+     * Ascoltatore delle modifiche all'archivio, usato dalle strutture derivate (es. classifica).
+     * I metodi sono chiamati sotto il lock dell'archivio e devono essere rapidi.
+     */
+    public interface Listener {
+        /** Chiamato dopo la registrazione di un nuovo tentativo */
+        void onAttemptRecorded(Attempt attempt);
+
+        /** Chiamato dopo la cancellazione di tutti i tentativi di un utente */
+        default void onUserDeleted(String username) {}
+    }
+
+    private static AttemptStore instance;
+
+    // Intervallo tra due letture delle novità del log (0 = mai)
+    private static final long REFRESH_MILLIS = Long.getLong("play.attempts.refreshMillis", 15_000);
+
+    private final List<Attempt> all = new ArrayList<>();
+    private final Map<String, List<Attempt>> byUser = new HashMap<>();
+    private final Map<String, Map<String, List<Attempt>>> byUserAndType = new HashMap<>();
+    private final Map<String, List<Attempt>> byExercise = new HashMap<>();
+    private final List<Attempt> correctAttempts = new ArrayList<>();
+    private final List<Attempt> wrongAttempts = new ArrayList<>();
+
+    // Esercizi risolti per utente, per ordinale del catalogo
+    private final Map<String, CompletionBitmap> completionByUser = new HashMap<>();
+    private final ExerciseCatalog catalog = ExerciseCatalog.getInstance();
+
+    // Strutture derivate (es. classifica) aggiornate ad ogni nuovo tentativo
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Costruisce l'archivio indicizzando i tentativi forniti.
+     *
+     * @param attempts Tentativi iniziali
+     */
+    AttemptStore(List<Attempt> attempts) {
+        for (Attempt attempt : attempts) {
+            index(attempt);
+        }
+    }
+
+    /**
+     * Restituisce l'archivio condiviso, caricando i tentativi da disco al primo accesso.
+     *
+     * @return Istanza condivisa
+     */
+    public static synchronized AttemptStore getInstance() {
+        if (instance == null) {
+            if (REFRESH_MILLIS > 0) FileManager.trackAttemptChanges();
+            instance = new AttemptStore(FileManager.loadAttempts());
+            if (REFRESH_MILLIS > 0) startRefresher(instance);
+        }
+        return instance;
+    }
+
+    private static void startRefresher(AttemptStore store) {
+        Thread refresher = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(REFRESH_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    store.refresh();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, "attempt-refresh");
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+
+    // ==============================================================
+    // ========================  SCRITTURA ==========================
+    // ==============================================================
+
+    /**
+     * Registra un nuovo tentativo: lo indicizza subito e lo accoda per il salvataggio su disco.
+     *
+     * @param attempt Tentativo da registrare
+     */
+    public void record(Attempt attempt) {
+        synchronized (this) {
+            add(attempt);
+            // Accodato sotto lock: l'ordine nel log rispetta quello di registrazione e cancellazione
+            AttemptWriter.getInstance().submit(attempt);
+        }
+    }
+
+    /**
+     * Cancella tutti i tentativi di un utente: li rimuove dagli indici e accoda un tombstone
+     * per il log tramite {@link AttemptWriter}, senza riscrivere lo storico né attendere il disco.
+     *
+     * @param username Utente di cui cancellare i tentativi
+     */
+    public synchronized void deleteUser(String username) {
+        if (removeUser(username).isEmpty()) return;
+        // Accodato sotto lock come in record(): il tombstone segue i tentativi già accodati
+        AttemptWriter.getInstance().submitDeletion(username);
+    }
+
+    /**
+     * Indicizza i tentativi comparsi nel log dopo l'ultima lettura e applica le cancellazioni
+     * lette insieme ad essi. I tentativi già presenti (stessi utente, esercizio, istante ed esito),
+     * come quelli registrati da questo processo, vengono ignorati. La lettura del disco avviene
+     * fuori dal lock dell'archivio.
+     */
+    public void refresh() {
+        AttemptLog.Changes changes = FileManager.pollAttemptChanges();
+        if (changes.isEmpty()) return;
+        synchronized (this) {
+            changes.getTombstones().forEach(this::applyTombstone);
+            for (Attempt attempt : changes.getAttempts()) {
+                if (!contains(attempt)) add(attempt);
+            }
+        }
+    }
+
+    /**
+     * Registra un ascoltatore notificato (sotto il lock dell'archivio) ad ogni nuovo tentativo.
+     * Chi costruisce uno stato derivato dovrebbe leggere i dati esistenti e registrarsi
+     * nello stesso blocco sincronizzato sull'archivio, per non perdere tentativi.
+     *
+     * @param listener Ascoltatore da registrare
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Applica un tombstone letto dal log: rimuove i tentativi dell'utente fino all'istante indicato
+     * e reindicizza quelli successivi. Non fa nulla se non ci sono tentativi da rimuovere
+     * (es. il tombstone scritto da questo processo).
+     */
+    private void applyTombstone(String username, LocalDateTime until) {
+        List<Attempt> attempts = byUser.get(username);
+        if (attempts == null) return;
+        boolean hidden = false;
+        for (Attempt attempt : attempts) {
+            if (attempt.getTimestamp() == null || !attempt.getTimestamp().isAfter(until)) {
+                hidden = true;
+                break;
+            }
+        }
+        if (!hidden) return;
+
+        for (Attempt attempt : removeUser(username)) {
+            if (attempt.getTimestamp() != null && attempt.getTimestamp().isAfter(until)) add(attempt);
+        }
+    }
+
+    /**
+     * Rimuove tutti i tentativi di un utente dagli indici e notifica gli ascoltatori.
+     *
+     * @return Tentativi rimossi (vuota se l'utente non ne aveva)
+     */
+    private List<Attempt> removeUser(String username) {
+        List<Attempt> removed = byUser.remove(username);
+        if (removed == null) return Collections.emptyList();
+
+        Set<Attempt> removedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        removedSet.addAll(removed);
+        all.removeIf(removedSet::contains);
+        correctAttempts.removeIf(removedSet::contains);
+        wrongAttempts.removeIf(removedSet::contains);
+        for (Attempt attempt : removed) {
+            List<Attempt> forExercise = byExercise.get(attempt.getExerciseId());
+            if (forExercise != null) {
+                forExercise.removeIf(removedSet::contains);
+                if (forExercise.isEmpty()) byExercise.remove(attempt.getExerciseId());
+            }
+        }
+        byUserAndType.remove(username);
+        completionByUser.remove(username);
+
+        for (Listener listener : listeners) {
+            listener.onUserDeleted(username);
+        }
+        return removed;
+    }
+
+    // Un tentativo letto dal log è già presente se l'utente ne ha uno con stessi esercizio, istante ed esito
+    // (al microsecondo, la precisione dello snapshot); si cerca dalla fine perché quelli scritti
+    // da questo processo sono i più recenti
+    private boolean contains(Attempt attempt) {
+        List<Attempt> attempts = byUser.get(attempt.getUsername());
+        if (attempts == null) return false;
+        LocalDateTime timestamp = micros(attempt.getTimestamp());
+        for (int i = attempts.size() - 1; i >= 0; i--) {
+            Attempt other = attempts.get(i);
+            if (other.isCorrect() == attempt.isCorrect()
+                    && Objects.equals(micros(other.getTimestamp()), timestamp)
+                    && Objects.equals(other.getExerciseId(), attempt.getExerciseId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime micros(LocalDateTime timestamp) {
+        return timestamp == null ? null : timestamp.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    // Indicizza un tentativo e lo notifica agli ascoltatori
+    private void add(Attempt attempt) {
+        index(attempt);
+        for (Listener listener : listeners) {
+            listener.onAttemptRecorded(attempt);
+        }
+    }
+
+    /**
+     * Inserisce un tentativo in tutti gli indici.
+     *
+     * @param attempt Tentativo da indicizzare
+     */
+    private void index(Attempt attempt) {
+        String user = attempt.getUsername();
+        String type = attempt.getType();
+
+        all.add(attempt);
+        byUser.computeIfAbsent(user, k -> new ArrayList<>()).add(attempt);
+        byUserAndType.computeIfAbsent(user, k -> new HashMap<>())
+                .computeIfAbsent(type, k -> new ArrayList<>()).add(attempt);
+        byExercise.computeIfAbsent(attempt.getExerciseId(), k -> new ArrayList<>()).add(attempt);
+
+        if (attempt.isCorrect()) {
+            correctAttempts.add(attempt);
+            int ordinal = catalog.ordinalOf(attempt.getExerciseId());
+            if (ordinal >= 0) {
+                completionByUser.computeIfAbsent(user, k -> new CompletionBitmap(catalog.size())).set(ordinal);
+            }
+        } else {
+            wrongAttempts.add(attempt);
+        }
+    }
+
+    // ==============================================================
+    // =========================  QUERY =============================
+    // ==============================================================
+
+    /** @return Copia di tutti i tentativi registrati */
+    public synchronized List<Attempt> getAll() {
+        return new ArrayList<>(all);
+    }
+
+    /** @return Numero totale di tentativi registrati */
+    public synchronized int size() {
+        return all.size();
+    }
+
+    /** @return Username di tutti gli utenti che hanno almeno un tentativo */
+    public synchronized Set<String> getUsernames() {
+        return new HashSet<>(byUser.keySet());
+    }
+
+    /**
+     * @param username Nome utente
+     * @return Tentativi dell'utente, in ordine di registrazione
+     */
+    public synchronized List<Attempt> getByUser(String username) {
+        return new ArrayList<>(byUser.getOrDefault(username, Collections.emptyList()));
+    }
+
+    /**
+     * @param username Nome utente
+     * @param type     Tipo di esercizio
+     * @return Tentativi dell'utente per quel tipo
+     */
+    public synchronized List<Attempt> getByUserAndType(String username, String type) {
+        return new ArrayList<>(byUserAndType.getOrDefault(username, Collections.emptyMap())
+                .getOrDefault(type, Collections.emptyList()));
+    }
+
+    /**
+     * @param username Nome utente
+     * @param type     Tipo di esercizio
+     * @return Numero di tentativi dell'utente per quel tipo
+     */
+    public synchronized int countByUserAndType(String username, String type) {
+        return byUserAndType.getOrDefault(username, Collections.emptyMap())
+                .getOrDefault(type, Collections.emptyList()).size();
+    }
+
+    /**
+     * @param exerciseId ID dell'esercizio
+     * @return Tentativi registrati su quell'esercizio
+     */
+    public synchronized List<Attempt> getByExercise(String exerciseId) {
+        return new ArrayList<>(byExercise.getOrDefault(exerciseId, Collections.emptyList()));
+    }
+
+    /**
+     * @param correct true per i tentativi corretti, false per quelli errati
+     * @return Tentativi con l'esito indicato
+     */
+    public synchronized List<Attempt> getByCorrectness(boolean correct) {
+        return new ArrayList<>(correct ? correctAttempts : wrongAttempts);
+    }
+
+    /**
+     * Esercizi risolti dall'utente in un intervallo di ordinali del catalogo, senza allocazioni.
+     *
+     * @param username Nome utente
+     * @param range    Intervallo (vedi {@link ExerciseCatalog#rangeOf(String, String)})
+     * @return Numero di esercizi distinti dell'intervallo risolti correttamente
+     */
+    public synchronized int countCompleted(String username, ExerciseCatalog.OrdinalRange range) {
+        CompletionBitmap bitmap = completionByUser.get(username);
+        return bitmap == null ? 0 : bitmap.count(range);
+    }
+
+    /**
+     * @param username Nome utente
+     * @return Numero di esercizi distinti del catalogo risolti correttamente dall'utente, in O(1)
+     */
+    public synchronized int countCompleted(String username) {
+        CompletionBitmap bitmap = completionByUser.get(username);
+        return bitmap == null ? 0 : bitmap.cardinality();
+    }
+}
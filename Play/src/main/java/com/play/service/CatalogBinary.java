@@ -0,0 +1,173 @@
+package com.play.service;
+
+import com.play.model.Exercise;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Formato binario del catalogo esercizi precompilato in fase di build
+ * (vedi {@link com.play.tools.CatalogCompiler}).
+ *
+ * Struttura (DataOutputStream, big-endian):
+ * <pre>
+ * int MAGIC, int VERSION, byte[32] hash SHA-256 dei file JSON sorgente
+ * int numeroTipi
+ *   per ogni tipo: stringa tipo, int numeroEsercizi
+ *     per ogni esercizio: id, tipo, livello, domanda, codice (nullable),
+ *                         int numeroOpzioni, opzioni..., int indiceCorretto
+ * </pre>
+ * Gli esercizi sono scritti nell'ordine del catalogo, già raggruppati per livello con la stessa chiave
+ * di {@link ExerciseCatalog} (senza distinzione maiuscole/minuscole), e ognuno conserva tipo e livello
+ * originali: il catalogo ricostruito dal binario coincide con quello letto dai file JSON.
+ * Le stringhe sono scritte come int lunghezza + byte UTF-8 (lunghezza -1 per null).
+ */
+public final class CatalogBinary {
+
+    /** Risorsa del catalogo precompilato nel classpath */
+    public static final String RESOURCE = "/data/catalog.bin";
+
+    private static final int MAGIC = 0x504C4558; // "PLEX"
+    private static final int VERSION = 2;
+    private static final int HASH_LENGTH = 32;
+
+    private CatalogBinary() {}
+
+    /**
+     * Calcola l'hash SHA-256 del contenuto dei file JSON del catalogo, nell'ordine dei tipi.
+     * Legge solo i byte delle risorse, senza interpretarli.
+     *
+     * @return Hash dei sorgenti
+     * @throws IOException Se una risorsa manca o non è leggibile
+     */
+    public static byte[] sourceHash() throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        for (String type : ExerciseCatalog.types()) {
+            String resource = ExerciseCatalog.resourceFor(type);
+            try (InputStream is = CatalogBinary.class.getResourceAsStream(resource)) {
+                if (is == null) throw new FileNotFoundException("File non trovato: " + resource);
+                digest.update(is.readAllBytes());
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Scrive il catalogo in formato binario.
+     *
+     * @param catalog Catalogo da scrivere
+     * @param hash    Hash dei file JSON sorgente
+     * @param output  Stream di destinazione
+     * @throws IOException In caso di errore di scrittura o di codice non testuale
+     */
+    public static void write(ExerciseCatalog catalog, byte[] hash, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.write(hash);
+
+        out.writeInt(ExerciseCatalog.types().size());
+        for (String type : ExerciseCatalog.types()) {
+            List<Exercise> exercises = catalog.getByType(type);
+            writeString(out, type);
+            out.writeInt(exercises.size());
+            for (Exercise e : exercises) {
+                if (e.getCode() != null && !(e.getCode() instanceof String)) {
+                    throw new IOException("Codice non testuale nell'esercizio " + e.getId());
+                }
+                writeString(out, e.getId());
+                writeString(out, e.getType());
+                writeString(out, e.getLevel());
+                writeString(out, e.getQuestion());
+                writeString(out, (String) e.getCode());
+                List<String> options = e.getOptions() == null ? List.of() : e.getOptions();
+                out.writeInt(options.size());
+                for (String option : options) writeString(out, option);
+                out.writeInt(e.getCorrectOptionIndex());
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Carica il catalogo precompilato dal classpath, se presente e coerente con i file JSON.
+     *
+     * @return Esercizi raggruppati per tipo, oppure null se il binario manca o l'hash non corrisponde
+     */
+    static Map<String, List<Exercise>> load() {
+        try (InputStream is = CatalogBinary.class.getResourceAsStream(RESOURCE)) {
+            if (is == null) return null;
+            Map<String, List<Exercise>> exercises = read(is, sourceHash());
+            if (exercises == null) System.err.println("Catalogo precompilato non aggiornato: uso i file JSON.");
+            return exercises;
+        } catch (IOException e) {
+            System.err.println("Catalogo precompilato non leggibile: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Legge un catalogo in formato binario.
+     *
+     * @param input        Stream del catalogo
+     * @param expectedHash Hash dei file JSON a cui il catalogo deve corrispondere
+     * @return Esercizi raggruppati per tipo, oppure null se formato, versione o hash non corrispondono
+     * @throws IOException Se il catalogo è troncato o non leggibile
+     */
+    static Map<String, List<Exercise>> read(InputStream input, byte[] expectedHash) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+
+        byte[] hash = new byte[HASH_LENGTH];
+        in.readFully(hash);
+        if (!MessageDigest.isEqual(hash, expectedHash)) return null;
+
+        Map<String, List<Exercise>> exercises = new LinkedHashMap<>();
+        int types = in.readInt();
+        for (int t = 0; t < types; t++) {
+            String key = readString(in);
+            int count = in.readInt();
+            List<Exercise> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = readString(in);
+                String type = readString(in);
+                String level = readString(in);
+                String question = readString(in);
+                String code = readString(in);
+                int optionCount = in.readInt();
+                List<String> options = new ArrayList<>(optionCount);
+                for (int o = 0; o < optionCount; o++) options.add(readString(in));
+                int correct = in.readInt();
+                list.add(new Exercise(id, type, level, question, code, options, correct));
+            }
+            exercises.put(key, list);
+        }
+        return exercises;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
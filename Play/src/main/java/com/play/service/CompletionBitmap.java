@@ -0,0 +1,79 @@
+package com.play.service;
+
+import java.util.Arrays;
+
+/**
+ * Insieme degli esercizi risolti da un utente, come bitmap sugli ordinali del catalogo
+ * ({@link ExerciseCatalog#ordinalOf(String)}).
+ *
+ * Poiché gli esercizi di un tipo, e di un tipo e livello, hanno ordinali contigui, il numero
+ * di esercizi risolti in un intervallo si ottiene con un popcount parola per parola, usando
+ * le maschere di bordo precalcolate in {@link ExerciseCatalog.OrdinalRange}: nessuna allocazione
+ * e nessun accesso alle stringhe degli ID.
+ *
+ * Non è thread-safe: l'archivio che la possiede ne sincronizza gli accessi.
+ */
+public final class CompletionBitmap {
+
+    private long[] words;
+    private int cardinality;
+
+    /**
+     * @param capacity Numero di ordinali previsti (la bitmap cresce comunque se serve)
+     */
+    public CompletionBitmap(int capacity) {
+        this.words = new long[Math.max(1, (capacity + 63) >>> 6)];
+    }
+
+    /**
+     * Segna un esercizio come risolto.
+     *
+     * @param ordinal Ordinale dell'esercizio
+     * @return true se non era già segnato
+     */
+    public boolean set(int ordinal) {
+        int word = ordinal >>> 6;
+        if (word >= words.length) words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        long bit = 1L << ordinal;   // Lo shift usa solo i 6 bit bassi
+        if ((words[word] & bit) != 0) return false;
+        words[word] |= bit;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * @param ordinal Ordinale dell'esercizio
+     * @return true se l'esercizio è segnato come risolto
+     */
+    public boolean get(int ordinal) {
+        int word = ordinal >>> 6;
+        return word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    /** @return Numero di esercizi risolti, in O(1) */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Conta gli esercizi risolti in un intervallo di ordinali.
+     *
+     * @param range Intervallo (es. un tipo, o un tipo e livello)
+     * @return Esercizi risolti nell'intervallo
+     */
+    public int count(ExerciseCatalog.OrdinalRange range) {
+        if (range.isEmpty()) return 0;
+        int first = range.firstWord;
+        int last = Math.min(range.lastWord, words.length - 1);
+        if (first > last) return 0;
+        // Se l'intervallo prosegue oltre la bitmap, l'ultima parola presente va contata intera
+        long lastMask = last == range.lastWord ? range.lastMask : -1L;
+        if (first == last) return Long.bitCount(words[first] & range.firstMask & lastMask);
+
+        int count = Long.bitCount(words[first] & range.firstMask);
+        for (int w = first + 1; w < last; w++) {
+            count += Long.bitCount(words[w]);
+        }
+        return count + Long.bitCount(words[last] & lastMask);
+    }
+}
@@ -0,0 +1,125 @@
+package com.play.service;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Statistiche mostrate nella dashboard per un utente: tentativi e percentuale di
+ * completamento per ogni tipo di esercizio, più il progresso globale.
+ *
+ * Le statistiche possono essere precalcolate in background subito dopo il login
+ * ({@link #prefetch(String)}), così che la dashboard si apra già popolata.
+ */
+public final class DashboardStats {
+
+    // Statistiche precalcolate in attesa di essere consumate dalla dashboard
+    private static final Map<String, Future<DashboardStats>> PREFETCHED = new ConcurrentHashMap<>();
+
+    private final String username;
+    private final Map<String, Integer> attemptsByType;
+    private final Map<String, Double> percentByType;
+    private final int totalAttempts;
+    private final double globalProgress;
+
+    private DashboardStats(String username, Map<String, Integer> attemptsByType,
+                           Map<String, Double> percentByType, int totalAttempts, double globalProgress) {
+        this.username = username;
+        this.attemptsByType = attemptsByType;
+        this.percentByType = percentByType;
+        this.totalAttempts = totalAttempts;
+        this.globalProgress = globalProgress;
+    }
+
+    /**
+     * Calcola le statistiche dell'utente dai contatori di {@link AttemptStore}, senza scorrere
+     * i suoi tentativi: tentativi per tipo dall'indice per utente e tipo, esercizi risolti
+     * con un popcount della bitmap di completamento sull'intervallo di ordinali di ogni tipo.
+     *
+     * @param username Nome utente
+     * @return Statistiche aggiornate
+     */
+    public static DashboardStats compute(String username) {
+        AttemptStore store = AttemptStore.getInstance();
+        ExerciseCatalog catalog = ExerciseCatalog.getInstance();
+        Map<String, Integer> attemptsByType = new HashMap<>();
+        Map<String, Double> percents = new HashMap<>();
+        int total = 0;
+        int solved;
+
+        // Un solo lock per una fotografia coerente dei contatori
+        synchronized (store) {
+            for (String type : ExerciseCatalog.types()) {
+                int attempts = store.countByUserAndType(username, type);
+                if (attempts > 0) attemptsByType.put(type, attempts);
+                total += attempts;
+
+                ExerciseCatalog.OrdinalRange range = catalog.rangeOf(type);
+                percents.put(type, range.isEmpty() ? 0 : (store.countCompleted(username, range) * 100.0) / range.size());
+            }
+            solved = store.countCompleted(username);
+        }
+        double global = catalog.size() == 0 ? 0 : (double) solved / catalog.size();
+
+        return new DashboardStats(username, Map.copyOf(attemptsByType), Map.copyOf(percents), total, global);
+    }
+
+    /**
+     * Avvia in background il calcolo delle statistiche dell'utente (tipicamente al login).
+     *
+     * @param username Nome utente
+     */
+    public static void prefetch(String username) {
+        if (username == null) return;
+        PREFETCHED.put(username, AsyncService.supply(() -> compute(username)));
+    }
+
+    /**
+     * Restituisce le statistiche precalcolate per l'utente, se presenti, altrimenti le calcola.
+     * Le statistiche precalcolate vengono consumate: una seconda chiamata le ricalcola.
+     *
+     * @param username Nome utente
+     * @return Statistiche dell'utente
+     */
+    public static DashboardStats forUser(String username) {
+        Future<DashboardStats> future = PREFETCHED.remove(username);
+        if (future != null) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Errore nel precalcolo delle statistiche di: " + username);
+                e.printStackTrace();
+            }
+        }
+        return compute(username);
+    }
+
+    /** @return Nome utente */
+    public String getUsername() { return username; }
+
+    /**
+     * @param type Tipo di esercizio
+     * @return Numero di tentativi dell'utente per quel tipo
+     */
+    public int getAttempts(String type) { return attemptsByType.getOrDefault(type, 0); }
+
+    /**
+     * @param type Tipo di esercizio
+     * @return Percentuale (0-100) di esercizi del tipo risolti correttamente
+     */
+    public double getPercent(String type) { return percentByType.getOrDefault(type, 0.0); }
+
+    /** @return Numero totale di tentativi dell'utente */
+    public int getTotalAttempts() { return totalAttempts; }
+
+    /** @return Media (0-100) delle percentuali di completamento dei tipi */
+    public double getSuccessRate() {
+        double sum = 0;
+        for (String type : ExerciseCatalog.types()) sum += getPercent(type);
+        return ExerciseCatalog.types().isEmpty() ? 0 : sum / ExerciseCatalog.types().size();
+    }
+
+    /** @return Frazione (0-1) di tutti gli esercizi risolti correttamente */
+    public double getGlobalProgress() { return globalProgress; }
+}
@@ -0,0 +1,363 @@
+package com.play.service;
+
+import com.google.gson.Gson;
+import com.play.model.Exercise;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalogo immutabile di tutti gli esercizi, caricato una sola volta per processo.
+ * Al primo accesso si usa il catalogo precompilato in fase di build ({@link CatalogBinary});
+ * se manca o non corrisponde ai file JSON, i quattro file (uno per tipo) vengono letti in parallelo.
+ * Il catalogo mantiene poi indici per ID e per (tipo, livello) con conteggi in O(1).
+ * All'interno di ogni tipo gli esercizi sono raggruppati per livello, mantenendo l'ordine dei file:
+ * l'ordinale denso di un esercizio (la sua posizione nel catalogo) fa quindi sì che ogni tipo,
+ * e ogni tipo e livello, occupi un intervallo contiguo di ordinali ({@link OrdinalRange}).
+ *
+ * È l'unico punto che conosce l'associazione tra tipo di esercizio e file JSON.
+ * Con la proprietà {@code play.catalogDir} i file JSON sono letti da quella cartella invece che
+ * dal classpath (es. cataloghi generati da DatasetGenerator) e il catalogo precompilato è ignorato.
+ */
+public final class ExerciseCatalog {
+
+    /** Associazione tipo di esercizio → risorsa JSON, nell'ordine di caricamento */
+    private static final Map<String, String> TYPE_FILES;
+
+    static {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("trovaErrore", "/data/es1_trovaCorretto.json");
+        files.put("output", "/data/es2_output.json");
+        files.put("completa", "/data/es3_completa.json");
+        files.put("correggiErrore", "/data/es4_correggiErrore.json");
+        TYPE_FILES = Collections.unmodifiableMap(files);
+    }
+
+    // Cartella alternativa dei file JSON (null = risorse del classpath)
+    private static final String CATALOG_DIR = System.getProperty("play.catalogDir");
+
+    private static final ReentrantLock LOAD_LOCK = new ReentrantLock();
+    private static volatile ExerciseCatalog instance;
+
+    private final List<Exercise> all;
+    private final Map<String, Exercise> byId;
+    private final Map<String, List<Exercise>> byType;
+    private final Map<String, List<Exercise>> byTypeAndLevel;
+    // Posizione di ogni esercizio nell'elenco del suo tipo e livello
+    private final Map<String, Integer> positionById;
+    // Ordinale denso (posizione in all) e intervalli di ordinali per tipo e per tipo e livello
+    private final Map<String, Integer> ordinalById;
+    private final Map<String, OrdinalRange> rangeByType;
+    private final Map<String, OrdinalRange> rangeByTypeAndLevel;
+
+    /**
+     * Intervallo [from, to) di ordinali contigui, con le maschere delle parole di bordo
+     * precalcolate per il conteggio su {@link CompletionBitmap}.
+     */
+    public static final class OrdinalRange {
+        static final OrdinalRange EMPTY = new OrdinalRange(0, 0);
+
+        final int from;
+        final int to;
+        final int firstWord;
+        final int lastWord;
+        final long firstMask;
+        final long lastMask;
+
+        OrdinalRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.firstWord = from >>> 6;
+            this.lastWord = to > from ? (to - 1) >>> 6 : firstWord;
+            this.firstMask = -1L << from;                 // Bit da from in poi nella prima parola
+            this.lastMask = -1L >>> (63 - ((to - 1) & 63));  // Bit fino a to - 1 nell'ultima parola
+        }
+
+        /** @return Primo ordinale dell'intervallo */
+        public int getFrom() { return from; }
+
+        /** @return Ordinale successivo all'ultimo dell'intervallo */
+        public int getTo() { return to; }
+
+        /** @return Numero di ordinali nell'intervallo */
+        public int size() { return to - from; }
+
+        /** @return true se l'intervallo non contiene ordinali */
+        public boolean isEmpty() { return to <= from; }
+    }
+
+    /**
+     * Costruisce il catalogo e i suoi indici a partire dagli esercizi di ciascun tipo.
+     *
+     * @param exercisesByType Esercizi raggruppati per tipo, nell'ordine dei file
+     */
+    ExerciseCatalog(Map<String, List<Exercise>> exercisesByType) {
+        List<Exercise> allList = new ArrayList<>();
+        Map<String, Exercise> ids = new HashMap<>();
+        Map<String, List<Exercise>> types = new HashMap<>();
+        Map<String, List<Exercise>> typeLevels = new HashMap<>();
+        Map<String, Integer> positions = new HashMap<>();
+        Map<String, OrdinalRange> typeRanges = new HashMap<>();
+        Map<String, OrdinalRange> typeLevelRanges = new HashMap<>();
+
+        for (Map.Entry<String, List<Exercise>> entry : exercisesByType.entrySet()) {
+            // Raggruppa per livello (ordine stabile): ogni (tipo, livello) occupa un intervallo contiguo
+            Map<String, List<Exercise>> levels = new LinkedHashMap<>();
+            for (Exercise e : entry.getValue()) {
+                levels.computeIfAbsent(key(e.getType(), e.getLevel()), k -> new ArrayList<>()).add(e);
+            }
+
+            List<Exercise> ofType = new ArrayList<>();
+            for (Map.Entry<String, List<Exercise>> level : levels.entrySet()) {
+                int from = allList.size() + ofType.size();
+                typeLevelRanges.put(level.getKey(), new OrdinalRange(from, from + level.getValue().size()));
+                ofType.addAll(level.getValue());
+                typeLevels.put(level.getKey(), List.copyOf(level.getValue()));
+                for (int i = 0; i < level.getValue().size(); i++) {
+                    positions.putIfAbsent(level.getValue().get(i).getId(), i);
+                }
+            }
+            types.put(entry.getKey(), List.copyOf(ofType));
+            typeRanges.put(entry.getKey(), new OrdinalRange(allList.size(), allList.size() + ofType.size()));
+
+            for (Exercise e : ofType) {
+                allList.add(e);
+                ids.putIfAbsent(e.getId(), e);
+            }
+        }
+
+        this.all = List.copyOf(allList);
+        this.byId = Map.copyOf(ids);
+        this.byType = Map.copyOf(types);
+        this.byTypeAndLevel = Map.copyOf(typeLevels);
+        this.positionById = Map.copyOf(positions);
+        this.rangeByType = Map.copyOf(typeRanges);
+        this.rangeByTypeAndLevel = Map.copyOf(typeLevelRanges);
+
+        // Ordinale = prima posizione in all, come per byId quando un ID compare più volte
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < allList.size(); i++) {
+            ordinals.putIfAbsent(allList.get(i).getId(), i);
+        }
+        this.ordinalById = Map.copyOf(ordinals);
+    }
+
+    /**
+     * Restituisce il catalogo condiviso, caricandolo al primo accesso.
+     *
+     * @return Istanza condivisa
+     */
+    public static ExerciseCatalog getInstance() {
+        ExerciseCatalog catalog = instance;
+        if (catalog == null) {
+            // Lock esplicito e non synchronized: il caricamento attende thread virtuali e può essere
+            // invocato a sua volta da thread virtuali, che con synchronized bloccherebbero il carrier
+            LOAD_LOCK.lock();
+            try {
+                catalog = instance;
+                if (catalog == null) {
+                    catalog = load();
+                    instance = catalog;
+                }
+            } finally {
+                LOAD_LOCK.unlock();
+            }
+        }
+        return catalog;
+    }
+
+    /** @return Tipi di esercizio conosciuti, nell'ordine dei file */
+    public static Set<String> types() {
+        return TYPE_FILES.keySet();
+    }
+
+    /**
+     * @param type Tipo di esercizio
+     * @return Percorso della risorsa JSON del tipo
+     * @throws IllegalArgumentException Se il tipo non è valido
+     */
+    public static String resourceFor(String type) {
+        String file = TYPE_FILES.get(type);
+        if (file == null) throw new IllegalArgumentException("Tipo di esercizio sconosciuto: " + type);
+        return file;
+    }
+
+    // ==============================================================
+    // =========================  CARICAMENTO =======================
+    // ==============================================================
+
+    /**
+     * Carica il catalogo precompilato; in sua assenza (o se non aggiornato) ripiega sui file JSON.
+     */
+    private static ExerciseCatalog load() {
+        if (CATALOG_DIR != null) return loadFromJson();
+        Map<String, List<Exercise>> precompiled = CatalogBinary.load();
+        return precompiled != null ? new ExerciseCatalog(precompiled) : loadFromJson();
+    }
+
+    /**
+     * Legge in parallelo i file JSON di tutti i tipi e costruisce il catalogo.
+     * Usato come ripiego a runtime e dal compilatore del catalogo in fase di build.
+     *
+     * @return Catalogo costruito dai file JSON
+     */
+    public static ExerciseCatalog loadFromJson() {
+        Map<String, Future<List<Exercise>>> futures = new LinkedHashMap<>();
+        Map<String, List<Exercise>> exercises = new LinkedHashMap<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<String, String> entry : TYPE_FILES.entrySet()) {
+                futures.put(entry.getKey(), executor.submit(() -> readResource(entry.getValue())));
+            }
+            for (Map.Entry<String, Future<List<Exercise>>> entry : futures.entrySet()) {
+                try {
+                    exercises.put(entry.getKey(), entry.getValue().get());
+                } catch (Exception e) {
+                    System.err.println("Errore nel caricamento degli esercizi di tipo: " + entry.getKey());
+                    e.printStackTrace();
+                    exercises.put(entry.getKey(), List.of());
+                }
+            }
+        }
+        return new ExerciseCatalog(exercises);
+    }
+
+    /**
+     * Legge una risorsa JSON contenente un array di esercizi.
+     * Se è impostata {@code play.catalogDir} il file con lo stesso nome viene letto da quella cartella.
+     *
+     * @param resource Percorso della risorsa nel classpath
+     * @return Esercizi letti
+     * @throws IOException Se la risorsa non esiste o non è leggibile
+     */
+    static List<Exercise> readResource(String resource) throws IOException {
+        try (InputStream is = openResource(resource)) {
+            if (is == null) throw new IOException("File non trovato: " + resource);
+            Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8);
+            Exercise[] exercises = new Gson().fromJson(reader, Exercise[].class);
+            return exercises == null ? List.of() : Arrays.asList(exercises);
+        }
+    }
+
+    private static InputStream openResource(String resource) throws IOException {
+        if (CATALOG_DIR == null) return ExerciseCatalog.class.getResourceAsStream(resource);
+        Path file = Paths.get(CATALOG_DIR, fileName(resource));
+        return Files.exists(file) ? Files.newInputStream(file) : null;
+    }
+
+    /**
+     * @param resource Percorso della risorsa nel classpath
+     * @return Nome del file della risorsa (es. es2_output.json)
+     */
+    public static String fileName(String resource) {
+        return resource.substring(resource.lastIndexOf('/') + 1);
+    }
+
+    // ==============================================================
+    // =========================  QUERY =============================
+    // ==============================================================
+
+    /** @return Tutti gli esercizi, nell'ordine dei file */
+    public List<Exercise> getAll() {
+        return all;
+    }
+
+    /** @return Numero totale di esercizi */
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * @param id ID dell'esercizio
+     * @return Esercizio con quell'ID, oppure null
+     */
+    public Exercise getById(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @param type Tipo di esercizio
+     * @return Esercizi del tipo, nell'ordine del file
+     * @throws IllegalArgumentException Se il tipo non è valido
+     */
+    public List<Exercise> getByType(String type) {
+        resourceFor(type);
+        return byType.getOrDefault(type, List.of());
+    }
+
+    /**
+     * @param type  Tipo di esercizio
+     * @param level Livello (senza distinzione maiuscole/minuscole)
+     * @return Esercizi del tipo e livello indicati, nell'ordine del file
+     */
+    public List<Exercise> getByTypeAndLevel(String type, String level) {
+        return byTypeAndLevel.getOrDefault(key(type, level), List.of());
+    }
+
+    /**
+     * @param id ID dell'esercizio
+     * @return Posizione dell'esercizio nell'elenco del suo tipo e livello ({@link #getByTypeAndLevel}),
+     *         -1 se non è nel catalogo
+     */
+    public int positionOf(String id) {
+        return positionById.getOrDefault(id, -1);
+    }
+
+    /**
+     * @param id ID dell'esercizio
+     * @return Ordinale denso dell'esercizio (0 .. size()-1, posizione in {@link #getAll()}), -1 se assente
+     */
+    public int ordinalOf(String id) {
+        return ordinalById.getOrDefault(id, -1);
+    }
+
+    /**
+     * @param type Tipo di esercizio
+     * @return Intervallo degli ordinali degli esercizi del tipo (vuoto se il tipo non ha esercizi)
+     */
+    public OrdinalRange rangeOf(String type) {
+        return rangeByType.getOrDefault(type, OrdinalRange.EMPTY);
+    }
+
+    /**
+     * @param type  Tipo di esercizio
+     * @param level Livello (senza distinzione maiuscole/minuscole)
+     * @return Intervallo degli ordinali degli esercizi del tipo e livello (vuoto se non ce ne sono)
+     */
+    public OrdinalRange rangeOf(String type, String level) {
+        return rangeByTypeAndLevel.getOrDefault(key(type, level), OrdinalRange.EMPTY);
+    }
+
+    /**
+     * @param type Tipo di esercizio
+     * @return Numero di esercizi del tipo, in O(1)
+     */
+    public int countByType(String type) {
+        List<Exercise> list = byType.get(type);
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * @param type  Tipo di esercizio
+     * @param level Livello
+     * @return Numero di esercizi del tipo e livello indicati, in O(1)
+     */
+    public int countByTypeAndLevel(String type, String level) {
+        return getByTypeAndLevel(type, level).size();
+    }
+
+    private static String key(String type, String level) {
+        return type + "|" + (level == null ? "" : level.toLowerCase());
+    }
+}
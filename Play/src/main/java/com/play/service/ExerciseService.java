@@ -1,17 +1,13 @@
 package com.play.service;
 
-import com.google.gson.Gson;
 import com.play.model.Exercise;
-import com.play.utils.FileManager;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Service che gestisce il caricamento, filtraggio e analisi degli esercizi.
- * Responsabile del recupero da file JSON, selezione in base a tipo/livello,
+ * Responsabile del recupero dal catalogo degli esercizi, selezione in base a tipo/livello,
  * conteggio dei completamenti e progressi dell'utente.
  */
 public class ExerciseService {
@@ -19,25 +15,55 @@ public class ExerciseService {
     // Numero di esercizi mostrati per sessione
     private static final int EXERCISES_PER_SESSION = 3;
 
+    // Catalogo condiviso, caricato una sola volta per processo
+    private final ExerciseCatalog catalog = ExerciseCatalog.getInstance();
+
+    /**
+     * Sceglie gli esercizi della prossima sessione di un utente con il ripasso pianificato
+     * ({@link ReviewScheduler}): prima gli esercizi da ripassare, poi quelli mai tentati.
+     *
+     * @param username Nome utente
+     * @param type     Tipo di esercizio (output, correggiErrore, ...)
+     * @param level    Livello selezionato (facile, medio, difficile)
+     * @return Esercizi della sessione, al massimo EXERCISES_PER_SESSION; vuota se non c'è nulla da svolgere ora
+     */
+    public List<Exercise> loadExercises(String username, String type, String level) {
+        return ReviewScheduler.getInstance().nextSession(username, type, level, EXERCISES_PER_SESSION);
+    }
+
     /**
-     * Carica una lista filtrata di esercizi da proporre all'utente.
+     * Carica una lista filtrata di esercizi da proporre all'utente, senza ripasso:
+     * i primi esercizi non ancora completati, nell'ordine del catalogo.
      *
      * @param type         Tipo di esercizio (output, correggiErrore, ...)
      * @param level        Livello selezionato (facile, medio, difficile)
      * @param completedIds Set degli ID degli esercizi già completati correttamente
      * @return Lista di esercizi ancora da svolgere, limitata a EXERCISES_PER_SESSION
-     * @throws IOException Errore di lettura file
      */
-    public List<Exercise> loadExercises(String type, String level, Set<String> completedIds) throws IOException {
-        return loadAllExercises(type).stream()
-                .filter(e -> e.getLevel().equalsIgnoreCase(level))        // Filtra per livello
+    public List<Exercise> loadExercises(String type, String level, Set<String> completedIds) {
+        return catalog.getByTypeAndLevel(type, level).stream()    // Indice per tipo e livello
                 .filter(e -> !completedIds.contains(e.getId()))          // Esclude esercizi già completati
                 .limit(EXERCISES_PER_SESSION)                            // Limita a 3 per sessione
                 .collect(Collectors.toList());
     }
 
     /**
-     * Calcola la percentuale di completamento di un utente per un tipo e livello di esercizio.
+     * Calcola la percentuale di completamento di un utente per un tipo e livello di esercizio,
+     * contando i bit della sua bitmap di completamento nell'intervallo di ordinali del livello.
+     *
+     * @param username Nome utente
+     * @param type     Tipo di esercizio
+     * @param level    Livello selezionato
+     * @return Percentuale tra 0 e 100
+     */
+    public double calculateCompletionPercentage(String username, String type, String level) {
+        ExerciseCatalog.OrdinalRange range = catalog.rangeOf(type, level);
+        if (range.isEmpty()) return 0;
+        return (AttemptStore.getInstance().countCompleted(username, range) * 100.0) / range.size();
+    }
+
+    /**
+     * Calcola la percentuale di completamento per un tipo e livello a partire da un insieme di ID completati.
      *
      * @param type         Tipo di esercizio
      * @param level        Livello selezionato
@@ -45,63 +71,27 @@ public class ExerciseService {
      * @return Percentuale tra 0 e 100
      */
     public double calculateCompletionPercentage(String type, String level, Set<String> completedIds) {
-        try {
-            List<Exercise> all = loadAllExercises(type).stream()
-                    .filter(e -> e.getLevel().equalsIgnoreCase(level))
-                    .collect(Collectors.toList());
+        int total = catalog.countByTypeAndLevel(type, level);
+        if (total == 0) return 0;
 
-            if (all.isEmpty()) return 0;
-
-            long done = all.stream()
-                    .filter(e -> completedIds.contains(e.getId()))
-                    .count();
-
-            return (done * 100.0) / all.size();
+        // Scorre solo gli esercizi completati, verificandone tipo e livello nel catalogo
+        long done = completedIds.stream()
+                .map(catalog::getById)
+                .filter(e -> e != null && e.getType().equals(type) && e.getLevel().equalsIgnoreCase(level))
+                .count();
 
-        } catch (IOException e) {
-            e.printStackTrace();
-            return 0;
-        }
+        return (done * 100.0) / total;
     }
 
     /**
-     * Carica tutti gli esercizi disponibili per un tipo, da file JSON.
+     * Restituisce tutti gli esercizi disponibili per un tipo.
      *
      * @param type Tipo di esercizio
      * @return Lista completa di esercizi per quel tipo
-     * @throws IOException In caso di file mancante o errore di parsing
+     * @throws IllegalArgumentException Se il tipo non è valido
      */
-    public List<Exercise> loadAllExercises(String type) throws IOException {
-        String fileName;
-
-        // Mappa il tipo al nome del file JSON corrispondente
-        switch (type) {
-            case "trovaErrore":
-                fileName = "/data/es1_trovaCorretto.json";
-                break;
-            case "output":
-                fileName = "/data/es2_output.json";
-                break;
-            case "completa":
-                fileName = "/data/es3_completa.json";
-                break;
-            case "correggiErrore":
-                fileName = "/data/es4_correggiErrore.json";
-                break;
-            default:
-                throw new IllegalArgumentException("Tipo di esercizio sconosciuto: " + type);
-        }
-
-        // Caricamento del file come InputStream
-        InputStream inputStream = getClass().getResourceAsStream(fileName);
-        if (inputStream == null) throw new FileNotFoundException("File non trovato: " + fileName);
-
-        // Parsing JSON -> array di Exercise
-        Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-        Gson gson = new Gson();
-        Exercise[] allExercises = gson.fromJson(reader, Exercise[].class);
-
-        return Arrays.asList(allExercises);
+    public List<Exercise> loadAllExercises(String type) {
+        return catalog.getByType(type);
     }
 
     /**
@@ -112,24 +102,16 @@ public class ExerciseService {
      * @return Numero di tentativi registrati
      */
     public int countAttempts(String type, String username) {
-        return (int) FileManager.loadAttempts().stream()
-                .filter(a -> a.getUsername().equals(username))
-                .filter(a -> a.getType().equals(type))
-                .count();
+        return AttemptStore.getInstance().countByUserAndType(username, type);
     }
 
     /**
      * Ritorna il numero totale di esercizi disponibili per un certo tipo.
      *
      * @param type Tipo di esercizio
-     * @return Numero di esercizi disponibili, oppure 0 in caso di errore
+     * @return Numero di esercizi disponibili, in O(1)
      */
     public int getExerciseCountByType(String type) {
-        try {
-            return loadAllExercises(type).size();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return 0;
-        }
+        return catalog.countByType(type);
     }
 }
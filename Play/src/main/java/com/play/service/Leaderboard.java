@@ -0,0 +1,417 @@
+package com.play.service;
+
+import com.play.model.Attempt;
+
+import java.util.*;
+
+/**
+ * Classifica incrementale degli utenti.
+ * Mantiene il punteggio di ogni utente in un albero di ordine statistico (treap con dimensione
+ * dei sottoalberi), ordinato per punteggio decrescente e, a parità, per username.
+ *
+ * Ogni tentativo registrato aggiorna il punteggio dell'utente in O(log n);
+ * le query "prime K posizioni" e "qual è la mia posizione" non dipendono
+ * dalla dimensione dello storico dei tentativi. Un indice ordinato degli username
+ * permette la ricerca per prefisso senza scorrere tutta la classifica.
+ *
+ * Il punteggio varia a seconda del livello di difficoltà dei tentativi corretti:
+ * facile = 10 pt, medio = 20 pt, difficile = 30 pt.
+ */
+public class Leaderboard implements AttemptStore.Listener {
+
+    private static Leaderboard instance;
+
+    // Ricerca per prefisso: oltre SCAN_FACTOR × limit candidati si scorre la classifica a blocchi di SCAN_PAGE
+    private static final int SCAN_FACTOR = 8;
+    private static final int SCAN_PAGE = 1024;
+
+    private final Map<String, Integer> scores = new HashMap<>();
+    // Username in minuscolo + '\0' + username → username, per la ricerca per prefisso
+    private final TreeMap<String, String> prefixIndex = new TreeMap<>();
+    private final Random random = new Random(42);
+    private Node root;
+    // Incrementata ad ogni modifica della classifica (punteggio, nuovo utente, cancellazione)
+    private long version;
+
+    /**
+     * Voce della classifica.
+     */
+    public static final class Entry {
+        private final String username;
+        private final int score;
+        private final int position;
+        private final int rank;
+
+        Entry(String username, int score, int position, int rank) {
+            this.username = username;
+            this.score = score;
+            this.position = position;
+            this.rank = rank;
+        }
+
+        /** @return Nome utente */
+        public String getUsername() { return username; }
+
+        /** @return Punteggio totale */
+        public int getScore() { return score; }
+
+        /** @return Posizione (0-based) nell'ordinamento, a parità di punteggio per username */
+        public int getPosition() { return position; }
+
+        /** @return Rango (1-based): utenti con lo stesso punteggio condividono il rango */
+        public int getRank() { return rank; }
+    }
+
+    // Nodo del treap: la chiave è (punteggio desc, username asc)
+    private static final class Node {
+        final String username;
+        final int score;
+        final int priority;
+        int size = 1;
+        Node left, right;
+
+        Node(String username, int score, int priority) {
+            this.username = username;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Costruisce la classifica a partire dai tentativi presenti nell'archivio
+     * e si registra per ricevere i tentativi successivi.
+     *
+     * @param store Archivio dei tentativi
+     */
+    Leaderboard(AttemptStore store) {
+        synchronized (store) {
+            build(store.getAll());
+            store.addListener(this);
+        }
+    }
+
+    /**
+     * Costruisce una classifica non collegata ad alcun archivio (usata nei benchmark).
+     *
+     * @param attempts Tentativi da aggregare
+     */
+    Leaderboard(Collection<Attempt> attempts) {
+        build(attempts);
+    }
+
+    private void build(Collection<Attempt> attempts) {
+        for (Attempt attempt : attempts) {
+            scores.merge(attempt.getUsername(), points(attempt), Integer::sum);
+        }
+        for (Map.Entry<String, Integer> e : scores.entrySet()) {
+            root = insert(root, new Node(e.getKey(), e.getValue(), random.nextInt()));
+            prefixIndex.put(prefixKey(e.getKey()), e.getKey());
+        }
+    }
+
+    /**
+     * Restituisce la classifica condivisa, costruendola al primo accesso.
+     *
+     * @return Istanza condivisa
+     */
+    public static synchronized Leaderboard getInstance() {
+        if (instance == null) {
+            instance = new Leaderboard(AttemptStore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Punti assegnati da un tentativo: solo i tentativi corretti valgono punti.
+     *
+     * @param attempt Tentativo
+     * @return Punti ottenuti
+     */
+    public static int points(Attempt attempt) {
+        if (!attempt.isCorrect() || attempt.getLevel() == null) return 0;
+        switch (attempt.getLevel().toLowerCase()) {
+            case "facile": return 10;
+            case "medio": return 20;
+            case "difficile": return 30;
+            default: return 0;
+        }
+    }
+
+    // ==============================================================
+    // ====================  AGGIORNAMENTO ==========================
+    // ==============================================================
+
+    /**
+     * Aggiorna il punteggio dell'utente del tentativo in O(log n).
+     * Anche un tentativo errato inserisce l'utente in classifica (con 0 punti).
+     *
+     * @param attempt Tentativo appena registrato
+     */
+    @Override
+    public synchronized void onAttemptRecorded(Attempt attempt) {
+        addPoints(attempt.getUsername(), points(attempt));
+    }
+
+    /**
+     * Rimuove l'utente dalla classifica in O(log n).
+     *
+     * @param username Utente cancellato
+     */
+    @Override
+    public synchronized void onUserDeleted(String username) {
+        Integer old = scores.remove(username);
+        if (old != null) {
+            root = remove(root, username, old);
+            prefixIndex.remove(prefixKey(username));
+            version++;
+        }
+    }
+
+    private void addPoints(String username, int delta) {
+        Integer old = scores.get(username);
+        if (old != null) {
+            if (delta == 0) return;
+            root = remove(root, username, old);
+        } else {
+            prefixIndex.put(prefixKey(username), username);
+        }
+        int updated = (old == null ? 0 : old) + delta;
+        scores.put(username, updated);
+        root = insert(root, new Node(username, updated, random.nextInt()));
+        version++;
+    }
+
+    // ==============================================================
+    // =========================  QUERY =============================
+    // ==============================================================
+
+    /**
+     * Versione della classifica: cambia ad ogni modifica, quindi due letture con la stessa versione
+     * descrivono lo stesso ordinamento (es. pagine lette in momenti diversi).
+     *
+     * @return Versione corrente
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /** @return Numero di utenti in classifica */
+    public synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * @param username Nome utente
+     * @return Punteggio dell'utente, 0 se non presente
+     */
+    public synchronized int getScore(String username) {
+        return scores.getOrDefault(username, 0);
+    }
+
+    /**
+     * Rango dell'utente in O(log n): 1 + numero di utenti con punteggio strettamente maggiore.
+     * Utenti con lo stesso punteggio condividono lo stesso rango.
+     *
+     * @param username Nome utente
+     * @return Rango (1-based), oppure -1 se l'utente non è in classifica
+     */
+    public synchronized int rankOf(String username) {
+        Integer score = scores.get(username);
+        if (score == null) return -1;
+        return countGreater(root, score) + 1;
+    }
+
+    /**
+     * Posizione dell'utente nell'ordinamento completo (a parità di punteggio per username), in O(log n).
+     *
+     * @param username Nome utente
+     * @return Posizione (0-based), oppure -1 se l'utente non è in classifica
+     */
+    public synchronized int positionOf(String username) {
+        Integer score = scores.get(username);
+        if (score == null) return -1;
+        return countBefore(root, score, username);
+    }
+
+    /**
+     * Restituisce le voci in posizione [from, from + count), in O(log n + count).
+     *
+     * @param from  Posizione iniziale (0-based)
+     * @param count Numero massimo di voci
+     * @return Voci della classifica in ordine
+     */
+    public synchronized List<Entry> range(int from, int count) {
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(count, size(root) - from)));
+        collect(root, from, from + count, 0, result);
+        return result;
+    }
+
+    /**
+     * @param k Numero di voci
+     * @return Le prime k voci della classifica
+     */
+    public List<Entry> topK(int k) {
+        return range(0, k);
+    }
+
+    /**
+     * Voce di un singolo utente, in O(log n).
+     *
+     * @param username Nome utente
+     * @return Voce dell'utente, oppure null se non è in classifica
+     */
+    public synchronized Entry entryOf(String username) {
+        Integer score = scores.get(username);
+        if (score == null) return null;
+        return new Entry(username, score, countBefore(root, score, username), countGreater(root, score) + 1);
+    }
+
+    /**
+     * Utenti il cui username inizia con il prefisso indicato, senza distinzione tra maiuscole e minuscole.
+     * Se i candidati nell'indice degli username sono pochi si calcola la posizione di ciascuno (O(log n));
+     * se sono molti (prefisso corto) conviene scorrere la classifica dall'alto fino a trovarne {@code limit}.
+     *
+     * @param prefix Prefisso cercato
+     * @param limit  Numero massimo di voci restituite
+     * @return Voci trovate in ordine di classifica (le prime {@code limit})
+     */
+    public synchronized List<Entry> searchPrefix(String prefix, int limit) {
+        String from = prefix.trim().toLowerCase(Locale.ROOT);
+        Collection<String> candidates = prefixIndex.subMap(from, true, from + Character.MAX_VALUE, false).values();
+
+        List<Entry> result = new ArrayList<>();
+        int threshold = Math.max(limit, 64) * SCAN_FACTOR;
+        Iterator<String> it = candidates.iterator();
+        while (it.hasNext() && result.size() <= threshold) {
+            result.add(entryOf(it.next()));
+        }
+
+        if (result.size() > threshold) {
+            result.clear();
+            for (int start = 0; start < size(root) && result.size() < limit; start += SCAN_PAGE) {
+                for (Entry entry : range(start, SCAN_PAGE)) {
+                    if (!entry.getUsername().toLowerCase(Locale.ROOT).startsWith(from)) continue;
+                    result.add(entry);
+                    if (result.size() == limit) break;
+                }
+            }
+            return result;
+        }
+
+        result.sort(Comparator.comparingInt(Entry::getPosition));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private static String prefixKey(String username) {
+        return username.toLowerCase(Locale.ROOT) + '\0' + username;
+    }
+
+    // ==============================================================
+    // =====================  TREAP INTERNO =========================
+    // ==============================================================
+
+    // Ordine: punteggio decrescente, poi username crescente
+    private static int compare(int scoreA, String userA, int scoreB, String userB) {
+        if (scoreA != scoreB) return Integer.compare(scoreB, scoreA);
+        return userA.compareTo(userB);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static void update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static Node insert(Node n, Node node) {
+        if (n == null) return node;
+        if (compare(node.score, node.username, n.score, n.username) < 0) {
+            n.left = insert(n.left, node);
+            if (n.left.priority > n.priority) n = rotateRight(n);
+        } else {
+            n.right = insert(n.right, node);
+            if (n.right.priority > n.priority) n = rotateLeft(n);
+        }
+        update(n);
+        return n;
+    }
+
+    private static Node remove(Node n, String username, int score) {
+        if (n == null) return null;
+        int cmp = compare(score, username, n.score, n.username);
+        if (cmp < 0) {
+            n.left = remove(n.left, username, score);
+        } else if (cmp > 0) {
+            n.right = remove(n.right, username, score);
+        } else {
+            if (n.left == null) return n.right;
+            if (n.right == null) return n.left;
+            if (n.left.priority > n.right.priority) {
+                n = rotateRight(n);
+                n.right = remove(n.right, username, score);
+            } else {
+                n = rotateLeft(n);
+                n.left = remove(n.left, username, score);
+            }
+        }
+        update(n);
+        return n;
+    }
+
+    private static int countGreater(Node n, int score) {
+        int count = 0;
+        while (n != null) {
+            if (n.score > score) {
+                count += size(n.left) + 1;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return count;
+    }
+
+    private static int countBefore(Node n, int score, String username) {
+        int count = 0;
+        while (n != null) {
+            int cmp = compare(score, username, n.score, n.username);
+            if (cmp > 0) {
+                count += size(n.left) + 1;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return count;
+    }
+
+    // Visita in ordine limitata all'intervallo di posizioni [from, to)
+    private void collect(Node n, int from, int to, int offset, List<Entry> out) {
+        if (n == null || from >= to) return;
+        int position = offset + size(n.left);
+        if (from < position) collect(n.left, from, to, offset, out);
+        if (position >= from && position < to) {
+            out.add(new Entry(n.username, n.score, position, countGreater(root, n.score) + 1));
+        }
+        if (position + 1 < to) collect(n.right, from, to, position + 1, out);
+    }
+}
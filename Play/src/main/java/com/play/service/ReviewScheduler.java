@@ -0,0 +1,226 @@
+package com.play.service;
+
+import com.play.model.Attempt;
+import com.play.model.Exercise;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Pianificatore del ripasso (spaced repetition) che sceglie gli esercizi di una sessione.
+ *
+ * Per ogni utente e per ogni coppia (tipo, livello) gli esercizi già tentati sono tenuti in un indice
+ * ordinato per scadenza. Una risposta errata rende l'esercizio subito da ripassare; ogni risposta
+ * corretta consecutiva raddoppia l'intervallo prima del ripasso successivo (1 giorno, 2, 4, ...
+ * fino a {@code 2^MAX_DOUBLINGS} giorni). Gli esercizi mai tentati sono segnati in un bitset
+ * per posizione nel catalogo.
+ *
+ * Una sessione prende prima gli esercizi scaduti, dal più vecchio, poi quelli mai tentati nell'ordine
+ * del catalogo: il costo dipende dagli esercizi restituiti e non dalla dimensione del catalogo.
+ * Se ci sono esercizi nuovi, almeno uno viene sempre proposto, così chi sbaglia spesso non resta
+ * bloccato sugli stessi ripassi.
+ *
+ * Lo stato di un utente è costruito dal suo storico al primo accesso e poi aggiornato ad ogni
+ * tentativo registrato. Con la proprietà {@code play.review.baseMinutes} si cambia l'intervallo
+ * dopo la prima risposta corretta (predefinito: un giorno).
+ */
+public class ReviewScheduler implements AttemptStore.Listener {
+
+    private static ReviewScheduler instance;
+
+    // Intervallo dopo la prima risposta corretta, in secondi, e numero massimo di raddoppi
+    private static final long BASE_INTERVAL_SECONDS = Long.getLong("play.review.baseMinutes", 24 * 60) * 60;
+    private static final int MAX_DOUBLINGS = 6;
+
+    // Ordine di ripasso: prima la scadenza più vecchia, a parità l'ordine del catalogo
+    private static final Comparator<Card> BY_DUE =
+            Comparator.comparingLong((Card c) -> c.due).thenComparingInt(c -> c.position);
+
+    private final ExerciseCatalog catalog;
+    private final Function<String, List<Attempt>> history;
+    // Lock che rende atomiche la lettura dello storico e l'arrivo di nuovi tentativi (l'archivio, se presente)
+    private final Object historyLock;
+
+    // Utente → (tipo|livello → mazzo); solo gli utenti che hanno già chiesto una sessione
+    private final Map<String, Map<String, Deck>> users = new HashMap<>();
+
+    // Stato di ripasso di un esercizio già tentato
+    private static final class Card {
+        final int position;
+        int streak;
+        long due;
+
+        Card(int position) {
+            this.position = position;
+        }
+    }
+
+    // Esercizi di un tipo e livello per un utente: tentati (per scadenza e per posizione) e già visti
+    private static final class Deck {
+        final TreeSet<Card> queue = new TreeSet<>(BY_DUE);
+        final Map<Integer, Card> cards = new HashMap<>();
+        final BitSet seen = new BitSet();
+    }
+
+    /**
+     * Costruisce il pianificatore sopra l'archivio dei tentativi e si registra per riceverne i nuovi.
+     *
+     * @param store Archivio dei tentativi
+     */
+    ReviewScheduler(AttemptStore store) {
+        this(ExerciseCatalog.getInstance(), store::getByUser, store);
+        store.addListener(this);
+    }
+
+    /**
+     * Costruisce un pianificatore non collegato ad alcun archivio (usato nei benchmark).
+     *
+     * @param catalog Catalogo degli esercizi
+     * @param history Storico dei tentativi di un utente, in ordine cronologico
+     */
+    ReviewScheduler(ExerciseCatalog catalog, Function<String, List<Attempt>> history) {
+        this(catalog, history, new Object());
+    }
+
+    private ReviewScheduler(ExerciseCatalog catalog, Function<String, List<Attempt>> history, Object historyLock) {
+        this.catalog = catalog;
+        this.history = history;
+        this.historyLock = historyLock;
+    }
+
+    /**
+     * Restituisce il pianificatore condiviso, creandolo al primo accesso.
+     *
+     * @return Istanza condivisa
+     */
+    public static synchronized ReviewScheduler getInstance() {
+        if (instance == null) {
+            instance = new ReviewScheduler(AttemptStore.getInstance());
+        }
+        return instance;
+    }
+
+    // ==============================================================
+    // ========================  SESSIONE ===========================
+    // ==============================================================
+
+    /**
+     * Sceglie gli esercizi della prossima sessione: prima i ripassi scaduti, poi gli esercizi mai tentati.
+     *
+     * @param username Nome utente
+     * @param type     Tipo di esercizio
+     * @param level    Livello
+     * @param limit    Numero massimo di esercizi
+     * @return Esercizi della sessione; vuota se non ci sono esercizi nuovi né ripassi scaduti
+     */
+    public List<Exercise> nextSession(String username, String type, String level, int limit) {
+        return nextSession(username, type, level, limit, LocalDateTime.now());
+    }
+
+    /**
+     * Come {@link #nextSession(String, String, String, int)}, con un istante di riferimento esplicito.
+     *
+     * @param now Istante rispetto al quale un ripasso è scaduto
+     */
+    List<Exercise> nextSession(String username, String type, String level, int limit, LocalDateTime now) {
+        List<Exercise> exercises = catalog.getByTypeAndLevel(type, level);
+        if (exercises.isEmpty() || limit <= 0) return List.of();
+
+        Map<String, Deck> decks = scheduleFor(username);
+        long nowSeconds = seconds(now);
+        List<Exercise> session = new ArrayList<>(limit);
+
+        synchronized (this) {
+            Deck deck = decks.get(key(type, level));
+            if (deck == null) return List.copyOf(exercises.subList(0, Math.min(limit, exercises.size())));
+
+            // Un posto resta agli esercizi nuovi, se ce ne sono
+            int firstNew = deck.seen.nextClearBit(0);
+            int maxReviews = firstNew < exercises.size() ? Math.max(1, limit - 1) : limit;
+            for (Card card : deck.queue) {
+                if (card.due > nowSeconds || session.size() == maxReviews) break;
+                session.add(exercises.get(card.position));
+            }
+            for (int p = firstNew; p < exercises.size() && session.size() < limit; p = deck.seen.nextClearBit(p + 1)) {
+                session.add(exercises.get(p));
+            }
+        }
+        return session;
+    }
+
+    // ==============================================================
+    // ====================  AGGIORNAMENTO ==========================
+    // ==============================================================
+
+    @Override
+    public synchronized void onAttemptRecorded(Attempt attempt) {
+        // Solo gli utenti già caricati: gli altri leggeranno il tentativo dal loro storico
+        Map<String, Deck> decks = users.get(attempt.getUsername());
+        if (decks != null) apply(decks, attempt);
+    }
+
+    @Override
+    public synchronized void onUserDeleted(String username) {
+        users.remove(username);
+    }
+
+    /**
+     * Restituisce i mazzi di un utente, costruendoli dal suo storico al primo accesso.
+     * Storico e registrazione avvengono sotto il lock dell'archivio: nessun tentativo va perso.
+     */
+    private Map<String, Deck> scheduleFor(String username) {
+        synchronized (this) {
+            Map<String, Deck> decks = users.get(username);
+            if (decks != null) return decks;
+        }
+        synchronized (historyLock) {
+            List<Attempt> attempts = history.apply(username);
+            synchronized (this) {
+                return users.computeIfAbsent(username, u -> {
+                    Map<String, Deck> decks = new HashMap<>();
+                    for (Attempt attempt : attempts) apply(decks, attempt);
+                    return decks;
+                });
+            }
+        }
+    }
+
+    /**
+     * Aggiorna la scadenza dell'esercizio tentato in O(log n).
+     */
+    private void apply(Map<String, Deck> decks, Attempt attempt) {
+        Exercise exercise = catalog.getById(attempt.getExerciseId());
+        if (exercise == null) return;   // Esercizio non più nel catalogo
+        int position = catalog.positionOf(exercise.getId());
+
+        Deck deck = decks.computeIfAbsent(key(exercise.getType(), exercise.getLevel()), k -> new Deck());
+        Card card = deck.cards.get(position);
+        if (card == null) {
+            card = new Card(position);
+            deck.cards.put(position, card);
+            deck.seen.set(position);
+        } else {
+            deck.queue.remove(card);   // La chiave di ordinamento sta per cambiare
+        }
+
+        long at = attempt.getTimestamp() != null ? seconds(attempt.getTimestamp()) : seconds(LocalDateTime.now());
+        if (attempt.isCorrect()) {
+            card.streak++;
+            card.due = at + (BASE_INTERVAL_SECONDS << Math.min(card.streak - 1, MAX_DOUBLINGS));
+        } else {
+            card.streak = 0;
+            card.due = at;
+        }
+        deck.queue.add(card);
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static String key(String type, String level) {
+        return type + "|" + (level == null ? "" : level.toLowerCase());
+    }
+}
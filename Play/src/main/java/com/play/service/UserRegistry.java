@@ -0,0 +1,179 @@
+package com.play.service;
+
+import com.play.model.User;
+import com.play.utils.BloomFilter;
+import com.play.utils.FileManager;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Registro in memoria degli utenti, condiviso da tutta l'applicazione.
+ * Gli utenti vengono letti una sola volta e indicizzati per username senza distinzione
+ * tra maiuscole e minuscole: login, registrazione e ricerca del nome costano O(1)
+ * indipendentemente dal numero di account.
+ *
+ * Un filtro di Bloom sugli username permette di confermare subito che un nome è libero,
+ * senza consultare l'indice. I nuovi utenti sono accodati al file degli utenti
+ * (vedi {@link FileManager#appendUser(User)}), senza riscriverlo.
+ *
+ * Account registrati in passato con username che differiscono solo per maiuscole e minuscole
+ * restano accessibili: oltre al primo, indicizzato normalmente, sono cercati per nome esatto.
+ */
+public class UserRegistry {
+
+    // Probabilità di falsi positivi del filtro di Bloom
+    private static final double BLOOM_FALSE_POSITIVES = 0.01;
+
+    private static UserRegistry instance;
+
+    // Username in minuscolo → utente
+    private final Map<String, User> byUsername = new HashMap<>();
+    // Username esatto → utente, per gli account che collidono con uno precedente a meno di maiuscole
+    private final Map<String, User> collisions = new HashMap<>();
+
+    private BloomFilter bloom;
+    private int bloomCapacity;
+
+    /**
+     * Costruisce il registro indicizzando gli utenti forniti.
+     * In caso di username ripetuti a meno di maiuscole l'indice usa il primo registrato;
+     * gli altri restano raggiungibili con il nome esatto. Un nome ripetuto identico resta al primo.
+     *
+     * @param users Utenti iniziali
+     */
+    UserRegistry(List<User> users) {
+        for (User user : users) {
+            User first = byUsername.putIfAbsent(key(user.getUsername()), user);
+            if (first == null || exact(first.getUsername()).equals(exact(user.getUsername()))) continue;
+            if (collisions.putIfAbsent(exact(user.getUsername()), user) == null) {
+                System.err.println("Username \"" + user.getUsername() + "\" uguale a \"" + first.getUsername()
+                        + "\" a meno di maiuscole: accesso solo con il nome esatto");
+            }
+        }
+        rebuildBloom(Math.max(1024, byUsername.size() * 2));
+    }
+
+    /**
+     * Restituisce il registro condiviso, caricando gli utenti da disco al primo accesso.
+     *
+     * @return Istanza condivisa
+     */
+    public static synchronized UserRegistry getInstance() {
+        if (instance == null) {
+            instance = new UserRegistry(FileManager.loadUsers());
+        }
+        return instance;
+    }
+
+    // ==============================================================
+    // ======================  REGISTRAZIONE ========================
+    // ==============================================================
+
+    /**
+     * Verifica se un username è già in uso (senza distinzione tra maiuscole e minuscole).
+     *
+     * @param username Username da verificare
+     * @return true se esiste già un utente con quell'username
+     */
+    public synchronized boolean isTaken(String username) {
+        String key = key(username);
+        // Percorso rapido: il filtro non ha falsi negativi
+        if (!bloom.mightContain(key)) return false;
+        return byUsername.containsKey(key);
+    }
+
+    /**
+     * Registra un nuovo utente, se l'username è libero, e lo accoda al file degli utenti.
+     * L'utente entra nel registro solo dopo la scrittura: se questa fallisce non risulta registrato.
+     *
+     * @param user Nuovo utente
+     * @return false se l'username è già in uso
+     * @throws IOException Se l'utente non è stato salvato
+     */
+    public synchronized boolean register(User user) throws IOException {
+        if (isTaken(user.getUsername())) return false;
+
+        // Scritto sotto lock: l'ordine nel file rispetta quello di registrazione
+        FileManager.appendUser(user);
+
+        String key = key(user.getUsername());
+        byUsername.put(key, user);
+        if (byUsername.size() > bloomCapacity) {
+            rebuildBloom(bloomCapacity * 2);
+        } else {
+            bloom.add(key);
+        }
+        return true;
+    }
+
+    private void rebuildBloom(int capacity) {
+        bloomCapacity = capacity;
+        bloom = new BloomFilter(capacity, BLOOM_FALSE_POSITIVES);
+        for (String key : byUsername.keySet()) {
+            bloom.add(key);
+        }
+    }
+
+    // ==============================================================
+    // =========================  QUERY =============================
+    // ==============================================================
+
+    /**
+     * Autentica un utente: l'username deve coincidere esattamente, la password anche.
+     * Gli spazi iniziali e finali sono ignorati.
+     *
+     * @param username Nome utente
+     * @param password Password in chiaro
+     * @return Utente autenticato, se le credenziali sono valide
+     */
+    public synchronized Optional<User> authenticate(String username, String password) {
+        if (username == null || password == null) return Optional.empty();
+
+        User user = lookup(username);
+        if (user == null
+                || !user.getUsername().trim().equals(username.trim())
+                || !user.getPassword().trim().equals(password.trim())) {
+            return Optional.empty();
+        }
+        return Optional.of(user);
+    }
+
+    /**
+     * @param username Nome utente (senza distinzione tra maiuscole e minuscole)
+     * @return Utente registrato con quell'username, se esiste
+     */
+    public synchronized Optional<User> find(String username) {
+        return username == null ? Optional.empty() : Optional.ofNullable(lookup(username));
+    }
+
+    /**
+     * Nome da mostrare per un utente (es. in classifica).
+     *
+     * @param username Nome utente
+     * @return "Nome Cognome", oppure l'username stesso se l'utente non è registrato
+     */
+    public synchronized String displayName(String username) {
+        User user = username == null ? null : lookup(username);
+        return user == null ? username : user.getName() + " " + user.getSurname();
+    }
+
+    /** @return Numero di utenti registrati */
+    public synchronized int size() {
+        return byUsername.size() + collisions.size();
+    }
+
+    // Account con il nome esatto tra quelli in collisione, altrimenti quello dell'indice
+    private User lookup(String username) {
+        User user = collisions.isEmpty() ? null : collisions.get(exact(username));
+        return user != null ? user : byUsername.get(key(username));
+    }
+
+    private static String exact(String username) {
+        return username.trim();
+    }
+
+    private static String key(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,78 @@
+package com.play.tools;
+
+import com.play.model.Attempt;
+import com.play.utils.AttemptLog;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Misura la memoria occupata dai tentativi caricati da una cartella dati: heap trattenuto per tentativo
+ * (dopo una garbage collection, con la lista ancora raggiungibile) e quante istanze di stringa
+ * distinte puntano ai campi dei tentativi rispetto ai valori distinti.
+ *
+ * Per il confronto con la lettura senza condivisione delle stringhe si ripete la misura con
+ * {@code -Dplay.attempts.dictionarySize=0}. Conviene usare una cartella senza snapshot
+ * (es. generata con {@link DatasetGenerator} senza {@code --compact}), perché lo snapshot
+ * condivide già le stringhe tramite il proprio dizionario.
+ *
+ * Uso: {@code AttemptFootprint <cartella dati>}
+ */
+public final class AttemptFootprint {
+
+    // Identificativo di sola lettura: la misura non scrive segmenti propri
+    private static final String INSTANCE_ID = "misura";
+
+    private AttemptFootprint() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length != 1 || !Files.isDirectory(Paths.get(args[0]))) {
+            System.err.println("Uso: AttemptFootprint <cartella dati>");
+            System.exit(1);
+        }
+        Path dir = Paths.get(args[0]);
+
+        long before = usedHeapAfterGc();
+        long t0 = System.nanoTime();
+        List<Attempt> attempts = new AttemptLog(dir, INSTANCE_ID).loadAll();
+        long loadMillis = (System.nanoTime() - t0) / 1_000_000;
+        long after = usedHeapAfterGc();
+
+        if (attempts.isEmpty()) {
+            System.out.println("Nessun tentativo in " + dir);
+            return;
+        }
+        long retained = after - before;
+        System.out.printf("%d tentativi caricati in %d ms (play.attempts.dictionarySize: %s)%n",
+                attempts.size(), loadMillis, System.getProperty("play.attempts.dictionarySize", "predefinito"));
+        System.out.printf("heap trattenuto: %.1f MB, %.1f byte per tentativo%n",
+                retained / (1024.0 * 1024), (double) retained / attempts.size());
+
+        // Riferimenti ai campi stringa, istanze distinte e valori distinti
+        long references = 0;
+        Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<String> values = new HashSet<>();
+        for (Attempt attempt : attempts) {
+            for (String s : new String[]{attempt.getUsername(), attempt.getType(), attempt.getLevel(),
+                    attempt.getQuestion(), attempt.getExerciseId()}) {
+                if (s == null) continue;
+                references++;
+                instances.add(s);
+                values.add(s);
+            }
+        }
+        System.out.printf("stringhe: %d riferimenti, %d istanze distinte, %d valori distinti%n",
+                references, instances.size(), values.size());
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
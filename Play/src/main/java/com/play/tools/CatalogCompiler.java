@@ -0,0 +1,42 @@
+package com.play.tools;
+
+import com.play.service.CatalogBinary;
+import com.play.service.ExerciseCatalog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Compila i file JSON degli esercizi nel catalogo binario letto all'avvio da {@link ExerciseCatalog}.
+ * Viene eseguito da Maven nella fase process-classes (vedi pom.xml), dopo la copia delle risorse.
+ *
+ * Uso: {@code CatalogCompiler <file di output>}
+ */
+public final class CatalogCompiler {
+
+    private CatalogCompiler() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: CatalogCompiler <file di output>");
+            System.exit(1);
+        }
+
+        Path output = Paths.get(args[0]);
+        ExerciseCatalog catalog = ExerciseCatalog.loadFromJson();
+        byte[] hash = CatalogBinary.sourceHash();
+
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+        Path tmp = output.resolveSibling(output.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            CatalogBinary.write(catalog, hash, out);
+        }
+        Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        System.out.println("Catalogo esercizi compilato: " + catalog.size() + " esercizi → " + output);
+    }
+}
@@ -0,0 +1,263 @@
+package com.play.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.play.model.Attempt;
+import com.play.model.Exercise;
+import com.play.model.User;
+import com.play.service.ExerciseCatalog;
+import com.play.utils.AttemptLog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Genera un dataset sintetico di grandi dimensioni, riproducibile a partire da un seme:
+ * utenti, tentativi e, a richiesta, un catalogo esercizi più ampio di quello incluso.
+ *
+ * I tentativi seguono distribuzioni realistiche:
+ * - pochi utenti molto attivi e molti utenti occasionali (attività con coda di Pareto);
+ * - esercizi facili e primi esercizi di ogni livello più svolti degli altri (popolarità di Zipf);
+ * - probabilità di successo che dipende dal livello, dalla difficoltà propria di ogni esercizio
+ *   e dall'abilità dell'utente, così che alcuni esercizi risultino molto più difficili di altri.
+ *
+ * Il dataset si usa avviando l'applicazione (o {@link SessionSimulator}) con
+ * {@code -Dplay.dataDir=<cartella>} e, se è stato generato il catalogo, {@code -Dplay.catalogDir=<cartella>}.
+ *
+ * Uso: {@code DatasetGenerator <cartella> [--users N] [--attempts N] [--exercises N] [--days N] [--seed N] [--compact]}
+ */
+public final class DatasetGenerator {
+
+    private static final String[] LEVELS = {"facile", "medio", "difficile"};
+
+    // Probabilità di successo tipiche per livello (in scala logit): circa 80%, 60%, 35%
+    private static final double[] LEVEL_LOGIT = {1.4, 0.4, -0.6};
+
+    // Peso di popolarità per livello: gli esercizi facili sono svolti più spesso
+    private static final double[] LEVEL_WEIGHT = {3, 2, 1};
+
+    private static final String[] NAMES = {
+            "marco", "giulia", "luca", "sara", "andrea", "chiara", "matteo", "francesca", "alessandro", "martina",
+            "davide", "elena", "simone", "valentina", "federico", "alice", "lorenzo", "giorgia", "riccardo", "anna"
+    };
+    private static final String[] SURNAMES = {
+            "rossi", "russo", "ferrari", "esposito", "bianchi", "romano", "colombo", "ricci", "marino", "greco",
+            "bruno", "gallo", "conti", "deluca", "mancini", "costa", "giordano", "rizzo", "lombardi", "moretti"
+    };
+
+    // File che indicano un dataset già presente nella cartella di destinazione
+    private static final String[] DATA_FILES = {
+            "users.json", "users.jsonl", "attempts.json", "attempts.jsonl", "attempts.snapshot"
+    };
+
+    // Identificativo con cui il generatore scrive il proprio segmento di log (vedi AttemptLog)
+    private static final String INSTANCE_ID = "generatore";
+
+    // Tentativi scritti nel log per ogni append
+    private static final int BATCH = 10_000;
+
+    private DatasetGenerator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args[0].startsWith("--")) {
+            System.err.println("Uso: DatasetGenerator <cartella> [--users N] [--attempts N] [--exercises N] "
+                    + "[--days N] [--seed N] [--compact]");
+            System.exit(1);
+        }
+
+        Path dir = Paths.get(args[0]);
+        int users = 1_000;
+        long attempts = 100_000;
+        int exercisesPerLevel = 0;
+        int days = 90;
+        long seed = 42;
+        boolean compact = false;
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--users" -> users = Integer.parseInt(args[++i]);
+                case "--attempts" -> attempts = Long.parseLong(args[++i]);
+                case "--exercises" -> exercisesPerLevel = Integer.parseInt(args[++i]);
+                case "--days" -> days = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--compact" -> compact = true;
+                default -> {
+                    System.err.println("Opzione sconosciuta: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        Files.createDirectories(dir);
+        for (String file : DATA_FILES) {
+            if (Files.exists(dir.resolve(file))) {
+                System.err.println("La cartella contiene già un dataset (" + file + "): scegliere una cartella vuota");
+                System.exit(1);
+            }
+        }
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(dir, "attempts-*.jsonl")) {
+            if (segments.iterator().hasNext()) {
+                System.err.println("La cartella contiene già segmenti di tentativi: scegliere una cartella vuota");
+                System.exit(1);
+            }
+        }
+
+        Random random = new Random(seed);
+        long start = System.nanoTime();
+
+        List<Exercise> exercises = exercisesPerLevel > 0
+                ? writeCatalog(dir, exercisesPerLevel)
+                : ExerciseCatalog.loadFromJson().getAll();
+        List<User> userList = writeUsers(dir, users, random);
+        writeAttempts(dir, userList, exercises, attempts, days, random);
+
+        if (compact) {
+            System.out.println("Compattazione dei tentativi...");
+            new AttemptLog(dir, INSTANCE_ID).compact();
+        }
+
+        System.out.printf("Dataset generato in %s: %d utenti, %d esercizi, %d tentativi (%.1f s)%n",
+                dir, userList.size(), exercises.size(), attempts, (System.nanoTime() - start) / 1e9);
+    }
+
+    // ==============================================================
+    // =========================  CATALOGO ==========================
+    // ==============================================================
+
+    /**
+     * Scrive un catalogo con {@code perLevel} esercizi per ogni tipo e livello, negli stessi file
+     * del catalogo incluso. Gli esercizi sono ricavati ciclicamente da quelli reali con un nuovo ID.
+     *
+     * @return Esercizi generati
+     */
+    private static List<Exercise> writeCatalog(Path dir, int perLevel) throws IOException {
+        ExerciseCatalog source = ExerciseCatalog.loadFromJson();
+        Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+        List<Exercise> all = new ArrayList<>();
+
+        for (String type : ExerciseCatalog.types()) {
+            List<Exercise> ofType = new ArrayList<>();
+            for (String level : LEVELS) {
+                List<Exercise> templates = source.getByTypeAndLevel(type, level);
+                if (templates.isEmpty()) continue;
+                for (int i = 0; i < perLevel; i++) {
+                    Exercise t = templates.get(i % templates.size());
+                    ofType.add(new Exercise(type + "_" + level + "_" + (i + 1), type, level, t.getQuestion(),
+                            t.getCode(), t.getOptions(), t.getCorrectOptionIndex()));
+                }
+            }
+            Path file = dir.resolve(ExerciseCatalog.fileName(ExerciseCatalog.resourceFor(type)));
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                gson.toJson(ofType, writer);
+            }
+            all.addAll(ofType);
+        }
+        return all;
+    }
+
+    // ==============================================================
+    // ==========================  UTENTI ===========================
+    // ==============================================================
+
+    private static List<User> writeUsers(Path dir, int count, Random random) throws IOException {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)];
+            String surname = SURNAMES[random.nextInt(SURNAMES.length)];
+            users.add(new User(name + "." + surname + i, "1234", name, surname));
+        }
+
+        // Stesso formato del file degli utenti (un record JSON per riga, vedi FileManager)
+        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        try (Writer writer = Files.newBufferedWriter(dir.resolve("users.jsonl"))) {
+            for (User user : users) {
+                writer.write(gson.toJson(user));
+                writer.write('\n');
+            }
+        }
+        return users;
+    }
+
+    // ==============================================================
+    // ========================  TENTATIVI ==========================
+    // ==============================================================
+
+    private static void writeAttempts(Path dir, List<User> users, List<Exercise> exercises,
+                                      long count, int days, Random random) throws IOException {
+        // Attività degli utenti: coda di Pareto (alpha = 1.2), con un tetto per evitare valori estremi
+        double[] userWeights = new double[users.size()];
+        double[] skill = new double[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            userWeights[i] = Math.min(1000, Math.pow(1 - random.nextDouble(), -1 / 1.2));
+            skill[i] = random.nextGaussian() * 0.8;
+        }
+        double[] userCdf = cumulative(userWeights);
+
+        // Popolarità (Zipf sulla posizione nel livello) e difficoltà propria di ogni esercizio
+        Map<String, Integer> positions = new HashMap<>();
+        double[] exerciseWeights = new double[exercises.size()];
+        double[] exerciseLogit = new double[exercises.size()];
+        for (int i = 0; i < exercises.size(); i++) {
+            Exercise e = exercises.get(i);
+            int level = levelIndex(e.getLevel());
+            int position = positions.merge(e.getType() + "|" + level, 1, Integer::sum);
+            exerciseWeights[i] = LEVEL_WEIGHT[level] / Math.pow(position, 0.7);
+            exerciseLogit[i] = LEVEL_LOGIT[level] + random.nextGaussian() * 0.7;
+        }
+        double[] exerciseCdf = cumulative(exerciseWeights);
+
+        // Timestamp crescenti nell'arco dei giorni richiesti, fino a una data fissa (riproducibile)
+        LocalDateTime end = LocalDateTime.of(2025, 6, 1, 0, 0);
+        long spanSeconds = days * 86_400L;
+
+        AttemptLog log = new AttemptLog(dir, INSTANCE_ID);
+        List<Attempt> batch = new ArrayList<>(BATCH);
+        for (long n = 0; n < count; n++) {
+            int u = pick(userCdf, random);
+            int x = pick(exerciseCdf, random);
+            Exercise e = exercises.get(x);
+
+            double p = 1 / (1 + Math.exp(-(exerciseLogit[x] + skill[u])));
+            LocalDateTime timestamp = end.minusSeconds(spanSeconds - spanSeconds * n / Math.max(1, count));
+
+            batch.add(new Attempt(users.get(u).getUsername(), e.getType(), e.getLevel(), e.getQuestion(),
+                    random.nextDouble() < p, e.getId(), timestamp));
+            if (batch.size() == BATCH) {
+                log.append(batch, false);
+                batch.clear();
+            }
+            if ((n + 1) % 1_000_000 == 0) System.out.println("Tentativi generati: " + (n + 1));
+        }
+        if (!batch.isEmpty()) log.append(batch, false);
+    }
+
+    private static int levelIndex(String level) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equalsIgnoreCase(level)) return i;
+        }
+        return 1;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        return cdf;
+    }
+
+    // Estrazione pesata: ricerca binaria sulla distribuzione cumulativa
+    private static int pick(double[] cdf, Random random) {
+        double r = random.nextDouble() * cdf[cdf.length - 1];
+        int i = Arrays.binarySearch(cdf, r);
+        return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+    }
+}
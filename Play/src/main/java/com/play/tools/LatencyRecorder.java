@@ -0,0 +1,57 @@
+package com.play.tools;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Raccolta di latenze (in nanosecondi) per gli strumenti di misura, con il riepilogo dei percentili.
+ * Ogni thread usa il proprio registratore; i valori vengono uniti solo al termine.
+ */
+final class LatencyRecorder {
+
+    private long[] values = new long[1024];
+    private int size;
+
+    void add(long nanos) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = nanos;
+    }
+
+    /**
+     * @param recorders Registratori da unire
+     * @return Tutte le latenze registrate, ordinate
+     */
+    static long[] merge(Collection<LatencyRecorder> recorders) {
+        int total = 0;
+        for (LatencyRecorder r : recorders) total += r.size;
+        long[] all = new long[total];
+        int at = 0;
+        for (LatencyRecorder r : recorders) {
+            System.arraycopy(r.values, 0, all, at, r.size);
+            at += r.size;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    /**
+     * Stampa i percentili principali di una serie ordinata di latenze.
+     *
+     * @param label  Nome dell'operazione misurata
+     * @param sorted Latenze ordinate
+     */
+    static void report(String label, long[] sorted) {
+        if (sorted.length == 0) {
+            System.out.println(label + ": nessuna misura");
+            return;
+        }
+        System.out.printf("%s (µs): p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n", label,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                percentile(sorted, 99.9), sorted[sorted.length - 1] / 1e3);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e3;
+    }
+}
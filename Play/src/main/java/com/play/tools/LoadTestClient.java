@@ -0,0 +1,213 @@
+package com.play.tools;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.play.server.PlayServer;
+import com.play.utils.AttemptWriter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client di carico per la modalità server ({@link PlayServer}), da eseguire in locale.
+ *
+ * Ogni studente simulato (un thread virtuale) si registra o accede, poi ripete: apertura di una sessione
+ * per tipo e livello casuali, una risposta per ogni esercizio, e di tanto in tanto consultazione
+ * di progresso e classifica. Al termine riporta richieste al secondo, errori e percentili di latenza
+ * per endpoint.
+ *
+ * Con {@code --embedded <cartella dati>} il server viene avviato nello stesso processo su una porta libera,
+ * sui dati della cartella indicata (mai sulle risorse del progetto).
+ *
+ * Uso: {@code LoadTestClient [--url http://localhost:8080 | --embedded <cartella>] [--students N] [--seconds N]
+ * [--think MS]}
+ */
+public final class LoadTestClient {
+
+    private static final String[] TYPES = {"trovaErrore", "output", "completa", "correggiErrore"};
+    private static final String[] LEVELS = {"facile", "medio", "difficile"};
+    private static final String PASSWORD = "1234";
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final Gson gson = new Gson();
+
+    // Latenze per endpoint (una lista di registratori per endpoint, uno per studente)
+    private final Map<String, List<LatencyRecorder>> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+
+    private LoadTestClient(String baseUrl, ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String url = "http://localhost:8080";
+        String embeddedDir = null;
+        int students = 200;
+        int seconds = 30;
+        int thinkMillis = 0;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--embedded" -> embeddedDir = args[++i];
+                case "--students" -> students = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--think" -> thinkMillis = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Uso: LoadTestClient [--url URL | --embedded <cartella>] [--students N] "
+                            + "[--seconds N] [--think MS]");
+                    System.exit(1);
+                }
+            }
+        }
+
+        PlayServer server = null;
+        if (embeddedDir != null) {
+            // Va impostata prima del primo accesso a FileManager
+            System.setProperty("play.dataDir", embeddedDir);
+            server = new PlayServer(0);
+            server.start();
+            url = "http://localhost:" + server.getPort();
+            System.out.println("Server incorporato su " + url);
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            new LoadTestClient(url, executor).run(executor, students, seconds, thinkMillis);
+        } finally {
+            if (server != null) {
+                server.stop();
+                AttemptWriter.getInstance().shutdown();
+            }
+        }
+    }
+
+    private void run(ExecutorService executor, int students, int seconds, int thinkMillis) {
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        String prefix = "carico" + Long.toString(System.currentTimeMillis() % 100_000, 36) + "_";
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            String username = prefix + i;
+            futures.add(executor.submit(() -> {
+                student(username, deadline, thinkMillis);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                errors.incrementAndGet();
+                System.err.println("Studente interrotto: " + e.getMessage());
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long requests = 0;
+        Map<String, long[]> merged = new TreeMap<>();
+        for (Map.Entry<String, List<LatencyRecorder>> entry : latencies.entrySet()) {
+            long[] values = LatencyRecorder.merge(entry.getValue());
+            merged.put(entry.getKey(), values);
+            requests += values.length;
+        }
+
+        System.out.printf("%d studenti, %.1f s: %d richieste (%.0f al secondo), %d errori%n",
+                students, elapsed, requests, requests / elapsed, errors.get());
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            LatencyRecorder.report(entry.getKey() + " [" + entry.getValue().length + "]", entry.getValue());
+        }
+    }
+
+    // ==============================================================
+    // ====================  STUDENTE SIMULATO ======================
+    // ==============================================================
+
+    private void student(String username, long deadline, int thinkMillis) throws Exception {
+        Map<String, LatencyRecorder> own = new HashMap<>();
+        Random random = ThreadLocalRandom.current();
+
+        JsonObject user = new JsonObject();
+        user.addProperty("username", username);
+        user.addProperty("password", PASSWORD);
+        user.addProperty("name", "Studente");
+        user.addProperty("surname", username);
+        call(own, "POST /api/register", "/api/register", null, user);   // 409 se già registrato: si accede comunque
+
+        JsonElement login = call(own, "POST /api/login", "/api/login", null, user);
+        if (login == null) return;
+        String token = login.getAsJsonObject().get("token").getAsString();
+
+        while (System.nanoTime() < deadline) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            String level = LEVELS[random.nextInt(LEVELS.length)];
+            JsonElement session = call(own, "GET /api/session",
+                    "/api/session?type=" + type + "&level=" + level, token, null);
+            if (session == null) continue;
+
+            JsonArray exercises = session.getAsJsonObject().getAsJsonArray("exercises");
+            for (JsonElement element : exercises) {
+                if (thinkMillis > 0) Thread.sleep((long) (-thinkMillis * Math.log(1 - random.nextDouble())));
+                JsonObject exercise = element.getAsJsonObject();
+                JsonObject answer = new JsonObject();
+                answer.addProperty("exerciseId", exercise.get("id").getAsString());
+                answer.addProperty("answer", random.nextInt(exercise.getAsJsonArray("options").size()));
+                call(own, "POST /api/attempts", "/api/attempts", token, answer);
+            }
+
+            // Circa una sessione su cinque lo studente guarda progresso e classifica
+            if (random.nextInt(5) == 0) {
+                call(own, "GET /api/progress", "/api/progress", token, null);
+                call(own, "GET /api/leaderboard", "/api/leaderboard?limit=10", null, null);
+            }
+        }
+
+        for (Map.Entry<String, LatencyRecorder> entry : own.entrySet()) {
+            latencies.computeIfAbsent(entry.getKey(), k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(entry.getValue());
+        }
+    }
+
+    /**
+     * Esegue una richiesta e ne registra la latenza.
+     *
+     * @return Corpo JSON della risposta, o null in caso di errore (conteggiato, salvo il 409 della registrazione)
+     */
+    private JsonElement call(Map<String, LatencyRecorder> own, String label, String path, String token,
+                             JsonObject body) throws InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(body)));
+        }
+
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            own.computeIfAbsent(label, k -> new LatencyRecorder()).add(System.nanoTime() - t0);
+            if (response.statusCode() / 100 == 2) return gson.fromJson(response.body(), JsonElement.class);
+            if (response.statusCode() != 409) errors.incrementAndGet();
+        } catch (IOException e) {
+            errors.incrementAndGet();
+        }
+        return null;
+    }
+}
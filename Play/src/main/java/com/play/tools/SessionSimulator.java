@@ -0,0 +1,159 @@
+package com.play.tools;
+
+import com.play.model.Attempt;
+import com.play.model.Exercise;
+import com.play.model.User;
+import com.play.service.AttemptStore;
+import com.play.service.ExerciseCatalog;
+import com.play.service.ExerciseService;
+import com.play.utils.AttemptWriter;
+import com.play.utils.FileManager;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulatore senza interfaccia di N studenti che svolgono esercizi in contemporanea.
+ *
+ * Ogni studente (un thread virtuale) ripete il percorso dell'applicazione: sceglie tipo e livello,
+ * calcola la percentuale di completamento, carica gli esercizi della sessione con {@link ExerciseService}
+ * e registra una risposta per ciascuno, come fa la schermata esercizio.
+ * Le risposte passano da {@link AttemptStore} (e quindi dallo scrittore asincrono), oppure con
+ * {@code --sync} sono salvate direttamente con {@link FileManager#saveAttempt(Attempt)}.
+ *
+ * Al termine riporta i tentativi al secondo sostenuti e i percentili di latenza
+ * dell'apertura di una sessione e della registrazione di una risposta.
+ *
+ * I dati vengono letti e scritti nella cartella indicata (vedi {@link DatasetGenerator}),
+ * mai nelle risorse del progetto.
+ *
+ * Uso: {@code SessionSimulator <cartella dati> [--learners N] [--seconds N] [--think MS] [--seed N] [--sync]}
+ */
+public final class SessionSimulator {
+
+    private static final String[] LEVELS = {"facile", "medio", "difficile"};
+
+    private SessionSimulator() {}
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args[0].startsWith("--")) {
+            System.err.println("Uso: SessionSimulator <cartella dati> [--learners N] [--seconds N] [--think MS] "
+                    + "[--seed N] [--sync]");
+            System.exit(1);
+        }
+
+        // Va impostata prima del primo accesso a FileManager
+        System.setProperty("play.dataDir", args[0]);
+
+        int learners = 100;
+        int seconds = 30;
+        int thinkMillis = 0;
+        long seed = 42;
+        boolean sync = false;
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--learners" -> learners = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--think" -> thinkMillis = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--sync" -> sync = true;
+                default -> {
+                    System.err.println("Opzione sconosciuta: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        // Caricamento iniziale, come all'avvio dell'applicazione
+        long loadStart = System.nanoTime();
+        ExerciseCatalog.getInstance();
+        AttemptStore store = AttemptStore.getInstance();
+        List<String> usernames = new ArrayList<>();
+        for (User user : FileManager.loadUsers()) usernames.add(user.getUsername());
+        System.out.printf("Caricamento: %d tentativi, %d utenti in %.0f ms%n",
+                store.size(), usernames.size(), (System.nanoTime() - loadStart) / 1e6);
+        if (usernames.isEmpty()) {
+            for (int i = 0; i < learners; i++) usernames.add("sim" + i);
+        }
+
+        ExerciseService service = new ExerciseService();
+        List<String> types = new ArrayList<>(ExerciseCatalog.types());
+        List<LatencyRecorder> sessions = new ArrayList<>();
+        List<LatencyRecorder> answers = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < learners; i++) {
+                LatencyRecorder sessionLatency = new LatencyRecorder();
+                LatencyRecorder answerLatency = new LatencyRecorder();
+                sessions.add(sessionLatency);
+                answers.add(answerLatency);
+                String username = usernames.get(i % usernames.size());
+                Random random = new Random(seed + i);
+                boolean syncSave = sync;
+                int think = thinkMillis;
+
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        String type = types.get(random.nextInt(types.size()));
+                        String level = LEVELS[random.nextInt(LEVELS.length)];
+
+                        // Apertura della sessione: completamento e scelta degli esercizi
+                        long t0 = System.nanoTime();
+                        service.calculateCompletionPercentage(username, type, level);
+                        List<Exercise> exercises = service.loadExercises(username, type, level);
+                        if (exercises.isEmpty()) {
+                            // Nulla da svolgere ora: si ripassa dall'inizio del livello
+                            exercises = service.loadExercises(type, level, Set.of());
+                        }
+                        sessionLatency.add(System.nanoTime() - t0);
+
+                        for (Exercise e : exercises) {
+                            if (think > 0) pause(think);
+                            Attempt attempt = new Attempt(username, e.getType(), e.getLevel(), e.getQuestion(),
+                                    random.nextInt(100) < 65, e.getId());
+                            long t1 = System.nanoTime();
+                            if (syncSave) {
+                                FileManager.saveAttempt(attempt);
+                            } else {
+                                store.record(attempt);
+                            }
+                            answerLatency.add(System.nanoTime() - t1);
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        // I tentativi ancora in coda fanno parte del lavoro sostenuto
+        long flushStart = System.nanoTime();
+        AttemptWriter writer = AttemptWriter.getInstance();
+        writer.shutdown();
+        double flushMillis = (System.nanoTime() - flushStart) / 1e6;
+
+        long[] answerValues = LatencyRecorder.merge(answers);
+        System.out.printf("%d studenti, %.1f s, salvataggio %s%n", learners, elapsed, sync ? "sincrono" : "asincrono");
+        System.out.printf("Tentativi: %d (%.0f al secondo), svuotamento finale della coda: %.0f ms%n",
+                answerValues.length, answerValues.length / elapsed, flushMillis);
+        System.out.printf("Commit: %d (latenza media %.2f ms, falliti %d)%n",
+                writer.getCommitCount(), writer.getAverageCommitMillis(), writer.getFailedCommits());
+        LatencyRecorder.report("Apertura sessione", LatencyRecorder.merge(sessions));
+        LatencyRecorder.report("Risposta", answerValues);
+    }
+
+    private static void pause(int meanMillis) {
+        // Tempo di riflessione con distribuzione esponenziale attorno alla media
+        long millis = (long) (-meanMillis * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,1179 @@
+package com.play.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.play.model.Attempt;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Persistenza dei tentativi: snapshot colonnare + log append-only delle modifiche successive,
+ * condivisibili da più postazioni che puntano alla stessa cartella (es. una cartella di rete).
+ *
+ * <ul>
+ *   <li>{@code attempts.snapshot}: stato compatto in formato {@link ColumnarAttemptFile}, con un'epoca,
+ *       per ogni segmento di log il numero di byte già inclusi e i tombstone già applicati, che valgono
+ *       anche per i record scritti dopo (es. da una postazione con l'orologio indietro);</li>
+ *   <li>{@code attempts-<istanza>-<generazione>.jsonl}: un segmento per istanza, scritto solo da essa,
+ *       con un record JSON per riga: tentativi e tombstone {@code {"tombstone":"username",...}}
+ *       che cancellano i tentativi di quell'utente con timestamp non successivo al proprio;</li>
+ *   <li>{@code attempts.jsonl}: log unico delle versioni precedenti, letto come un segmento qualsiasi.
+ *       La prima riga può essere un'intestazione {@code {"logEpoch":N}}.</li>
+ * </ul>
+ *
+ * Nessun file è mai scritto da due istanze, quindi le scritture non hanno bisogno di lock tra processi.
+ * Per garantirlo, alla prima scrittura l'istanza prende un lock esclusivo su {@code attempts-<istanza>.lock}:
+ * se l'identificativo è già in uso (es. due processi sulla stessa macchina) usa il primo libero
+ * tra {@code <istanza>.2}, {@code <istanza>.3}, ... e quindi un segmento diverso.
+ * In lettura i segmenti (ordinati per timestamp) vengono fusi con un merge a k vie insieme allo snapshot;
+ * il risultato resta in cache con la posizione letta di ogni segmento, e le letture successive
+ * consumano solo i byte aggiunti da allora.
+ *
+ * Le stringhe dei tentativi letti dai segmenti sono decodificate tramite un {@link StringDictionary}
+ * limitato ({@code play.attempts.dictionarySize} slot, 0 per disattivarlo), così che i record condividano
+ * le stesse istanze; quelle lette dallo snapshot sono già condivise dal suo dizionario.
+ *
+ * La compattazione, riservata a un'istanza alla volta tramite {@code attempts.compact.lock},
+ * scrive un nuovo snapshot con epoca successiva e le posizioni lette di ogni segmento; poi l'istanza
+ * riparte da un proprio segmento nuovo e cancella quello vecchio, ormai incluso. I segmenti delle altre
+ * istanze restano intatti e vengono letti a partire dalla posizione registrata nello snapshot.
+ */
+public class AttemptLog {
+
+    private static final String LEGACY_FILE = "attempts.json";
+    private static final String LOG_FILE = "attempts.jsonl";
+    private static final String SNAPSHOT_FILE = "attempts.snapshot";
+    private static final String COMPACT_LOCK_FILE = "attempts.compact.lock";
+    private static final String SEGMENT_PREFIX = "attempts-";
+    private static final String SEGMENT_SUFFIX = ".jsonl";
+    private static final String INSTANCE_LOCK_SUFFIX = ".lock";
+
+    // File di lock degli identificativi presi dalle istanze di questo processo: un secondo canale
+    // sullo stesso file, chiuso, rilascerebbe anche il lock del primo
+    private static final Set<Path> CLAIMED = new HashSet<>();
+
+    // Un lock di compattazione più vecchio di così è considerato abbandonato (processo interrotto)
+    private static final long STALE_LOCK_MILLIS = 10 * 60 * 1000;
+
+    // Tentativi di lettura se lo snapshot cambia (compattazione di un'altra istanza) durante la lettura
+    private static final int MAX_RETRIES = 5;
+
+    // I record speciali sono scritti solo da questa classe: basta riconoscerne l'inizio
+    private static final String TOMBSTONE_PREFIX = "{\"tombstone\":";
+    private static final String HEADER_PREFIX = "{\"logEpoch\":";
+
+    // Esiti della traduzione di un filtro in id del dizionario dello snapshot
+    private static final int ANY = -2;
+    private static final int NO_MATCH = -3;
+
+    // Ordine di fusione dei segmenti; i timestamp mancanti (dati molto vecchi) vengono per primi
+    private static final Comparator<Attempt> BY_TIME =
+            Comparator.comparing(Attempt::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final Path dataDir;
+    private final Path legacyPath;
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final Path compactLockPath;
+    private final String baseInstanceId;
+    // Identificativo effettivo: quello richiesto o, se già in uso da un altro processo, il primo libero
+    private String instanceId;
+    // Lock esclusivo sull'identificativo, tenuto fino a close() o alla fine del processo
+    private Path instanceLockPath;
+    private FileChannel instanceLockChannel;
+
+    // Slot del dizionario delle stringhe dei tentativi (0 = nessuna condivisione)
+    private static final int DICTIONARY_SIZE = Integer.getInteger("play.attempts.dictionarySize", 1 << 16);
+
+    // Stringhe ripetute dei tentativi letti (username, tipo, livello, domanda, ID), condivise tra i record
+    private final StringDictionary strings = new StringDictionary(DICTIONARY_SIZE);
+
+    // Gson compatto (una riga per record) per il log; quello "pretty" serve solo per il vecchio formato.
+    // Entrambi decodificano le stringhe tramite il dizionario
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(String.class, strings.typeAdapter())
+            .disableHtmlEscaping()
+            .create();
+    private final Gson legacyGson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(String.class, strings.typeAdapter())
+            .create();
+
+    // Serializza scritture, letture e compattazione di questa istanza
+    private final Object lock = new Object();
+
+    // Generazione del segmento di questa istanza (0 = non ancora determinata)
+    private int generation;
+    private boolean legacyChecked;
+    // false finché non si è verificato che il proprio segmento termina con una riga completa
+    private boolean tailVerified;
+
+    // Byte scritti da questa istanza dalla sua creazione
+    private long appendedBytes;
+
+    // Cache della lettura fusa: valida finché lo snapshot resta alla stessa epoca
+    private List<Attempt> cached;
+    private long cachedEpoch = -1;
+    private Map<String, Long> snapshotMarks = Map.of();
+    private final Map<String, Long> readOffsets = new HashMap<>();
+    private final Map<String, LocalDateTime> tombstones = new HashMap<>();
+
+    // Novità lette dopo l'ultima pollChanges(), raccolte solo dopo trackChanges()
+    private boolean tracking;
+    private List<Attempt> pendingAttempts = new ArrayList<>();
+    private Map<String, LocalDateTime> pendingTombstones = new HashMap<>();
+
+    /**
+     * Novità lette dal log dopo l'ultima {@link #pollChanges()}: tentativi (anche di questa istanza)
+     * e ultimo tombstone per utente. I tentativi sono già filtrati dai tombstone noti.
+     */
+    public static final class Changes {
+        private final List<Attempt> attempts;
+        private final Map<String, LocalDateTime> tombstones;
+
+        Changes(List<Attempt> attempts, Map<String, LocalDateTime> tombstones) {
+            this.attempts = attempts;
+            this.tombstones = tombstones;
+        }
+
+        /** @return Tentativi comparsi nel log, in ordine di timestamp */
+        public List<Attempt> getAttempts() {
+            return attempts;
+        }
+
+        /** @return Utente → istante fino al quale i suoi tentativi sono cancellati */
+        public Map<String, LocalDateTime> getTombstones() {
+            return tombstones;
+        }
+
+        public boolean isEmpty() {
+            return attempts.isEmpty() && tombstones.isEmpty();
+        }
+    }
+
+    /** Record di cancellazione dei tentativi di un utente */
+    private static final class Tombstone {
+        String tombstone;
+        LocalDateTime timestamp;
+
+        Tombstone(String username, LocalDateTime timestamp) {
+            this.tombstone = username;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /** Intestazione del vecchio log unico con l'epoca dello snapshot a cui si riferiva */
+    private static final class LogHeader {
+        long logEpoch;
+    }
+
+    /**
+     * Usa come identificativo dell'istanza la proprietà {@code play.instanceId} o, in sua assenza,
+     * il nome della macchina.
+     *
+     * @param dataDir Cartella che contiene i file dei tentativi
+     */
+    public AttemptLog(Path dataDir) {
+        this(dataDir, defaultInstanceId());
+    }
+
+    /**
+     * @param dataDir    Cartella che contiene i file dei tentativi
+     * @param instanceId Identificativo dell'istanza, diverso per ogni postazione che scrive nella cartella;
+     *                   se alla prima scrittura è già in uso gli viene aggiunto un suffisso
+     */
+    public AttemptLog(Path dataDir, String instanceId) {
+        this.dataDir = dataDir;
+        this.legacyPath = dataDir.resolve(LEGACY_FILE);
+        this.logPath = dataDir.resolve(LOG_FILE);
+        this.snapshotPath = dataDir.resolve(SNAPSHOT_FILE);
+        this.compactLockPath = dataDir.resolve(COMPACT_LOCK_FILE);
+        this.baseInstanceId = instanceId.replaceAll("[^A-Za-z0-9._-]", "_");
+        this.instanceId = baseInstanceId;
+    }
+
+    private static String defaultInstanceId() {
+        String id = System.getProperty("play.instanceId");
+        if (id != null && !id.isBlank()) return id;
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "locale";
+        }
+    }
+
+    // ==============================================================
+    // ========================  SCRITTURA ==========================
+    // ==============================================================
+
+    /**
+     * Accoda un gruppo di tentativi al segmento di questa istanza con un'unica scrittura (group commit).
+     *
+     * @param attempts Tentativi da salvare
+     * @param force    true per forzare i dati su disco prima di ritornare
+     * @throws IOException Se la scrittura non riesce: nessun record del gruppo resta nel segmento
+     */
+    public void append(List<Attempt> attempts, boolean force) throws IOException {
+        StringBuilder lines = new StringBuilder(attempts.size() * 256);
+        for (Attempt attempt : attempts) {
+            lines.append(gson.toJson(attempt)).append('\n');
+        }
+        appendLines(lines.toString(), force);
+    }
+
+    /**
+     * Accoda un tombstone che cancella tutti i tentativi dell'utente registrati finora (su qualsiasi
+     * postazione), senza riscrivere lo storico. I dati vengono forzati su disco.
+     *
+     * @param username Utente di cui cancellare i tentativi
+     * @throws IOException Se la scrittura non riesce
+     */
+    public void appendTombstone(String username) throws IOException {
+        appendTombstone(username, LocalDateTime.now(), true);
+    }
+
+    /**
+     * Accoda un tombstone che cancella i tentativi dell'utente con timestamp non successivo a quello indicato.
+     *
+     * @param username  Utente di cui cancellare i tentativi
+     * @param timestamp Istante della cancellazione
+     * @param force     true per forzare i dati su disco prima di ritornare
+     * @throws IOException Se la scrittura non riesce
+     */
+    public void appendTombstone(String username, LocalDateTime timestamp, boolean force) throws IOException {
+        appendLines(gson.toJson(new Tombstone(username, timestamp)) + '\n', force);
+    }
+
+    /**
+     * Scrive le righe in coda al segmento di questa istanza. Se la scrittura fallisce a metà,
+     * il segmento viene riportato alla lunghezza precedente (o, se neanche questo riesce,
+     * riparato alla scrittura successiva), così un nuovo tentativo non si incolla a un frammento.
+     */
+    private void appendLines(String lines, boolean force) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        synchronized (lock) {
+            migrateLegacy();
+            try (FileChannel channel = FileChannel.open(ownSegment(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long start = channel.size();
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    if (force) channel.force(false);
+                } catch (IOException e) {
+                    tailVerified = false;
+                    try {
+                        channel.truncate(start);
+                        tailVerified = true;
+                    } catch (IOException truncateFailed) {
+                        e.addSuppressed(truncateFailed);
+                    }
+                    throw e;
+                }
+                appendedBytes += buffer.limit();
+            }
+        }
+    }
+
+    /**
+     * Segmento in cui scrive questa istanza: quello di generazione più alta già presente, oppure il primo.
+     * Alla prima apertura, e dopo una scrittura fallita, viene rimossa l'eventuale riga incompleta
+     * lasciata da una scrittura interrotta.
+     * Da chiamare tenendo il lock.
+     */
+    private Path ownSegment() throws IOException {
+        if (generation == 0) {
+            claimInstanceId();
+            String prefix = SEGMENT_PREFIX + instanceId + "-";
+            generation = 1;
+            for (Path segment : segments()) {
+                String name = segment.getFileName().toString();
+                if (!name.startsWith(prefix)) continue;
+                try {
+                    int gen = Integer.parseInt(name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    generation = Math.max(generation, gen);
+                } catch (NumberFormatException e) {
+                    // Segmento di un'altra istanza con un identificativo che inizia allo stesso modo
+                }
+            }
+        }
+        Path segment = dataDir.resolve(SEGMENT_PREFIX + instanceId + "-" + generation + SEGMENT_SUFFIX);
+        if (!tailVerified) {
+            if (Files.exists(segment)) truncateTornTail(segment);
+            tailVerified = true;
+        }
+        return segment;
+    }
+
+    /**
+     * Prende il lock esclusivo sul primo identificativo libero a partire da quello richiesto.
+     * Se il file system non supporta i lock si prosegue con l'identificativo richiesto.
+     */
+    private void claimInstanceId() throws IOException {
+        if (instanceLockChannel != null) return;
+        for (int slot = 1; ; slot++) {
+            String id = slot == 1 ? baseInstanceId : baseInstanceId + "." + slot;
+            Path path = dataDir.resolve(SEGMENT_PREFIX + id + INSTANCE_LOCK_SUFFIX);
+            synchronized (CLAIMED) {
+                if (CLAIMED.contains(path)) continue;
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                try {
+                    if (channel.tryLock() == null) {
+                        channel.close();
+                        continue;
+                    }
+                } catch (IOException e) {
+                    channel.close();
+                    System.err.println("Lock dell'istanza " + id + " non disponibile: " + e.getMessage());
+                    return;
+                }
+                CLAIMED.add(path);
+                instanceLockPath = path;
+                instanceLockChannel = channel;
+                instanceId = id;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rilascia l'identificativo dell'istanza: la scrittura successiva lo riprende (o ne sceglie un altro).
+     * Senza chiamarla, il lock viene rilasciato alla fine del processo.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (instanceLockChannel == null) return;
+            synchronized (CLAIMED) {
+                try {
+                    instanceLockChannel.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                CLAIMED.remove(instanceLockPath);
+            }
+            instanceLockChannel = null;
+            instanceLockPath = null;
+            instanceId = baseInstanceId;
+            generation = 0;
+            tailVerified = false;
+        }
+    }
+
+    /**
+     * Riporta il segmento alla fine dell'ultima riga completa. Un frammento finale senza terminatore
+     * (processo interrotto durante una scrittura) verrebbe altrimenti incollato al primo record
+     * scritto dopo il riavvio, rendendo illeggibili entrambi. Il segmento è scritto solo da questa
+     * istanza e i lettori si fermano sempre dopo un terminatore, quindi nessuna posizione letta si perde.
+     */
+    private static void truncateTornTail(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long end = size;
+            ByteBuffer chunk = ByteBuffer.allocate(4096);
+            while (end > 0) {
+                int n = (int) Math.min(chunk.capacity(), end);
+                chunk.clear().limit(n);
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, end - n + chunk.position()) < 0) break;
+                }
+                int i = n - 1;
+                while (i >= 0 && chunk.get(i) != '\n') i--;
+                if (i >= 0) {
+                    end = end - n + i + 1;
+                    break;
+                }
+                end -= n;
+            }
+            if (end < size) {
+                System.err.println("Segmento " + segment.getFileName() + ": rimossa riga incompleta di "
+                        + (size - end) + " byte");
+                channel.truncate(end);
+                channel.force(false);
+            }
+        }
+    }
+
+    /** @return Segmenti di log presenti, il vecchio log unico per primo e poi in ordine di nome */
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(dataDir)) return segments;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dataDir, "attempts*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        segments.sort(Comparator.comparing((Path p) -> !p.getFileName().toString().equals(LOG_FILE))
+                .thenComparing(p -> p.getFileName().toString()));
+        return segments;
+    }
+
+    // ==============================================================
+    // =========================  LETTURA ===========================
+    // ==============================================================
+
+    /**
+     * Carica lo stato corrente: snapshot più i record di tutti i segmenti successivi ad esso.
+     * Dopo la prima chiamata vengono letti solo i byte aggiunti ai segmenti nel frattempo.
+     *
+     * @return Tentativi non cancellati, in ordine di timestamp
+     */
+    public List<Attempt> loadAll() {
+        synchronized (lock) {
+            migrateLegacy();
+            try {
+                refresh();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return cached == null ? new ArrayList<>() : new ArrayList<>(cached);
+        }
+    }
+
+    /**
+     * @return Byte scritti da questa istanza dalla sua creazione; a differenza di {@link #logSize()}
+     * non accede al disco
+     */
+    public long appendedBytes() {
+        synchronized (lock) {
+            return appendedBytes;
+        }
+    }
+
+    /**
+     * Da questo momento tiene da parte le novità lette dal log, per {@link #pollChanges()}.
+     * Chi non le ritira non deve attivarla, altrimenti si accumulano in memoria.
+     */
+    public void trackChanges() {
+        synchronized (lock) {
+            tracking = true;
+        }
+    }
+
+    /**
+     * Rilegge la parte nuova dei segmenti e restituisce tutto ciò che è comparso nel log dalla
+     * chiamata precedente (o da {@link #trackChanges()}), comprese le letture fatte nel frattempo
+     * da {@link #loadAll()}. Se un'altra istanza ha compattato, le novità si ottengono confrontando
+     * la cache ricostruita con quella precedente.
+     *
+     * @return Novità, da ignorare per i tentativi già noti a chi le chiede
+     */
+    public Changes pollChanges() {
+        synchronized (lock) {
+            tracking = true;
+            migrateLegacy();
+            try {
+                refresh();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            // Un tombstone letto dopo un tentativo ancora da ritirare lo nasconde anche qui
+            if (!pendingTombstones.isEmpty()) pendingAttempts.removeIf(a -> isDeleted(a, pendingTombstones));
+            Changes changes = new Changes(pendingAttempts, pendingTombstones);
+            pendingAttempts = new ArrayList<>();
+            pendingTombstones = new HashMap<>();
+            return changes;
+        }
+    }
+
+    /** @return Byte dei segmenti non ancora inclusi nello snapshot (0 se non ce ne sono) */
+    public long logSize() {
+        synchronized (lock) {
+            try {
+                long epoch = ColumnarAttemptFile.readEpoch(snapshotPath);
+                Map<String, Long> marks = cached != null && epoch == cachedEpoch
+                        ? snapshotMarks : ColumnarAttemptFile.readWatermarks(snapshotPath);
+                long total = 0;
+                for (Path segment : segments()) {
+                    total += Math.max(0, Files.size(segment) - coveredBytes(segment, marks, epoch));
+                }
+                return total;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Aggiorna la cache leggendo solo la parte nuova dei segmenti. Se lo snapshot è cambiato
+     * o un segmento è stato rimosso o accorciato, la ricostruisce da capo.
+     */
+    private void refresh() throws IOException {
+        if (cached == null || ColumnarAttemptFile.readEpoch(snapshotPath) != cachedEpoch) {
+            rebuild();
+            return;
+        }
+
+        List<Path> segments = segments();
+        Set<String> present = new HashSet<>();
+        for (Path segment : segments) {
+            present.add(segment.getFileName().toString());
+        }
+        if (!present.containsAll(readOffsets.keySet())) {
+            rebuild();
+            return;
+        }
+
+        List<List<Attempt>> runs = new ArrayList<>();
+        Map<String, LocalDateTime> newTombstones = new HashMap<>();
+        try {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                long from = readOffsets.getOrDefault(name, snapshotMarks.getOrDefault(name, 0L));
+                long size = Files.size(segment);
+                if (size < from) {
+                    rebuild();
+                    return;
+                }
+                if (size == from) continue;
+
+                List<Attempt> run = new ArrayList<>();
+                readOffsets.put(name, readSegment(segment, from, run, newTombstones));
+                if (!run.isEmpty()) runs.add(run);
+            }
+        } catch (NoSuchFileException e) {
+            // Segmento rimosso da una compattazione in corso
+            rebuild();
+            return;
+        }
+        applyDelta(mergeRuns(runs), newTombstones);
+    }
+
+    /**
+     * Ricostruisce la cache dallo snapshot e dai segmenti. Se nel frattempo un'altra istanza
+     * ha compattato (epoca cambiata o segmento sparito), la lettura viene ripetuta.
+     */
+    private void rebuild() throws IOException {
+        List<Attempt> previous = cached;
+        Map<String, LocalDateTime> previousTombstones = new HashMap<>(tombstones);
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    rebuildOnce();
+                    if (ColumnarAttemptFile.readEpoch(snapshotPath) == cachedEpoch) return;
+                } catch (NoSuchFileException e) {
+                    if (attempt >= MAX_RETRIES) throw e;
+                }
+                if (attempt >= MAX_RETRIES) return;
+            }
+        } finally {
+            if (tracking && previous != null && cached != null) trackRebuild(previous, previousTombstones);
+        }
+    }
+
+    /**
+     * Registra come novità i tentativi della cache ricostruita assenti da quella precedente
+     * (stessi utente, esercizio, istante al microsecondo ed esito) e i tombstone nuovi o più recenti. Gli snapshot
+     * delle versioni precedenti non conservano i tombstone già applicati: un tentativo sparito dalla cache
+     * diventa un tombstone del suo utente fino al suo istante. Costo lineare, solo dopo una compattazione.
+     */
+    private void trackRebuild(List<Attempt> previous, Map<String, LocalDateTime> previousTombstones) {
+        Set<String> known = new HashSet<>(previous.size() * 2);
+        for (Attempt attempt : previous) {
+            known.add(identity(attempt));
+        }
+        Set<String> current = new HashSet<>(cached.size() * 2);
+        for (Attempt attempt : cached) {
+            String identity = identity(attempt);
+            current.add(identity);
+            if (!known.contains(identity)) pendingAttempts.add(attempt);
+        }
+        for (Attempt attempt : previous) {
+            if (!current.contains(identity(attempt))) {
+                addTombstone(pendingTombstones, attempt.getUsername(), attempt.getTimestamp());
+            }
+        }
+        tombstones.forEach((username, timestamp) -> {
+            if (!timestamp.equals(previousTombstones.get(username))) {
+                addTombstone(pendingTombstones, username, timestamp);
+            }
+        });
+    }
+
+    // Lo snapshot conserva i timestamp al microsecondo: il confronto usa la stessa precisione
+    private static String identity(Attempt attempt) {
+        LocalDateTime timestamp = attempt.getTimestamp();
+        return attempt.getUsername() + '\u0000' + attempt.getExerciseId() + '\u0000'
+                + (timestamp == null ? "" : ColumnarAttemptFile.toEpochMicros(timestamp)) + '\u0000' + attempt.isCorrect();
+    }
+
+    private void rebuildOnce() throws IOException {
+        cached = null;
+        readOffsets.clear();
+        tombstones.clear();
+
+        List<List<Attempt>> runs = new ArrayList<>();
+        long epoch = 0;
+        Map<String, Long> marks = Map.of();
+        if (Files.exists(snapshotPath)) {
+            try {
+                ColumnarAttemptFile snapshot = ColumnarAttemptFile.open(snapshotPath);
+                epoch = snapshot.getEpoch();
+                marks = snapshot.getWatermarks();
+                // I tombstone inclusi valgono anche per i record dei segmenti successivi allo snapshot
+                tombstones.putAll(snapshot.getTombstones());
+                List<Attempt> base = snapshot.readAll();
+                // Gli snapshot precedenti erano in ordine di registrazione: quasi ordinati, costo lineare
+                base.sort(BY_TIME);
+                runs.add(base);
+            } catch (NoSuchFileException e) {
+                throw e;
+            } catch (IOException e) {
+                System.err.println("Snapshot dei tentativi non leggibile: " + e.getMessage());
+            }
+        }
+
+        for (Path segment : segments()) {
+            List<Attempt> run = new ArrayList<>();
+            long from = coveredBytes(segment, marks, epoch);
+            readOffsets.put(segment.getFileName().toString(),
+                    from >= Files.size(segment) ? from : readSegment(segment, from, run, tombstones));
+            if (!run.isEmpty()) runs.add(run);
+        }
+
+        List<Attempt> merged = mergeRuns(runs);
+        if (!tombstones.isEmpty()) merged.removeIf(a -> isDeleted(a, tombstones));
+        cached = merged;
+        cachedEpoch = epoch;
+        snapshotMarks = marks;
+    }
+
+    /**
+     * Byte iniziali di un segmento già inclusi nello snapshot. Il vecchio log unico senza posizione
+     * registrata è incluso per intero se la sua intestazione ha un'epoca precedente allo snapshot
+     * (compattazione delle versioni precedenti interrotta).
+     */
+    private long coveredBytes(Path segment, Map<String, Long> marks, long snapshotEpoch) throws IOException {
+        String name = segment.getFileName().toString();
+        Long mark = marks.get(name);
+        if (mark != null) return mark;
+        if (name.equals(LOG_FILE) && legacyLogEpoch() < snapshotEpoch) return Files.size(segment);
+        return 0;
+    }
+
+    /**
+     * Legge le righe complete di un segmento a partire da una posizione. Una riga finale senza
+     * terminatore (scrittura in corso su un'altra postazione) viene lasciata alla lettura successiva.
+     *
+     * @param run        Tentativi letti, riordinati per timestamp
+     * @param tombstones Ultimo tombstone letto per ogni utente
+     * @return Posizione successiva all'ultima riga completa
+     */
+    private long readSegment(Path segment, long from, List<Attempt> run, Map<String, LocalDateTime> tombstones)
+            throws IOException {
+        long offset = forEachLine(segment, from, line -> replay(line, run, tombstones));
+        run.sort(BY_TIME);
+        return offset;
+    }
+
+    /**
+     * Passa all'azione ogni riga completa del segmento a partire da una posizione, senza terminatore.
+     * Una riga finale senza terminatore non viene passata.
+     *
+     * @return Posizione successiva all'ultima riga completa
+     */
+    private static long forEachLine(Path segment, long from, Consumer<String> action) throws IOException {
+        long offset = from;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ);
+             InputStream in = Channels.newInputStream(channel.position(from))) {
+            byte[] chunk = new byte[1 << 16];
+            ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                int start = 0;
+                for (int i = 0; i < n; i++) {
+                    if (chunk[i] != '\n') continue;
+                    line.write(chunk, start, i - start);
+                    offset += line.size() + 1;
+                    action.accept(line.toString(StandardCharsets.UTF_8));
+                    line.reset();
+                    start = i + 1;
+                }
+                line.write(chunk, start, n - start);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Interpreta una riga di un segmento. Le righe vuote, le intestazioni e le righe non valide vengono ignorate.
+     */
+    private void replay(String line, List<Attempt> run, Map<String, LocalDateTime> tombstones) {
+        if (line.isBlank() || line.startsWith(HEADER_PREFIX)) return;
+        try {
+            if (line.startsWith(TOMBSTONE_PREFIX)) {
+                Tombstone tombstone = gson.fromJson(line, Tombstone.class);
+                addTombstone(tombstones, tombstone.tombstone, tombstone.timestamp);
+            } else {
+                Attempt attempt = gson.fromJson(line, Attempt.class);
+                if (attempt != null) run.add(attempt);
+            }
+        } catch (JsonParseException | DateTimeParseException e) {
+            System.err.println("Riga del log tentativi ignorata: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aggiunge alla cache i tentativi nuovi, già fusi tra loro. Di solito sono tutti successivi
+     * all'ultimo in cache e vengono accodati; altrimenti (orologi non allineati, scritture ritardate)
+     * vengono fusi solo con la coda della cache a partire dal primo timestamp nuovo.
+     */
+    private void applyDelta(List<Attempt> delta, Map<String, LocalDateTime> newTombstones) {
+        newTombstones.forEach((username, timestamp) -> addTombstone(tombstones, username, timestamp));
+        if (!tombstones.isEmpty()) delta.removeIf(a -> isDeleted(a, tombstones));
+        if (tracking) {
+            pendingAttempts.addAll(delta);
+            newTombstones.forEach((username, timestamp) -> addTombstone(pendingTombstones, username, timestamp));
+        }
+
+        if (!delta.isEmpty()) {
+            int from = upperBound(cached, delta.get(0));
+            if (from == cached.size()) {
+                cached.addAll(delta);
+            } else {
+                List<Attempt> tail = cached.subList(from, cached.size());
+                List<Attempt> merged = mergeRuns(List.of(new ArrayList<>(tail), delta));
+                tail.clear();
+                cached.addAll(merged);
+            }
+        }
+        if (!newTombstones.isEmpty()) cached.removeIf(a -> isDeleted(a, newTombstones));
+    }
+
+    // Primo indice con timestamp successivo a quello del tentativo (i pari restano prima)
+    private static int upperBound(List<Attempt> sorted, Attempt probe) {
+        int low = 0, high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BY_TIME.compare(sorted.get(mid), probe) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Merge a k vie di sequenze già ordinate per timestamp, con una coda di priorità sulle teste.
+     * A parità di timestamp precede la sequenza con indice minore (lo snapshot, poi i segmenti in ordine).
+     */
+    private static List<Attempt> mergeRuns(List<List<Attempt>> runs) {
+        if (runs.isEmpty()) return new ArrayList<>();
+        if (runs.size() == 1) return runs.get(0);
+
+        int total = 0;
+        for (List<Attempt> run : runs) {
+            total += run.size();
+        }
+        List<Attempt> merged = new ArrayList<>(total);
+        int[] positions = new int[runs.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(runs.size(), (a, b) -> {
+            int c = BY_TIME.compare(runs.get(a).get(positions[a]), runs.get(b).get(positions[b]));
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        for (int i = 0; i < runs.size(); i++) {
+            if (!runs.get(i).isEmpty()) heads.add(i);
+        }
+        while (!heads.isEmpty()) {
+            int run = heads.poll();
+            merged.add(runs.get(run).get(positions[run]++));
+            if (positions[run] < runs.get(run).size()) heads.add(run);
+        }
+        return merged;
+    }
+
+    private static void addTombstone(Map<String, LocalDateTime> tombstones, String username, LocalDateTime timestamp) {
+        // Un tombstone senza data non è ordinabile rispetto ai tentativi delle altre postazioni
+        if (username == null || timestamp == null) return;
+        tombstones.merge(username, timestamp, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    // Un tentativo è cancellato se esiste un tombstone del suo utente con timestamp non precedente
+    private static boolean isDeleted(Attempt attempt, Map<String, LocalDateTime> tombstones) {
+        LocalDateTime until = tombstones.get(attempt.getUsername());
+        return until != null && (attempt.getTimestamp() == null || !attempt.getTimestamp().isAfter(until));
+    }
+
+    // ==============================================================
+    // ===================  QUERY IN STREAMING ======================
+    // ==============================================================
+
+    /**
+     * Legge solo i tentativi che soddisfano il filtro, senza caricare lo storico in memoria.
+     * Nello snapshot il filtro viene valutato sugli id del dizionario; nei segmenti ogni riga
+     * viene letta campo per campo con un {@link JsonReader} e, al primo campo che non
+     * soddisfa il filtro, il resto del record viene saltato senza costruire oggetti.
+     * La memoria usata è quindi proporzionale al risultato, non ai file. Come {@link #loadAll()},
+     * ignora le righe non valide e la riga finale incompleta senza perdere i record successivi.
+     *
+     * @param query Filtro da applicare
+     * @return Tentativi che soddisfano il filtro, in ordine di timestamp
+     */
+    public List<Attempt> query(AttemptQuery query) {
+        synchronized (lock) {
+            migrateLegacy();
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    // Le epoche crescono sempre: se coincidono prima e dopo, nessuna compattazione è avvenuta nel mezzo
+                    long epoch = ColumnarAttemptFile.readEpoch(snapshotPath);
+                    List<Attempt> result = queryOnce(query);
+                    if (attempt >= MAX_RETRIES || ColumnarAttemptFile.readEpoch(snapshotPath) == epoch) return result;
+                } catch (NoSuchFileException e) {
+                    if (attempt >= MAX_RETRIES) {
+                        e.printStackTrace();
+                        return new ArrayList<>();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return new ArrayList<>();
+                }
+            }
+        }
+    }
+
+    private List<Attempt> queryOnce(AttemptQuery query) throws IOException {
+        List<List<Attempt>> runs = new ArrayList<>();
+        Map<String, LocalDateTime> deleted = new HashMap<>();
+        long snapshotEpoch = 0;
+        Map<String, Long> marks = Map.of();
+
+        if (Files.exists(snapshotPath)) {
+            try {
+                ColumnarAttemptFile snapshot = ColumnarAttemptFile.open(snapshotPath);
+                snapshotEpoch = snapshot.getEpoch();
+                marks = snapshot.getWatermarks();
+                snapshot.getTombstones().forEach((username, timestamp) -> {
+                    if (query.acceptsUsername(username)) deleted.put(username, timestamp);
+                });
+                List<Attempt> run = new ArrayList<>();
+                scanSnapshot(snapshot, query, run);
+                run.sort(BY_TIME);
+                runs.add(run);
+            } catch (NoSuchFileException e) {
+                throw e;
+            } catch (IOException e) {
+                System.err.println("Snapshot dei tentativi non leggibile: " + e.getMessage());
+            }
+        }
+
+        for (Path segment : segments()) {
+            long from = coveredBytes(segment, marks, snapshotEpoch);
+            if (from >= Files.size(segment)) continue;
+            List<Attempt> run = new ArrayList<>();
+            forEachLine(segment, from, line -> streamRecord(line, query, run, deleted));
+            run.sort(BY_TIME);
+            runs.add(run);
+        }
+
+        List<Attempt> result = mergeRuns(runs);
+        if (!deleted.isEmpty()) result.removeIf(a -> isDeleted(a, deleted));
+        return result;
+    }
+
+    private void scanSnapshot(ColumnarAttemptFile snapshot, AttemptQuery query, List<Attempt> out) {
+        // Valori del filtro tradotti in id del dizionario: un valore assente non può corrispondere
+        int userId = dictionaryFilter(snapshot, query.getUsername());
+        int typeId = dictionaryFilter(snapshot, query.getType());
+        int levelId = dictionaryFilter(snapshot, query.getLevel());
+        if (userId == NO_MATCH || typeId == NO_MATCH || levelId == NO_MATCH) return;
+
+        Boolean correct = query.getCorrect();
+        long fromMicros = query.getFrom() == null ? Long.MIN_VALUE : ColumnarAttemptFile.toEpochMicros(query.getFrom());
+        long toMicros = query.getTo() == null ? Long.MAX_VALUE : ColumnarAttemptFile.toEpochMicros(query.getTo());
+
+        snapshot.scan(row -> {
+            if (userId != ANY && row.usernameId() != userId) return;
+            if (typeId != ANY && row.typeId() != typeId) return;
+            if (levelId != ANY && row.levelId() != levelId) return;
+            if (correct != null && row.isCorrect() != correct) return;
+            if (query.hasTimeRange()) {
+                // Come AttemptQuery.acceptsTimestamp: senza timestamp non rientra in nessun intervallo
+                long ts = row.timestampMicros();
+                if (!row.hasTimestamp() || ts < fromMicros || ts >= toMicros) return;
+            }
+            out.add(row.toAttempt());
+        });
+    }
+
+    private static int dictionaryFilter(ColumnarAttemptFile snapshot, String value) {
+        if (value == null) return ANY;
+        int id = snapshot.dictionaryId(value);
+        return id < 0 ? NO_MATCH : id;
+    }
+
+    /**
+     * Interpreta una riga di un segmento campo per campo, senza costruire oggetti per i record scartati.
+     * Come in lettura completa, le righe vuote, le intestazioni e le righe non valide vengono ignorate
+     * senza interrompere la lettura delle successive.
+     */
+    private void streamRecord(String line, AttemptQuery query, List<Attempt> out, Map<String, LocalDateTime> deleted) {
+        if (line.isBlank() || line.startsWith(HEADER_PREFIX)) return;
+        try (JsonReader reader = new JsonReader(new StringReader(line))) {
+            reader.beginObject();
+            if (!reader.hasNext()) return;
+            String name = reader.nextName();
+
+            if (name.equals("tombstone")) {
+                String username = reader.nextString();
+                LocalDateTime timestamp = null;
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("timestamp") && reader.peek() == JsonToken.STRING) {
+                        timestamp = LocalDateTime.parse(reader.nextString());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (query.acceptsUsername(username)) addTombstone(deleted, username, timestamp);
+            } else {
+                Attempt attempt = readFiltered(reader, name, query);
+                if (attempt != null) out.add(attempt);
+            }
+        } catch (IOException | IllegalStateException | JsonParseException | DateTimeParseException e) {
+            System.err.println("Riga del log tentativi ignorata: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Legge un tentativo campo per campo, abbandonandolo al primo campo che non soddisfa il filtro.
+     *
+     * @param reader    Reader posizionato dopo il nome del primo campo
+     * @param firstName Nome del primo campo, già letto
+     * @param query     Filtro da applicare
+     * @return Tentativo costruito, oppure null se scartato
+     */
+    private Attempt readFiltered(JsonReader reader, String firstName, AttemptQuery query) throws IOException {
+        String username = null, type = null, level = null, question = null, exerciseId = null;
+        boolean correct = false;
+        LocalDateTime timestamp = null;
+
+        String name = firstName;
+        while (true) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else {
+                switch (name) {
+                    case "username":
+                        username = strings.intern(reader.nextString());
+                        if (!query.acceptsUsername(username)) return skipRest(reader);
+                        break;
+                    case "type":
+                        type = strings.intern(reader.nextString());
+                        if (!query.acceptsType(type)) return skipRest(reader);
+                        break;
+                    case "level":
+                        level = strings.intern(reader.nextString());
+                        if (!query.acceptsLevel(level)) return skipRest(reader);
+                        break;
+                    case "correct":
+                        correct = reader.nextBoolean();
+                        if (!query.acceptsCorrect(correct)) return skipRest(reader);
+                        break;
+                    case "timestamp":
+                        timestamp = LocalDateTime.parse(reader.nextString());
+                        if (!query.acceptsTimestamp(timestamp)) return skipRest(reader);
+                        break;
+                    case "question":
+                        question = strings.intern(reader.nextString());
+                        break;
+                    case "exerciseId":
+                        exerciseId = strings.intern(reader.nextString());
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            if (!reader.hasNext()) break;
+            name = reader.nextName();
+        }
+        reader.endObject();
+
+        // Campi assenti nel record: il filtro va verificato anche sui valori mancanti
+        Attempt attempt = new Attempt(username, type, level, question, correct, exerciseId, timestamp);
+        return query.matches(attempt) ? attempt : null;
+    }
+
+    // Salta i campi rimanenti dell'oggetto corrente e lo chiude
+    private static Attempt skipRest(JsonReader reader) throws IOException {
+        while (reader.hasNext()) {
+            reader.nextName();
+            reader.skipValue();
+        }
+        reader.endObject();
+        return null;
+    }
+
+    // ==============================================================
+    // ======================  COMPATTAZIONE ========================
+    // ==============================================================
+
+    /**
+     * Scrive un nuovo snapshot con tutto lo stato corrente e riparte da un segmento vuoto.
+     * Lo stato viene fotografato sotto il lock, ma il file dello snapshot è scritto senza tenerlo:
+     * le scritture di questa istanza proseguono sul segmento oltre la posizione inclusa, e in quel caso
+     * il segmento non viene sostituito (lo sarà alla compattazione successiva). Le altre istanze
+     * proseguono sui propri segmenti. Se un'altra istanza sta già compattando non fa nulla.
+     */
+    public void compact() {
+        List<Attempt> state;
+        Map<String, Long> marks;
+        Map<String, LocalDateTime> deleted;
+        long epoch;
+        synchronized (lock) {
+            migrateLegacy();
+            if (!acquireCompactionLock()) return;
+            try {
+                // Stato completo e posizione letta di ogni segmento, che lo snapshot dichiarerà incluse
+                rebuild();
+                epoch = Math.max(cachedEpoch, legacyLogEpoch()) + 1;
+                state = new ArrayList<>(cached);
+                marks = new HashMap<>(readOffsets);
+                deleted = new HashMap<>(tombstones);
+            } catch (IOException e) {
+                e.printStackTrace();
+                releaseCompactionLock();
+                return;
+            }
+        }
+
+        try {
+            // 1) nuovo snapshot (scrittura su temporaneo + spostamento atomico)
+            ColumnarAttemptFile.write(state, snapshotPath, epoch, marks, deleted);
+
+            synchronized (lock) {
+                // La cache contiene lo snapshot e, oltre le posizioni lette, le novità arrivate nel frattempo
+                cachedEpoch = epoch;
+                snapshotMarks = marks;
+
+                // 2) il segmento di questa istanza, se incluso per intero, lascia il posto alla generazione successiva.
+                // Se il processo si interrompe prima, il segmento viene riletto dalla posizione registrata.
+                Path own = ownSegment();
+                String ownName = own.getFileName().toString();
+                if (Files.exists(own) && Files.size(own) == marks.getOrDefault(ownName, -1L)) {
+                    generation++;
+                    Files.delete(own);
+                    readOffsets.remove(ownName);
+                }
+
+                // 3) il vecchio log unico non riceve più scritture: si elimina quando è incluso
+                if (Files.exists(logPath) && Files.size(logPath) == marks.getOrDefault(LOG_FILE, -1L)) {
+                    Files.delete(logPath);
+                    readOffsets.remove(LOG_FILE);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            releaseCompactionLock();
+        }
+    }
+
+    /**
+     * Crea il file di lock della compattazione, condiviso tra le istanze. Un lock abbandonato
+     * da un processo interrotto viene rimosso dopo {@link #STALE_LOCK_MILLIS}.
+     *
+     * @return false se un'altra istanza sta compattando
+     */
+    private boolean acquireCompactionLock() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                Files.writeString(compactLockPath, instanceId + '\n', StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                try {
+                    long age = System.currentTimeMillis() - Files.getLastModifiedTime(compactLockPath).toMillis();
+                    if (age < STALE_LOCK_MILLIS) return false;
+                    Files.deleteIfExists(compactLockPath);
+                } catch (NoSuchFileException gone) {
+                    // Rilasciato nel frattempo: si riprova
+                } catch (IOException ex) {
+                    return false;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void releaseCompactionLock() {
+        try {
+            Files.deleteIfExists(compactLockPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private long legacyLogEpoch() {
+        if (!Files.exists(logPath)) return 0;
+        try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+            String first = reader.readLine();
+            return first != null && first.startsWith(HEADER_PREFIX)
+                    ? gson.fromJson(first, LogHeader.class).logEpoch : 0;
+        } catch (IOException | JsonParseException e) {
+            return 0;
+        }
+    }
+
+    // ==============================================================
+    // ========================  MIGRAZIONE =========================
+    // ==============================================================
+
+    /**
+     * Migrazione una tantum dal vecchio formato (array JSON in attempts.json) al log a righe.
+     * Viene eseguita solo se non esistono ancora né segmenti né snapshot; il file originale resta intatto.
+     * Da chiamare tenendo il lock.
+     */
+    private void migrateLegacy() {
+        if (legacyChecked) return;
+        legacyChecked = true;
+        try {
+            if (Files.exists(snapshotPath) || !segments().isEmpty() || !Files.exists(legacyPath)) return;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        List<Attempt> legacyAttempts;
+        try (Reader reader = Files.newBufferedReader(legacyPath)) {
+            Type listType = new TypeToken<List<Attempt>>() {}.getType();
+            legacyAttempts = legacyGson.fromJson(reader, listType);
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Migrazione tentativi non riuscita: " + e.getMessage());
+            return;
+        }
+
+        // Il temporaneo non termina in .jsonl, quindi non viene scambiato per un segmento
+        Path tmp = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                if (legacyAttempts != null) {
+                    for (Attempt attempt : legacyAttempts) {
+                        writer.write(gson.toJson(attempt));
+                        writer.write('\n');
+                    }
+                }
+            }
+            // Due postazioni che migrano insieme producono lo stesso contenuto: vale l'ultima copia spostata
+            Files.move(tmp, logPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.play.utils;
+
+import com.play.model.Attempt;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtro sui tentativi usato dalle letture in streaming di {@link AttemptLog#query(AttemptQuery)}.
+ * Ogni criterio non impostato (null) accetta qualsiasi valore.
+ *
+ * Esempio: {@code new AttemptQuery().user("greta").type("output").correct(true)}
+ */
+public class AttemptQuery {
+
+    private String username;
+    private String type;
+    private String level;
+    private Boolean correct;
+    private LocalDateTime from;   // incluso
+    private LocalDateTime to;     // escluso
+
+    /** Filtra per nome utente */
+    public AttemptQuery user(String username) {
+        this.username = username;
+        return this;
+    }
+
+    /** Filtra per tipo di esercizio */
+    public AttemptQuery type(String type) {
+        this.type = type;
+        return this;
+    }
+
+    /** Filtra per livello di difficoltà */
+    public AttemptQuery level(String level) {
+        this.level = level;
+        return this;
+    }
+
+    /** Filtra per esito del tentativo */
+    public AttemptQuery correct(boolean correct) {
+        this.correct = correct;
+        return this;
+    }
+
+    /**
+     * Filtra per intervallo di tempo [from, to). Uno dei due estremi può essere null.
+     */
+    public AttemptQuery between(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    public String getUsername() { return username; }
+
+    public String getType() { return type; }
+
+    public String getLevel() { return level; }
+
+    public Boolean getCorrect() { return correct; }
+
+    public LocalDateTime getFrom() { return from; }
+
+    public LocalDateTime getTo() { return to; }
+
+    /** @return true se è impostato un filtro temporale */
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+
+    // ===== Verifica dei singoli campi (usata durante la lettura campo per campo) =====
+
+    public boolean acceptsUsername(String value) { return username == null || username.equals(value); }
+
+    public boolean acceptsType(String value) { return type == null || type.equals(value); }
+
+    public boolean acceptsLevel(String value) { return level == null || level.equals(value); }
+
+    public boolean acceptsCorrect(boolean value) { return correct == null || correct == value; }
+
+    public boolean acceptsTimestamp(LocalDateTime value) {
+        if (!hasTimeRange()) return true;
+        if (value == null) return false;
+        return (from == null || !value.isBefore(from)) && (to == null || value.isBefore(to));
+    }
+
+    /**
+     * @param attempt Tentativo già costruito
+     * @return true se il tentativo soddisfa tutti i criteri
+     */
+    public boolean matches(Attempt attempt) {
+        return acceptsUsername(attempt.getUsername())
+                && acceptsType(attempt.getType())
+                && acceptsLevel(attempt.getLevel())
+                && acceptsCorrect(attempt.isCorrect())
+                && acceptsTimestamp(attempt.getTimestamp());
+    }
+}
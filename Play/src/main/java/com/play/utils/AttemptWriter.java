@@ -0,0 +1,411 @@
+package com.play.utils;
+
+import com.play.model.Attempt;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrittore asincrono dei tentativi.
+ * I tentativi vengono accodati dal thread JavaFX e salvati da un thread in background
+ * che li raggruppa in "group commit": più record, una sola scrittura sul log.
+ * Anche le cancellazioni dei tentativi di un utente (tombstone) passano dalla stessa coda,
+ * così restano ordinate rispetto ai tentativi senza bloccare chi le richiede.
+ *
+ * La politica di durabilità è configurabile tramite le proprietà di sistema
+ * {@code play.attempts.durability} (EVERY_RECORD, INTERVAL, ON_SHUTDOWN) e
+ * {@code play.attempts.flushMillis} (intervallo per INTERVAL, default 200 ms).
+ *
+ * Un record conta come scritto solo se la scrittura sul log è riuscita. In caso di errore
+ * (disco pieno, cartella di rete non raggiungibile) i record restano in memoria, nell'ordine,
+ * e il commit viene ripetuto con un'attesa crescente; chi attende con {@link #flush()} viene
+ * avvisato del fallimento invece di considerare i dati al sicuro.
+ */
+public class AttemptWriter {
+
+    /**
+     * Politica di durabilità dei tentativi salvati.
+     */
+    public enum DurabilityPolicy {
+        /** Ogni record viene scritto e forzato su disco appena arriva */
+        EVERY_RECORD,
+        /** I record vengono raccolti per al massimo N ms, poi scritti e forzati su disco */
+        INTERVAL,
+        /** I record vengono scritti appena arrivano, ma forzati su disco solo alla chiusura */
+        ON_SHUTDOWN
+    }
+
+    private static final long DEFAULT_FLUSH_MILLIS = 200;
+
+    // Attesa prima di ripetere un commit fallito: raddoppia ad ogni errore fino al massimo
+    private static final long RETRY_MILLIS = 500;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+    // Commit ripetuti alla chiusura prima di rinunciare ai record rimasti
+    private static final int SHUTDOWN_RETRIES = 3;
+
+    // Marcatori interni accodati insieme ai tentativi (confrontati per identità)
+    private static final Object FLUSH_MARKER = new Object();
+    private static final Object SHUTDOWN_MARKER = new Object();
+
+    /** Cancellazione dei tentativi di un utente, con l'istante della richiesta */
+    private static final class Deletion {
+        final String username;
+        final LocalDateTime timestamp;
+
+        Deletion(String username, LocalDateTime timestamp) {
+            this.username = username;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static AttemptWriter instance;
+
+    private final DurabilityPolicy policy;
+    private final long flushMillis;
+    // Tentativi, cancellazioni e marcatori, nell'ordine di arrivo
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+
+    // Numeri di sequenza per sapere quando un tentativo accodato è stato scritto
+    private long submittedSeq = 0;
+    private long committedSeq = 0;
+    private long failedCommits = 0;
+    private boolean stopped = false;
+
+    // Metriche dei commit
+    private long commitCount = 0;
+    private long committedRecords = 0;
+    private long totalCommitNanos = 0;
+    private long lastCommitNanos = 0;
+    private long maxCommitNanos = 0;
+
+    /**
+     * Crea lo scrittore e avvia il thread di background.
+     *
+     * @param policy      Politica di durabilità
+     * @param flushMillis Intervallo massimo di raccolta per la politica INTERVAL
+     */
+    public AttemptWriter(DurabilityPolicy policy, long flushMillis) {
+        this.policy = policy;
+        this.flushMillis = flushMillis;
+        this.worker = new Thread(this::run, "attempt-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Restituisce lo scrittore condiviso dall'applicazione, creandolo al primo utilizzo.
+     *
+     * @return Istanza condivisa
+     */
+    public static synchronized AttemptWriter getInstance() {
+        if (instance == null) {
+            DurabilityPolicy policy = DurabilityPolicy.valueOf(
+                    System.getProperty("play.attempts.durability", DurabilityPolicy.INTERVAL.name()));
+            long millis = Long.getLong("play.attempts.flushMillis", DEFAULT_FLUSH_MILLIS);
+            instance = new AttemptWriter(policy, millis);
+        }
+        return instance;
+    }
+
+    /**
+     * Attende che i tentativi accodati siano scritti, se lo scrittore condiviso è attivo.
+     * Usato da chi legge il log per vedere anche i tentativi appena registrati.
+     *
+     * @return false se una scrittura è fallita e alcuni tentativi non sono ancora sul log
+     */
+    public static boolean awaitPending() {
+        AttemptWriter writer;
+        synchronized (AttemptWriter.class) {
+            writer = instance;
+        }
+        return writer == null || writer.flush();
+    }
+
+    // ==============================================================
+    // =====================  API PUBBLICA ==========================
+    // ==============================================================
+
+    /**
+     * Accoda un tentativo da salvare. Non blocca il chiamante.
+     *
+     * @param attempt Tentativo da salvare
+     */
+    public void submit(Attempt attempt) {
+        synchronized (this) {
+            if (stopped) {
+                // Dopo la chiusura si ripiega sulla scrittura sincrona
+                try {
+                    FileManager.appendAttempts(List.of(attempt), true);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                return;
+            }
+            submittedSeq++;
+            queue.add(attempt);
+        }
+    }
+
+    /**
+     * Accoda la cancellazione di tutti i tentativi di un utente registrati fino a questo momento.
+     * Non blocca il chiamante: il tombstone viene scritto dopo i tentativi già accodati,
+     * con l'istante della richiesta (i tentativi successivi dello stesso utente restano validi).
+     *
+     * @param username Utente di cui cancellare i tentativi
+     */
+    public void submitDeletion(String username) {
+        Deletion deletion = new Deletion(username, LocalDateTime.now());
+        synchronized (this) {
+            if (stopped) {
+                try {
+                    FileManager.appendTombstone(deletion.username, deletion.timestamp, true);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                return;
+            }
+            submittedSeq++;
+            queue.add(deletion);
+        }
+    }
+
+    /**
+     * Blocca finché tutti i tentativi accodati fino a questo momento non sono stati scritti e forzati su disco,
+     * oppure finché un commit non fallisce.
+     *
+     * @return true se i record accodati sono sul log; false se un commit è fallito (verrà ripetuto)
+     */
+    public boolean flush() {
+        long target;
+        long failures;
+        synchronized (this) {
+            if (committedSeq >= submittedSeq) return true;
+            if (stopped) return false;
+            target = submittedSeq;
+            failures = failedCommits;
+            queue.add(FLUSH_MARKER);
+        }
+        return awaitCommitted(target, failures);
+    }
+
+    /**
+     * Svuota la coda, forza i dati su disco e arresta il thread di background.
+     * Può essere chiamato più volte: le chiamate successive alla prima non hanno effetto.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (stopped) return;
+            stopped = true;
+            queue.add(SHUTDOWN_MARKER);
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==============================================================
+    // ========================  METRICHE ===========================
+    // ==============================================================
+
+    /** @return Politica di durabilità in uso */
+    public DurabilityPolicy getPolicy() { return policy; }
+
+    /** @return Numero di tentativi in coda, non ancora scritti */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Object item : queue) {
+            if (item != FLUSH_MARKER && item != SHUTDOWN_MARKER) depth++;
+        }
+        return depth;
+    }
+
+    /** @return Numero di commit eseguiti */
+    public synchronized long getCommitCount() { return commitCount; }
+
+    /** @return Numero di tentativi scritti su disco */
+    public synchronized long getCommittedRecords() { return committedRecords; }
+
+    /** @return Numero di commit falliti (e poi ripetuti) */
+    public synchronized long getFailedCommits() { return failedCommits; }
+
+    /** @return Latenza dell'ultimo commit in millisecondi */
+    public synchronized double getLastCommitMillis() { return lastCommitNanos / 1_000_000.0; }
+
+    /** @return Latenza massima osservata di un commit in millisecondi */
+    public synchronized double getMaxCommitMillis() { return maxCommitNanos / 1_000_000.0; }
+
+    /** @return Latenza media dei commit in millisecondi */
+    public synchronized double getAverageCommitMillis() {
+        return commitCount == 0 ? 0 : totalCommitNanos / 1_000_000.0 / commitCount;
+    }
+
+    // ==============================================================
+    // ===================  THREAD DI BACKGROUND ====================
+    // ==============================================================
+
+    /**
+     * Ciclo principale: attende il primo record, raccoglie gli altri secondo la politica
+     * e li scrive con un unico commit. Dopo un commit fallito i record restano in {@code pending}
+     * e il commit viene ripetuto alla scadenza dell'attesa, o prima se arriva una richiesta di flush.
+     */
+    private void run() {
+        List<Object> batch = new ArrayList<>();
+        List<Object> pending = new ArrayList<>();
+        boolean running = true;
+        boolean force = false;
+        long retryMillis = 0;
+
+        while (running) {
+            try {
+                if (retryMillis > 0) {
+                    Object next = queue.poll(retryMillis, TimeUnit.MILLISECONDS);
+                    if (next != null) batch.add(next);
+                } else {
+                    batch.add(queue.take());
+
+                    // Con INTERVAL si attende ancora fino alla scadenza, salvo richieste di flush
+                    if (policy == DurabilityPolicy.INTERVAL && !containsMarker(batch)) {
+                        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMillis);
+                        long remaining;
+                        while ((remaining = deadline - System.nanoTime()) > 0 && !containsMarker(batch)) {
+                            Object next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                            if (next == null) break;
+                            batch.add(next);
+                        }
+                    }
+                }
+                queue.drainTo(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            for (Object item : batch) {
+                if (item == SHUTDOWN_MARKER) {
+                    running = false;
+                    force = true;
+                } else if (item == FLUSH_MARKER) {
+                    force = true;
+                } else {
+                    pending.add(item);
+                }
+            }
+            batch.clear();
+
+            boolean wrote = !pending.isEmpty();
+            if (commit(pending, force || policy != DurabilityPolicy.ON_SHUTDOWN)) {
+                force = false;
+                retryMillis = 0;
+                // La compattazione, se serve, avviene sul suo thread senza fermare i commit
+                if (wrote) FileManager.requestCompactionCheck();
+            } else {
+                retryMillis = Math.min(Math.max(RETRY_MILLIS, retryMillis * 2), MAX_RETRY_MILLIS);
+            }
+        }
+
+        // Alla chiusura si riprova ancora qualche volta, poi si segnala cosa è andato perso
+        for (int i = 0; i < SHUTDOWN_RETRIES && !pending.isEmpty(); i++) {
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            commit(pending, true);
+        }
+        if (!pending.isEmpty()) {
+            System.err.println("Tentativi non salvati alla chiusura: " + pending.size() + " record");
+        }
+    }
+
+    /**
+     * Scrive tentativi e cancellazioni sul log, nell'ordine di arrivo, e aggiorna metriche e sequenza.
+     * I tentativi consecutivi sono scritti insieme; il dato viene forzato su disco con l'ultima scrittura.
+     * Ogni scrittura è tutto-o-niente: i record scritti vengono tolti dalla lista, quelli rimasti
+     * (dal primo gruppo fallito in poi) restano per il commit successivo.
+     *
+     * @param records Tentativi e cancellazioni da scrivere; alla fine contiene solo quelli non scritti
+     * @param force   true per forzare i dati su disco
+     * @return true se tutti i record sono stati scritti (e forzati, se richiesto)
+     */
+    private boolean commit(List<Object> records, boolean force) {
+        long start = System.nanoTime();
+        int written = 0;
+        int attempts = 0;
+        IOException failure = null;
+        try {
+            if (records.isEmpty() && force) FileManager.appendAttempts(List.of(), true);
+            while (written < records.size()) {
+                Object record = records.get(written);
+                if (record instanceof Deletion deletion) {
+                    FileManager.appendTombstone(deletion.username, deletion.timestamp,
+                            force && written == records.size() - 1);
+                    written++;
+                } else {
+                    int end = written;
+                    List<Attempt> run = new ArrayList<>();
+                    while (end < records.size() && records.get(end) instanceof Attempt attempt) {
+                        run.add(attempt);
+                        end++;
+                    }
+                    FileManager.appendAttempts(run, force && end == records.size());
+                    attempts += run.size();
+                    written = end;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        long elapsed = System.nanoTime() - start;
+        records.subList(0, written).clear();
+
+        synchronized (this) {
+            committedSeq += written;
+            if (written > 0) {
+                commitCount++;
+                committedRecords += attempts;
+                totalCommitNanos += elapsed;
+                lastCommitNanos = elapsed;
+                maxCommitNanos = Math.max(maxCommitNanos, elapsed);
+            }
+            if (failure != null) failedCommits++;
+            notifyAll();
+        }
+        if (failure != null) {
+            System.err.println("Scrittura dei tentativi non riuscita (" + records.size()
+                    + " record in attesa, nuovo tentativo a breve): " + failure.getMessage());
+        }
+        return failure == null;
+    }
+
+    /**
+     * Attende che la sequenza dei record scritti raggiunga il valore indicato.
+     *
+     * @param target   Numero di sequenza da attendere
+     * @param failures Commit falliti al momento della richiesta
+     * @return true se raggiunto; false se nel frattempo un commit è fallito o lo scrittore si è fermato
+     */
+    private synchronized boolean awaitCommitted(long target, long failures) {
+        while (committedSeq < target) {
+            if (failedCommits != failures || !worker.isAlive()) return false;
+            try {
+                wait(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsMarker(List<Object> batch) {
+        Object last = batch.get(batch.size() - 1);
+        return last == FLUSH_MARKER || last == SHUTDOWN_MARKER;
+    }
+}
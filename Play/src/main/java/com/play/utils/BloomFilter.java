@@ -0,0 +1,71 @@
+package com.play.utils;
+
+/**
+ * Filtro di Bloom per stringhe: risponde "sicuramente assente" o "forse presente"
+ * senza falsi negativi, con una probabilità di falsi positivi fissata alla creazione.
+ *
+ * Le k posizioni di ogni chiave sono ricavate con doppio hashing da un hash a 64 bit (FNV-1a + mixing).
+ * Non è thread-safe: la sincronizzazione spetta al chiamante.
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions Numero di chiavi previste
+     * @param falsePositiveRate  Probabilità di falsi positivi desiderata (es. 0.01)
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        // Dimensionamento ottimo: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new long[(bitCount + 63) / 64];
+    }
+
+    /**
+     * @param key Chiave da aggiungere
+     */
+    public void add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @param key Chiave da cercare
+     * @return false se la chiave non è sicuramente mai stata aggiunta, true se potrebbe esserlo
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // Finalizzazione (murmur3 fmix64) per distribuire anche i bit alti
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
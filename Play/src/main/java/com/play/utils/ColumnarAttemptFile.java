@@ -0,0 +1,469 @@
+package com.play.utils;
+
+import com.play.model.Attempt;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Formato binario colonnare per i tentativi, letto tramite un {@link FileChannel} mappato in memoria.
+ *
+ * Struttura del file (big-endian):
+ * <pre>
+ * int   MAGIC, int VERSION, int count, int dictSize, long epoch
+ * int   markCount
+ * markCount × (int lunghezza, byte[] UTF-8, long)   segmenti di log inclusi e byte letti di ciascuno
+ * int   tombstoneCount
+ * tombstoneCount × (int lunghezza, byte[] UTF-8, long, int)  username → istante della cancellazione
+ *                                                   (secondi epoch UTC e nanosecondi, senza arrotondamenti)
+ * dictSize × (int lunghezza, byte[] UTF-8)          dizionario delle stringhe
+ * count × int                                       colonna username (id nel dizionario)
+ * count × int                                       colonna type
+ * count × int                                       colonna level
+ * count × int                                       colonna question
+ * count × int                                       colonna exerciseId
+ * ceil(count / 64) × long                           colonna correct (un bit per tentativo)
+ * int lunghezza, byte[]                             colonna timestamp: microsecondi epoch (UTC),
+ *                                                   delta rispetto al precedente in varint zigzag
+ * </pre>
+ * Le stringhe ripetute sono memorizzate una sola volta; un id pari a -1 indica un valore null.
+ * Un timestamp null è memorizzato come {@link Long#MIN_VALUE} microsecondi, fuori dall'intervallo
+ * di {@link LocalDateTime}; i file precedenti lo scrivevano come 0 (1970-01-01), che resta tale.
+ */
+public final class ColumnarAttemptFile {
+
+    private static final int MAGIC = 0x504C4143; // "PLAC"
+    private static final int VERSION = 4;
+    private static final int STRING_COLUMNS = 5;
+
+    // Microsecondi che rappresentano un timestamp null
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final long epoch;
+    private final Map<String, Long> watermarks;
+    private final Map<String, LocalDateTime> tombstones;
+    private final String[] dictionary;
+    private final Map<String, Integer> dictionaryIndex;
+    private final int columnsOffset;
+    private final int correctOffset;
+    private final int timestampOffset;
+
+    private ColumnarAttemptFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) throw new IOException("File colonnare non valido");
+        int version = buffer.getInt(4);
+        if (version < 1 || version > VERSION) throw new IOException("Versione del file colonnare non supportata");
+
+        this.count = buffer.getInt(8);
+        int dictSize = buffer.getInt(12);
+        // La versione 1 non aveva l'epoca (usata dagli snapshot)
+        this.epoch = version >= 2 ? buffer.getLong(16) : 0;
+
+        int pos = version >= 2 ? 24 : 16;
+        // Dalla versione 3: posizioni fino a cui lo snapshot include i segmenti di log
+        Map<String, Long> marks = new HashMap<>();
+        if (version >= 3) {
+            int markCount = buffer.getInt(pos);
+            pos += 4;
+            for (int i = 0; i < markCount; i++) {
+                int len = buffer.getInt(pos);
+                byte[] bytes = new byte[len];
+                buffer.get(pos + 4, bytes);
+                marks.put(new String(bytes, StandardCharsets.UTF_8), buffer.getLong(pos + 4 + len));
+                pos += 4 + len + 8;
+            }
+        }
+        this.watermarks = Collections.unmodifiableMap(marks);
+
+        // Dalla versione 4: tombstone già applicati, da applicare anche ai segmenti oltre le posizioni incluse
+        Map<String, LocalDateTime> deleted = new HashMap<>();
+        if (version >= 4) {
+            int tombstoneCount = buffer.getInt(pos);
+            pos += 4;
+            for (int i = 0; i < tombstoneCount; i++) {
+                int len = buffer.getInt(pos);
+                byte[] bytes = new byte[len];
+                buffer.get(pos + 4, bytes);
+                LocalDateTime until = LocalDateTime.ofEpochSecond(buffer.getLong(pos + 4 + len),
+                        buffer.getInt(pos + 4 + len + 8), ZoneOffset.UTC);
+                deleted.put(new String(bytes, StandardCharsets.UTF_8), until);
+                pos += 4 + len + 8 + 4;
+            }
+        }
+        this.tombstones = Collections.unmodifiableMap(deleted);
+
+        // Il dizionario viene decodificato una volta sola: le stringhe restituite sono condivise
+        this.dictionary = new String[dictSize];
+        this.dictionaryIndex = new HashMap<>(dictSize * 2);
+        for (int i = 0; i < dictSize; i++) {
+            int len = buffer.getInt(pos);
+            byte[] bytes = new byte[len];
+            buffer.get(pos + 4, bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            dictionaryIndex.put(dictionary[i], i);
+            pos += 4 + len;
+        }
+
+        this.columnsOffset = pos;
+        this.correctOffset = columnsOffset + STRING_COLUMNS * count * Integer.BYTES;
+        this.timestampOffset = correctOffset + ((count + 63) / 64) * Long.BYTES;
+    }
+
+    // ==============================================================
+    // ========================  SCRITTURA ==========================
+    // ==============================================================
+
+    /**
+     * Scrive i tentativi in formato colonnare. Il file viene prima scritto su un temporaneo
+     * e poi spostato atomicamente sul percorso finale.
+     *
+     * @param attempts Tentativi da scrivere
+     * @param path     Percorso del file di destinazione
+     * @throws IOException In caso di errore di scrittura
+     */
+    public static void write(List<Attempt> attempts, Path path) throws IOException {
+        write(attempts, path, 0);
+    }
+
+    /**
+     * Scrive i tentativi in formato colonnare indicando l'epoca (usata dagli snapshot).
+     *
+     * @param attempts Tentativi da scrivere
+     * @param path     Percorso del file di destinazione
+     * @param epoch    Epoca registrata nell'intestazione
+     * @throws IOException In caso di errore di scrittura
+     */
+    public static void write(List<Attempt> attempts, Path path, long epoch) throws IOException {
+        write(attempts, path, epoch, Map.of());
+    }
+
+    /**
+     * Scrive uno snapshot dei tentativi con l'epoca e le posizioni dei segmenti di log che include.
+     *
+     * @param attempts   Tentativi da scrivere
+     * @param path       Percorso del file di destinazione
+     * @param epoch      Epoca registrata nell'intestazione
+     * @param watermarks Nome del segmento → byte del segmento già inclusi nello snapshot
+     * @throws IOException In caso di errore di scrittura
+     */
+    public static void write(List<Attempt> attempts, Path path, long epoch, Map<String, Long> watermarks)
+            throws IOException {
+        write(attempts, path, epoch, watermarks, Map.of());
+    }
+
+    /**
+     * Scrive uno snapshot dei tentativi con epoca, posizioni dei segmenti inclusi e tombstone già applicati.
+     * I tombstone restano nell'intestazione perché valgono anche per i record dei segmenti non ancora inclusi
+     * (es. scritti da una postazione con l'orologio indietro).
+     *
+     * @param attempts   Tentativi da scrivere
+     * @param path       Percorso del file di destinazione
+     * @param epoch      Epoca registrata nell'intestazione
+     * @param watermarks Nome del segmento → byte del segmento già inclusi nello snapshot
+     * @param tombstones Username → istante fino a cui i suoi tentativi sono cancellati
+     * @throws IOException In caso di errore di scrittura
+     */
+    public static void write(List<Attempt> attempts, Path path, long epoch, Map<String, Long> watermarks,
+                             Map<String, LocalDateTime> tombstones) throws IOException {
+        int n = attempts.size();
+        Map<String, Integer> dict = new LinkedHashMap<>();
+        int[][] columns = new int[STRING_COLUMNS][n];
+        long[] correctBits = new long[(n + 63) / 64];
+        ByteArrayOutputStream timestamps = new ByteArrayOutputStream(n * 2);
+
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            Attempt a = attempts.get(i);
+            columns[0][i] = encode(dict, a.getUsername());
+            columns[1][i] = encode(dict, a.getType());
+            columns[2][i] = encode(dict, a.getLevel());
+            columns[3][i] = encode(dict, a.getQuestion());
+            columns[4][i] = encode(dict, a.getExerciseId());
+            if (a.isCorrect()) correctBits[i >>> 6] |= 1L << (i & 63);
+
+            long micros = toEpochMicros(a.getTimestamp());
+            writeVarLong(timestamps, zigZag(micros - previous));
+            previous = micros;
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(dict.size());
+            out.writeLong(epoch);
+            out.writeInt(watermarks.size());
+            for (Map.Entry<String, Long> mark : watermarks.entrySet()) {
+                byte[] bytes = mark.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeLong(mark.getValue());
+            }
+            out.writeInt(tombstones.size());
+            for (Map.Entry<String, LocalDateTime> tombstone : tombstones.entrySet()) {
+                byte[] bytes = tombstone.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeLong(tombstone.getValue().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(tombstone.getValue().getNano());
+            }
+            for (String value : dict.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            for (int[] column : columns) {
+                for (int id : column) out.writeInt(id);
+            }
+            for (long bits : correctBits) out.writeLong(bits);
+            out.writeInt(timestamps.size());
+            timestamps.writeTo(out);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int encode(Map<String, Integer> dict, String value) {
+        if (value == null) return -1;
+        return dict.computeIfAbsent(value, k -> dict.size());
+    }
+
+    // ==============================================================
+    // =========================  LETTURA ===========================
+    // ==============================================================
+
+    /**
+     * Apre un file colonnare mappandolo in memoria in sola lettura.
+     *
+     * @param path Percorso del file
+     * @return File aperto
+     * @throws IOException Se il file non esiste o non è valido
+     */
+    public static ColumnarAttemptFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // La mappatura resta valida anche dopo la chiusura del canale
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ColumnarAttemptFile(mapped);
+        }
+    }
+
+    /**
+     * Legge solo l'epoca dall'intestazione, senza mappare il file.
+     *
+     * @param path Percorso del file
+     * @return Epoca del file (0 se assente o non leggibile)
+     */
+    public static long readEpoch(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64))) {
+            if (in.readInt() != MAGIC) return 0;
+            int version = in.readInt();
+            in.readInt();
+            in.readInt();
+            return version >= 2 ? in.readLong() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Legge solo le posizioni dei segmenti di log inclusi, senza mappare il file né decodificare il dizionario.
+     *
+     * @param path Percorso del file
+     * @return Nome del segmento → byte inclusi (vuota se il file è assente, non leggibile o di versione precedente)
+     */
+    public static Map<String, Long> readWatermarks(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 4096))) {
+            if (in.readInt() != MAGIC || in.readInt() < 3) return Map.of();
+            in.skipNBytes(16);
+            int markCount = in.readInt();
+            Map<String, Long> marks = new HashMap<>();
+            for (int i = 0; i < markCount; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                marks.put(new String(bytes, StandardCharsets.UTF_8), in.readLong());
+            }
+            return marks;
+        } catch (IOException e) {
+            return Map.of();
+        }
+    }
+
+    /** @return Numero di tentativi contenuti nel file */
+    public int size() { return count; }
+
+    /** @return Epoca registrata nell'intestazione (0 se non indicata) */
+    public long getEpoch() { return epoch; }
+
+    /** @return Nome del segmento di log → byte inclusi nello snapshot (vuota se non indicata) */
+    public Map<String, Long> getWatermarks() { return watermarks; }
+
+    /** @return Username → istante fino a cui i suoi tentativi sono cancellati (vuota se non indicata) */
+    public Map<String, LocalDateTime> getTombstones() { return tombstones; }
+
+    /** @return Numero di stringhe distinte nel dizionario */
+    public int dictionarySize() { return dictionary.length; }
+
+    /**
+     * @param value Stringa da cercare
+     * @return Id della stringa nel dizionario, oppure -1 se non presente
+     */
+    public int dictionaryId(String value) {
+        Integer id = dictionaryIndex.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id Id nel dizionario (-1 per null)
+     * @return Stringa condivisa corrispondente all'id
+     */
+    public String dictionaryString(int id) {
+        return id < 0 ? null : dictionary[id];
+    }
+
+    /**
+     * Scorre tutti i tentativi in ordine, senza creare oggetti {@link Attempt}.
+     * Il cursore passato al visitatore è riutilizzato ad ogni riga.
+     *
+     * @param visitor Visitatore chiamato per ogni riga
+     */
+    public void scan(Consumer<Cursor> visitor) {
+        Cursor cursor = new Cursor();
+        ByteBuffer ts = buffer.duplicate();
+        ts.position(timestampOffset + Integer.BYTES);
+
+        long micros = 0;
+        for (int row = 0; row < count; row++) {
+            micros += unZigZag(readVarLong(ts));
+            cursor.row = row;
+            cursor.timestampMicros = micros;
+            visitor.accept(cursor);
+        }
+    }
+
+    /**
+     * Ricostruisce tutti i tentativi del file come oggetti {@link Attempt}.
+     *
+     * @return Lista dei tentativi
+     */
+    public List<Attempt> readAll() {
+        List<Attempt> attempts = new ArrayList<>(count);
+        scan(c -> attempts.add(c.toAttempt()));
+        return attempts;
+    }
+
+    private int column(int column, int row) {
+        return buffer.getInt(columnsOffset + (column * count + row) * Integer.BYTES);
+    }
+
+    /**
+     * Cursore su una riga del file colonnare.
+     * Le stringhe restituite provengono dal dizionario e sono condivise tra le righe.
+     */
+    public final class Cursor {
+        private int row;
+        private long timestampMicros;
+
+        private Cursor() {}
+
+        /** @return Indice della riga corrente */
+        public int row() { return row; }
+
+        /** @return Id nel dizionario dell'username */
+        public int usernameId() { return column(0, row); }
+
+        /** @return Id nel dizionario del tipo */
+        public int typeId() { return column(1, row); }
+
+        /** @return Id nel dizionario del livello */
+        public int levelId() { return column(2, row); }
+
+        /** @return Id nel dizionario della domanda */
+        public int questionId() { return column(3, row); }
+
+        /** @return Id nel dizionario dell'esercizio */
+        public int exerciseIdId() { return column(4, row); }
+
+        public String username() { return dictionaryString(usernameId()); }
+
+        public String type() { return dictionaryString(typeId()); }
+
+        public String level() { return dictionaryString(levelId()); }
+
+        public String question() { return dictionaryString(questionId()); }
+
+        public String exerciseId() { return dictionaryString(exerciseIdId()); }
+
+        /** @return true se il tentativo è corretto (lettura del bit nella colonna correct) */
+        public boolean isCorrect() {
+            long bits = buffer.getLong(correctOffset + (row >>> 6) * Long.BYTES);
+            return (bits & (1L << (row & 63))) != 0;
+        }
+
+        /** @return Timestamp in microsecondi dall'epoch (UTC); {@link Long#MIN_VALUE} se il tentativo non lo ha */
+        public long timestampMicros() { return timestampMicros; }
+
+        /** @return true se il tentativo ha un timestamp */
+        public boolean hasTimestamp() { return timestampMicros != NULL_TIMESTAMP; }
+
+        /** @return Timestamp del tentativo, oppure null se non lo ha */
+        public LocalDateTime timestamp() { return hasTimestamp() ? fromEpochMicros(timestampMicros) : null; }
+
+        /** @return Nuovo oggetto {@link Attempt} con i valori della riga corrente */
+        public Attempt toAttempt() {
+            return new Attempt(username(), type(), level(), question(), isCorrect(), exerciseId(), timestamp());
+        }
+    }
+
+    // ==============================================================
+    // =========================  CODIFICA ==========================
+    // ==============================================================
+
+    static long toEpochMicros(LocalDateTime dateTime) {
+        if (dateTime == null) return NULL_TIMESTAMP;
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+        long seconds = Math.floorDiv(micros, 1_000_000L);
+        int nanos = (int) Math.floorMod(micros, 1_000_000L) * 1_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -2,15 +2,21 @@ package com.play.utils;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import com.play.model.*;
+import com.play.service.ExerciseCatalog;
+import com.play.service.UserRegistry;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class per la gestione dei file dell'applicazione.
@@ -19,94 +25,73 @@ import java.util.*;
  */
 public class FileManager {
 
-    private static final String ATTEMPTS_PATH = "src/main/resources/data/attempts.json";
-    private static final String USERS_PATH = "src/main/resources/data/users.json";
+    // Cartella dei dati utente, configurabile per lavorare su dataset generati (vedi DatasetGenerator)
+    private static final String DATA_DIR = System.getProperty("play.dataDir", "src/main/resources/data");
+    private static final String USERS_PATH = DATA_DIR + "/users.json";
+    private static final String USERS_LOG_PATH = DATA_DIR + "/users.jsonl";
 
     private static final Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter()) // Gestione date custom
             .setPrettyPrinting()
             .create();
 
+    // Gson compatto (un record per riga) per il file degli utenti
+    private static final Gson lineGson = new GsonBuilder().disableHtmlEscaping().create();
+
+    // Serializza lettura, migrazione e scrittura del file degli utenti
+    private static final Object USERS_LOCK = new Object();
+
+    // Snapshot + log append-only dei tentativi
+    private static final AttemptLog attemptLog = new AttemptLog(Paths.get(DATA_DIR));
+
+    // Dimensione del log oltre la quale il thread di compattazione compatta i tentativi
+    private static final long COMPACT_THRESHOLD_BYTES = Long.getLong("play.attempts.compactBytes", 8L * 1024 * 1024);
+
+    // Intervallo minimo tra due misure della dimensione del log (che elenca e legge tutti i segmenti)
+    private static final long COMPACT_CHECK_NANOS =
+            TimeUnit.SECONDS.toNanos(Long.getLong("play.attempts.compactCheckSeconds", 60));
+
+    // Ultima misura del log e byte scritti da questo processo fino a quel momento
+    private static final Object COMPACT_CHECK_LOCK = new Object();
+    private static long measuredLogBytes;
+    private static long appendedAtMeasure;
+    private static long measuredAtNanos;
+    private static boolean measured;
+
+    // Thread di compattazione, avviato alla prima richiesta, e richiesta di controllo in attesa
+    private static final Object COMPACTOR_LOCK = new Object();
+    private static Thread compactor;
+    private static boolean compactionRequested;
+
+    /**
+     * @return Cartella dei dati utente (proprietà {@code play.dataDir}, default src/main/resources/data)
+     */
+    public static Path dataDir() {
+        return Paths.get(DATA_DIR);
+    }
+
     // ==============================================================
     // ==================  GESTIONE ESERCIZI ========================
     // ==============================================================
 
     /**
-     * Carica esercizi da file JSON in base al tipo.
+     * Restituisce gli esercizi di un tipo dal catalogo condiviso.
      *
      * @param type Tipo di esercizio (es: output, completa, correggiErrore, trovaErrore)
      * @return Lista di esercizi del tipo specificato
+     * @throws IllegalArgumentException Se il tipo non è valido
      */
     public static List<Exercise> loadExercisesFromType(String type) {
-        String filePath;
-        switch (type) {
-            case "trovaErrore":
-                filePath = "src/main/resources/data/es1_trovaCorretto.json";
-                break;
-            case "output":
-                filePath = "src/main/resources/data/es2_output.json";
-                break;
-            case "completa":
-                filePath = "src/main/resources/data/es3_completa.json";
-                break;
-            case "correggiErrore":
-                filePath = "src/main/resources/data/es4_correggiErrore.json";
-                break;
-            default:
-                throw new IllegalArgumentException("Tipo esercizio non valido: " + type);
-        }
-        return loadJsonExercises(filePath);
-    }
-
-    /**
-     * Metodo privato di supporto per caricare un file JSON contenente esercizi.
-     *
-     * @param path Percorso del file JSON
-     * @return Lista di esercizi letti dal file
-     */
-    private static List<Exercise> loadJsonExercises(String path) {
-        try (Reader reader = Files.newBufferedReader(Paths.get(path))) {
-            Type listType = new TypeToken<List<Exercise>>() {}.getType();
-            return gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            System.err.println("Errore durante il caricamento esercizi da: " + path);
-            e.printStackTrace();
-            return new ArrayList<>();
-        }
+        return ExerciseCatalog.getInstance().getByType(type);
     }
 
     /**
-     * Carica tutti gli esercizi disponibili da tutti i file conosciuti.
+     * Restituisce tutti gli esercizi disponibili dal catalogo condiviso.
      *
      * @return Lista completa di tutti gli esercizi
      */
     public static List<Exercise> loadExercises() {
-        List<Exercise> allExercises = new ArrayList<>();
-
-        String[] filenames = {
-                "es1_trovaCorretto.json",
-                "es2_output.json",
-                "es3_completa.json",
-                "es4_correggiErrore.json"
-        };
-
-        for (String filename : filenames) {
-            try (InputStream is = FileManager.class.getResourceAsStream("/data/" + filename)) {
-                if (is != null) {
-                    Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8);
-                    Type listType = new TypeToken<List<Exercise>>() {}.getType();
-                    List<Exercise> exercises = gson.fromJson(reader, listType);
-                    if (exercises != null) {
-                        allExercises.addAll(exercises);
-                    }
-                }
-            } catch (IOException e) {
-                System.err.println("Errore nel file: " + filename);
-                e.printStackTrace();
-            }
-        }
-
-        return allExercises;
+        return ExerciseCatalog.getInstance().getAll();
     }
 
     // ==============================================================
@@ -114,31 +99,140 @@ public class FileManager {
     // ==============================================================
 
     /**
-     * Salva un tentativo effettuato da un utente aggiungendolo al file JSON.
+     * Salva un tentativo effettuato da un utente accodandolo al log dei tentativi.
+     * Il log contiene un record JSON per riga: il salvataggio è una singola append,
+     * senza rileggere né riscrivere lo storico.
+     * Scrittura sincrona: dall'interfaccia usare {@link AttemptWriter}.
      *
      * @param attempt Oggetto Attempt da salvare
+     * @throws IOException Se il tentativo non è stato scritto
      */
-    public static void saveAttempt(Attempt attempt) {
-        List<Attempt> attempts = loadAttempts();
-        attempts.add(attempt);
-        try (Writer writer = Files.newBufferedWriter(Paths.get(ATTEMPTS_PATH))) {
-            gson.toJson(attempts, writer);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public static void saveAttempt(Attempt attempt) throws IOException {
+        appendAttempts(List.of(attempt), false);
     }
 
     /**
-     * Carica tutti i tentativi registrati nel file.
+     * Accoda un gruppo di tentativi al log con un'unica scrittura (group commit).
+     *
+     * @param attempts Tentativi da salvare
+     * @param force    true per forzare i dati su disco prima di ritornare
+     * @throws IOException Se la scrittura non riesce (nessun tentativo del gruppo è stato scritto)
+     */
+    static void appendAttempts(List<Attempt> attempts, boolean force) throws IOException {
+        attemptLog.append(attempts, force);
+    }
+
+    /**
+     * Carica tutti i tentativi registrati: l'ultimo snapshot più i record del log successivi.
      *
      * @return Lista dei tentativi effettuati dagli utenti
      */
     public static List<Attempt> loadAttempts() {
-        try (Reader reader = Files.newBufferedReader(Paths.get(ATTEMPTS_PATH))) {
-            Type listType = new TypeToken<List<Attempt>>() {}.getType();
-            return gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            return new ArrayList<>();
+        // I tentativi ancora in coda nello scrittore asincrono devono essere visibili
+        if (!AttemptWriter.awaitPending()) {
+            System.err.println("Alcuni tentativi non sono ancora stati scritti sul log: la lettura non li include");
+        }
+        return attemptLog.loadAll();
+    }
+
+    /**
+     * Attiva la raccolta delle novità del log per {@link #pollAttemptChanges()}.
+     * Da chiamare prima di {@link #loadAttempts()}, così nessun tentativo cade tra le due letture.
+     */
+    public static void trackAttemptChanges() {
+        attemptLog.trackChanges();
+    }
+
+    /**
+     * @return Tentativi e tombstone comparsi nel log dall'ultima chiamata, anche quelli scritti dalle altre postazioni
+     */
+    public static AttemptLog.Changes pollAttemptChanges() {
+        return attemptLog.pollChanges();
+    }
+
+    /**
+     * Cancella i tentativi di un utente registrati fino all'istante indicato accodando un tombstone al log,
+     * senza riscrivere lo storico. I tentativi spariscono definitivamente alla prossima compattazione.
+     * Dall'applicazione passare da {@link AttemptWriter#submitDeletion(String)}.
+     *
+     * @param username  Utente di cui cancellare i tentativi
+     * @param timestamp Istante della cancellazione
+     * @param force     true per forzare i dati su disco prima di ritornare
+     * @throws IOException Se la scrittura non riesce
+     */
+    static void appendTombstone(String username, LocalDateTime timestamp, boolean force) throws IOException {
+        attemptLog.appendTombstone(username, timestamp, force);
+    }
+
+    /**
+     * Compatta la persistenza dei tentativi: nuovo snapshot e log ripartito da zero.
+     */
+    public static void compactAttempts() {
+        attemptLog.compact();
+    }
+
+    /**
+     * Compatta la persistenza dei tentativi se il log ha superato la soglia configurata
+     * ({@code play.attempts.compactBytes}, default 8 MB).
+     *
+     * Il log viene misurato su disco solo quando l'ultima misura più i byte scritti da questo processo
+     * superano la soglia, oppure ogni {@code play.attempts.compactCheckSeconds} secondi (default 60)
+     * per accorgersi anche di quanto scritto dalle altre postazioni: sulle cartelle di rete elencare
+     * e interrogare tutti i segmenti ad ogni scrittura costa molto più della scrittura stessa.
+     */
+    static void compactAttemptsIfNeeded() {
+        synchronized (COMPACT_CHECK_LOCK) {
+            long appended = attemptLog.appendedBytes();
+            long now = System.nanoTime();
+            boolean overThreshold = measuredLogBytes + (appended - appendedAtMeasure) > COMPACT_THRESHOLD_BYTES;
+            if (measured && !overThreshold && now - measuredAtNanos < COMPACT_CHECK_NANOS) return;
+
+            long size = attemptLog.logSize();
+            if (size > COMPACT_THRESHOLD_BYTES) {
+                attemptLog.compact();
+                size = 0;   // Tutti i segmenti sono ora inclusi nello snapshot
+            }
+            measuredLogBytes = size;
+            appendedAtMeasure = appended;
+            measuredAtNanos = now;
+            measured = true;
+        }
+    }
+
+    /**
+     * Chiede un controllo della dimensione del log al thread di compattazione, avviandolo se serve.
+     * Non blocca il chiamante (lo scrittore dei tentativi): misura e compattazione avvengono sul thread
+     * dedicato, che controlla comunque ogni {@code play.attempts.compactCheckSeconds} secondi
+     * anche senza richieste, per le scritture delle altre postazioni.
+     */
+    static void requestCompactionCheck() {
+        synchronized (COMPACTOR_LOCK) {
+            compactionRequested = true;
+            if (compactor == null) {
+                compactor = new Thread(FileManager::runCompactor, "attempt-compact");
+                compactor.setDaemon(true);
+                compactor.start();
+            }
+            COMPACTOR_LOCK.notifyAll();
+        }
+    }
+
+    private static void runCompactor() {
+        long waitMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(COMPACT_CHECK_NANOS));
+        while (true) {
+            synchronized (COMPACTOR_LOCK) {
+                try {
+                    if (!compactionRequested) COMPACTOR_LOCK.wait(waitMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                compactionRequested = false;
+            }
+            try {
+                compactAttemptsIfNeeded();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
         }
     }
 
@@ -147,48 +241,86 @@ public class FileManager {
     // ==============================================================
 
     /**
-     * Carica tutti gli utenti registrati nel sistema.
+     * Carica tutti gli utenti registrati nel sistema dal file degli utenti (un record JSON per riga).
+     * Al primo avvio il vecchio users.json viene convertito nel nuovo formato (e lasciato intatto).
+     * Per le ricerche usare {@link UserRegistry}, che li legge una sola volta.
      *
-     * @return Lista di utenti
+     * @return Lista di utenti, in ordine di registrazione
      */
     public static List<User> loadUsers() {
-        try (Reader reader = Files.newBufferedReader(Paths.get(USERS_PATH))) {
-            Type listType = new TypeToken<List<User>>() {}.getType();
-            return gson.fromJson(reader, listType);
-        } catch (IOException e) {
-            return new ArrayList<>();
+        synchronized (USERS_LOCK) {
+            migrateLegacyUsers();
+            List<User> users = new ArrayList<>();
+            Path path = Paths.get(USERS_LOG_PATH);
+            if (!Files.exists(path)) return users;
+
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    try {
+                        users.add(lineGson.fromJson(line, User.class));
+                    } catch (JsonParseException e) {
+                        // Riga incompleta (es. scrittura interrotta): viene ignorata
+                        System.err.println("Utente non leggibile ignorato: " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return users;
         }
     }
 
     /**
-     * Salva un nuovo utente nel file JSON, evitando duplicati.
+     * Accoda un nuovo utente al file degli utenti, senza rileggerlo né riscriverlo.
+     * Non controlla i duplicati: le registrazioni passano da {@link UserRegistry#register(User)}.
+     * Se il file non termina con una riga completa (scrittura interrotta, anche di un'altra postazione)
+     * il record viene scritto su una riga nuova: il frammento resta isolato e viene ignorato in lettura.
      *
-     * @param user Nuovo utente da registrare
+     * @param user Utente da salvare
+     * @throws IOException Se l'utente non è stato scritto
      */
-    public static void saveUser(User user) {
-        List<User> users = loadUsers();
-
-        boolean alreadyExists = users.stream()
-                .anyMatch(u -> u.getUsername().equalsIgnoreCase(user.getUsername()));
-
-        if (alreadyExists) {
-            System.out.println("⚠️ Username già esistente: " + user.getUsername());
-            return;
+    public static void appendUser(User user) throws IOException {
+        byte[] line = (lineGson.toJson(user) + '\n').getBytes(StandardCharsets.UTF_8);
+        synchronized (USERS_LOCK) {
+            migrateLegacyUsers();
+            Path path = Paths.get(USERS_LOG_PATH);
+            Files.createDirectories(path.getParent());
+            boolean torn = endsWithPartialLine(path);
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.allocate(line.length + (torn ? 1 : 0));
+                if (torn) buffer.put((byte) '\n');
+                buffer.put(line).flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
         }
+    }
 
-        users.add(user);
-        Path path = Paths.get(USERS_PATH);
+    // true se il file esiste e il suo ultimo byte non è un terminatore di riga
+    private static boolean endsWithPartialLine(Path path) throws IOException {
+        if (!Files.exists(path)) return false;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer last = ByteBuffer.allocate(1);
+            return size > 0 && channel.read(last, size - 1) == 1 && last.get(0) != '\n';
+        }
+    }
 
+    /**
+     * Registra un nuovo utente, evitando duplicati.
+     *
+     * @param user Nuovo utente da registrare
+     */
+    public static void saveUser(User user) {
         try {
-            Files.createDirectories(path.getParent());
-            if (!Files.exists(path)) {
-                Files.createFile(path);
-            }
-
-            try (Writer writer = Files.newBufferedWriter(path)) {
-                gson.toJson(users, writer);
+            if (!UserRegistry.getInstance().register(user)) {
+                System.out.println("⚠️ Username già esistente: " + user.getUsername());
             }
-
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -202,12 +334,7 @@ public class FileManager {
      * @return Optional contenente l'utente autenticato, se valido
      */
     public static Optional<User> authenticate(String username, String password) {
-        if (username == null || password == null) return Optional.empty();
-
-        return loadUsers().stream()
-                .filter(u -> u.getUsername().trim().equals(username.trim()))
-                .filter(u -> u.getPassword().trim().equals(password.trim()))
-                .findFirst();
+        return UserRegistry.getInstance().authenticate(username, password);
     }
 
     /**
@@ -217,10 +344,42 @@ public class FileManager {
      * @return Nome completo o stringa "Utente Sconosciuto" se non trovato
      */
     public static String getUserFullName(String username) {
-        return loadUsers().stream()
-                .filter(u -> u.getUsername().equalsIgnoreCase(username))
-                .findFirst()
+        return UserRegistry.getInstance().find(username)
                 .map(u -> u.getName() + " " + u.getSurname())
                 .orElse("Utente Sconosciuto");
     }
+
+    /**
+     * Converte il vecchio users.json (array JSON riscritto ad ogni registrazione) nel file
+     * a righe, se quest'ultimo non esiste ancora.
+     */
+    private static void migrateLegacyUsers() {
+        Path legacy = Paths.get(USERS_PATH);
+        Path log = Paths.get(USERS_LOG_PATH);
+        if (Files.exists(log) || !Files.exists(legacy)) return;
+
+        List<User> users;
+        try (Reader reader = Files.newBufferedReader(legacy)) {
+            Type listType = new TypeToken<List<User>>() {}.getType();
+            users = gson.fromJson(reader, listType);
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Migrazione utenti non riuscita: " + e.getMessage());
+            return;
+        }
+
+        Path tmp = log.resolveSibling(log.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                if (users != null) {
+                    for (User user : users) {
+                        writer.write(lineGson.toJson(user));
+                        writer.write('\n');
+                    }
+                }
+            }
+            Files.move(tmp, log, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package com.play.utils;
+
+import com.play.model.Exercise;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Cache limitata (LRU) dei risultati di {@link SyntaxHighlighter#computeHighlighting(String)}.
+ * La chiave è l'ID dell'esercizio più lo SHA-256 del codice, così che un esercizio modificato
+ * non riusi evidenziazioni obsolete (e due frammenti diversi non condividano mai la stessa voce).
+ *
+ * Il contenuto viene salvato su disco alla chiusura e ricaricato all'avvio successivo:
+ * gli stessi frammenti non vengono rievidenziati ad ogni sessione.
+ * Il file è scartato se prodotto da una versione diversa dell'evidenziatore.
+ */
+public class HighlightCache {
+
+    private static final String CACHE_FILE = "highlight.cache";
+    private static final int MAGIC = 0x504C4843; // "PLHC"
+    // Versione 2: chiavi con SHA-256 del codice (la 1 usava String.hashCode, soggetto a collisioni)
+    private static final int FORMAT_VERSION = 2;
+
+    // Numero massimo di frammenti in cache
+    private static final int MAX_ENTRIES = Integer.getInteger("play.highlight.cacheSize", 256);
+
+    private static HighlightCache instance;
+
+    private final Path path;
+    private final Map<String, StyleSpans<Collection<String>>> entries;
+    private boolean dirty;
+
+    /**
+     * @param path       File di persistenza della cache
+     * @param maxEntries Numero massimo di frammenti mantenuti
+     */
+    HighlightCache(Path path, int maxEntries) {
+        this.path = path;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StyleSpans<Collection<String>>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        load();
+    }
+
+    /**
+     * Restituisce la cache condivisa, caricandola da disco al primo accesso.
+     *
+     * @return Istanza condivisa
+     */
+    public static synchronized HighlightCache getInstance() {
+        if (instance == null) {
+            instance = new HighlightCache(FileManager.dataDir().resolve(CACHE_FILE), MAX_ENTRIES);
+        }
+        return instance;
+    }
+
+    // ==============================================================
+    // =========================  ACCESSO ===========================
+    // ==============================================================
+
+    /**
+     * Restituisce l'evidenziazione del codice di un esercizio, calcolandola se assente.
+     *
+     * @param exerciseId ID dell'esercizio
+     * @param code       Codice da evidenziare
+     * @return Stili calcolati per il codice
+     */
+    public StyleSpans<Collection<String>> get(String exerciseId, String code) {
+        String key = key(exerciseId, code);
+        synchronized (this) {
+            StyleSpans<Collection<String>> cached = entries.get(key);
+            if (cached != null) return cached;
+        }
+
+        // Calcolo fuori dal lock: più thread possono evidenziare frammenti diversi in parallelo
+        StyleSpans<Collection<String>> spans = SyntaxHighlighter.computeHighlighting(code);
+        synchronized (this) {
+            entries.put(key, spans);
+            dirty = true;
+        }
+        return spans;
+    }
+
+    /**
+     * Avvia in background l'evidenziazione degli esercizi indicati (es. le domande di una sessione appena scelta),
+     * così che la vista esercizi li trovi già in cache.
+     *
+     * @param exercises Esercizi da preparare, nell'ordine in cui verranno mostrati
+     */
+    public void precompute(List<Exercise> exercises) {
+        List<Exercise> snapshot = List.copyOf(exercises);
+        Thread.ofVirtual().name("highlight-precompute").start(() -> {
+            for (Exercise e : snapshot) {
+                if (e.getCode() instanceof String && !((String) e.getCode()).trim().isEmpty()) {
+                    get(e.getId(), (String) e.getCode());
+                }
+            }
+        });
+    }
+
+    /** @return Numero di frammenti in cache */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static String key(String exerciseId, String code) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8));
+            return exerciseId + "#" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 è garantito da ogni JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ==============================================================
+    // ======================  PERSISTENZA ==========================
+    // ==============================================================
+
+    /**
+     * Salva la cache su disco se modificata dall'ultimo salvataggio.
+     * Scrive su un file temporaneo e lo sostituisce atomicamente.
+     */
+    public synchronized void save() {
+        if (!dirty) return;
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(SyntaxHighlighter.VERSION);
+                out.writeInt(entries.size());
+                // Dal meno al più recente: ricaricando nello stesso ordine si conserva l'ordine LRU
+                for (Map.Entry<String, StyleSpans<Collection<String>>> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().getSpanCount());
+                    for (StyleSpan<Collection<String>> span : entry.getValue()) {
+                        out.writeInt(span.getLength());
+                        out.writeByte(span.getStyle().size());
+                        for (String style : span.getStyle()) out.writeUTF(style);
+                    }
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("Errore nel salvataggio della cache di evidenziazione: " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(path)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return;
+            if (in.readInt() != SyntaxHighlighter.VERSION) return;   // evidenziatore cambiato: cache obsoleta
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                int spanCount = in.readInt();
+                StyleSpansBuilder<Collection<String>> builder = new StyleSpansBuilder<>(spanCount);
+                for (int s = 0; s < spanCount; s++) {
+                    int length = in.readInt();
+                    int styleCount = in.readByte();
+                    Collection<String> styles = styleCount == 0 ? Collections.emptyList()
+                            : styleCount == 1 ? Collections.singleton(in.readUTF()) : readStyles(in, styleCount);
+                    builder.add(styles, length);
+                }
+                entries.put(key, builder.create());
+            }
+        } catch (IOException e) {
+            System.err.println("Cache di evidenziazione non leggibile, verrà ricostruita: " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    private static Collection<String> readStyles(DataInputStream in, int count) throws IOException {
+        List<String> styles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) styles.add(in.readUTF());
+        return styles;
+    }
+}
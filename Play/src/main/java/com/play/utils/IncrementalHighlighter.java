@@ -0,0 +1,252 @@
+package com.play.utils;
+
+import javafx.application.Platform;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.model.PlainTextChange;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.TwoDimensional;
+import org.reactfx.Subscription;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evidenziazione incrementale di una {@link CodeArea} modificabile.
+ *
+ * Per ogni paragrafo viene ricordato lo stato del lexer alla sua fine
+ * (vedi {@link SyntaxHighlighter#lex}). Ad ogni modifica si segnano come da rianalizzare
+ * solo i paragrafi toccati; a fine digitazione (debounce) questi vengono rianalizzati
+ * su un thread virtuale e gli stili applicati sul thread dell'interfaccia.
+ * Se lo stato finale di un paragrafo cambia (es. apertura di un commento a blocco),
+ * l'analisi prosegue sui paragrafi successivi a blocchi, finché lo stato non si stabilizza.
+ *
+ * Tutti i metodi pubblici vanno chiamati sul thread dell'interfaccia.
+ */
+public class IncrementalHighlighter {
+
+    // Attesa dopo l'ultima modifica prima di rianalizzare
+    private static final Duration DEBOUNCE = Duration.ofMillis(80);
+
+    // Numero massimo di paragrafi rianalizzati per ciclo
+    private static final int CHUNK = 500;
+
+    private static final int UNKNOWN = -1;
+
+    private final CodeArea area;
+    private final Subscription subscription;
+
+    // Stato del lexer alla fine di ciascun paragrafo (UNKNOWN se da ricalcolare)
+    private int[] endStates = new int[16];
+    private int paragraphs;
+
+    // Intervallo [dirtyFrom, dirtyTo] di paragrafi da rianalizzare (dirtyFrom = -1 se nessuno)
+    private int dirtyFrom = -1;
+    private int dirtyTo = -1;
+
+    // Intervallo in corso di analisi in background (inFlightFrom = -1 se nessuno)
+    private int inFlightFrom = -1;
+    private int inFlightTo = -1;
+
+    private long revision;
+    private boolean replacing;
+
+    /**
+     * Collega l'evidenziatore alla CodeArea e ne segue le modifiche.
+     *
+     * @param area Area di codice da evidenziare
+     */
+    public IncrementalHighlighter(CodeArea area) {
+        this.area = area;
+        Subscription changes = area.plainTextChanges().subscribe(this::onChange);
+        Subscription idle = area.plainTextChanges().successionEnds(DEBOUNCE).subscribe(c -> scheduleRound());
+        this.subscription = changes.and(idle);
+        resetStates(area.getText());
+    }
+
+    /**
+     * Sostituisce l'intero testo applicando subito gli stili già calcolati (es. dalla {@link HighlightCache}).
+     * Gli stati di fine paragrafo sono ricalcolati in un'unica passata del lexer, senza costruire stili.
+     *
+     * @param text  Nuovo testo
+     * @param spans Stili del testo, calcolati con {@link SyntaxHighlighter#computeHighlighting(String)}
+     */
+    public void replaceText(String text, StyleSpans<Collection<String>> spans) {
+        replacing = true;
+        try {
+            area.replaceText(text);
+        } finally {
+            replacing = false;
+        }
+        area.setStyleSpans(0, spans);
+        resetStates(text);
+    }
+
+    /**
+     * Smette di seguire le modifiche della CodeArea.
+     */
+    public void dispose() {
+        subscription.unsubscribe();
+    }
+
+    // ==============================================================
+    // ====================  MODIFICHE AL TESTO =====================
+    // ==============================================================
+
+    private void resetStates(String text) {
+        revision++;
+        dirtyFrom = dirtyTo = -1;
+        inFlightFrom = inFlightTo = -1;
+        paragraphs = 0;
+
+        int state = SyntaxHighlighter.STATE_CODE;
+        int lineStart = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == '\n') {
+                state = SyntaxHighlighter.lex(text, lineStart, i, state, (kind, start, end) -> { });
+                ensureCapacity(paragraphs + 1);
+                endStates[paragraphs++] = state;
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Aggiorna gli stati per una modifica: i paragrafi rimossi e inseriti diventano da rianalizzare.
+     */
+    private void onChange(PlainTextChange change) {
+        if (replacing) return;
+        revision++;
+
+        int first = area.offsetToPosition(change.getPosition(), TwoDimensional.Bias.Forward).getMajor();
+        int removed = countLines(change.getRemoved());
+        int inserted = countLines(change.getInserted());
+
+        // I paragrafi (first, first + removed] sono sostituiti da (first, first + inserted]
+        replaceStates(first + 1, removed, inserted);
+        dirtyFrom = shift(dirtyFrom, first, removed, inserted);
+        dirtyTo = shift(dirtyTo, first, removed, inserted);
+        inFlightFrom = shift(inFlightFrom, first, removed, inserted);
+        inFlightTo = shift(inFlightTo, first, removed, inserted);
+
+        markDirty(first, first + inserted);
+
+        // Difesa: se il conteggio dei paragrafi non torna, si ricalcola tutto
+        if (paragraphs != area.getParagraphs().size()) {
+            resetStates(area.getText());
+            markDirty(0, paragraphs - 1);
+        }
+    }
+
+    // Posizione di un paragrafo dopo la sostituzione di 'removed' righe con 'inserted' righe dopo 'first'
+    private static int shift(int index, int first, int removed, int inserted) {
+        if (index < 0 || index <= first) return index;
+        if (index > first + removed) return index + inserted - removed;
+        return Math.min(index, first + inserted);
+    }
+
+    private void markDirty(int from, int to) {
+        to = Math.min(to, paragraphs - 1);
+        if (from > to) return;
+        if (dirtyFrom < 0) {
+            dirtyFrom = from;
+            dirtyTo = to;
+        } else {
+            dirtyFrom = Math.min(dirtyFrom, from);
+            dirtyTo = Math.max(dirtyTo, to);
+        }
+    }
+
+    private void replaceStates(int at, int removed, int inserted) {
+        removed = Math.min(removed, paragraphs - at);
+        int delta = inserted - removed;
+        ensureCapacity(paragraphs + Math.max(0, delta));
+        System.arraycopy(endStates, at + removed, endStates, at + inserted, paragraphs - at - removed);
+        for (int i = at; i < at + inserted; i++) endStates[i] = UNKNOWN;
+        paragraphs += delta;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > endStates.length) {
+            int[] grown = new int[Math.max(capacity, endStates.length * 2)];
+            System.arraycopy(endStates, 0, grown, 0, paragraphs);
+            endStates = grown;
+        }
+    }
+
+    private static int countLines(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') count++;
+        }
+        return count;
+    }
+
+    // ==============================================================
+    // ===================  RIANALISI IN BACKGROUND =================
+    // ==============================================================
+
+    /**
+     * Avvia un ciclo di rianalisi sul primo blocco di paragrafi da aggiornare, se non ce n'è già uno in corso.
+     */
+    private void scheduleRound() {
+        if (dirtyFrom < 0 || inFlightFrom >= 0) return;
+
+        int from = dirtyFrom;
+        // Lo stato di ingresso deve essere noto: si risale fino a un paragrafo già analizzato
+        while (from > 0 && endStates[from - 1] == UNKNOWN) from--;
+        int to = Math.min(dirtyTo, from + CHUNK - 1);
+
+        int entryState = from == 0 ? SyntaxHighlighter.STATE_CODE : endStates[from - 1];
+        List<String> lines = new ArrayList<>(to - from + 1);
+        for (int p = from; p <= to; p++) lines.add(area.getParagraph(p).getText());
+
+        dirtyFrom = to < dirtyTo ? to + 1 : -1;
+        if (dirtyFrom < 0) dirtyTo = -1;
+        inFlightFrom = from;
+        inFlightTo = to;
+        long startRevision = revision;
+
+        Thread.ofVirtual().name("highlight-incremental").start(() -> {
+            List<StyleSpans<Collection<String>>> spans = new ArrayList<>(lines.size());
+            int[] states = new int[lines.size()];
+            int state = entryState;
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                SyntaxHighlighter.SpanCollector collector = new SyntaxHighlighter.SpanCollector();
+                state = SyntaxHighlighter.lex(line, 0, line.length(), state, collector);
+                spans.add(collector.finish(line.length()));
+                states[i] = state;
+            }
+            Platform.runLater(() -> apply(startRevision, spans, states));
+        });
+    }
+
+    /**
+     * Applica gli stili calcolati, se il testo non è cambiato nel frattempo.
+     * Altrimenti rimette l'intervallo tra quelli da rianalizzare.
+     */
+    private void apply(long startRevision, List<StyleSpans<Collection<String>>> spans, int[] states) {
+        int from = inFlightFrom;
+        int to = inFlightTo;
+        inFlightFrom = inFlightTo = -1;
+        if (from < 0) return;   // testo sostituito per intero nel frattempo
+
+        if (startRevision != revision) {
+            markDirty(from, to);
+        } else {
+            for (int i = 0; i < spans.size(); i++) {
+                area.setStyleSpans(from + i, 0, spans.get(i));
+            }
+            int oldLastState = endStates[to];
+            System.arraycopy(states, 0, endStates, from, states.length);
+
+            // Lo stato in uscita è cambiato: vanno aggiornati anche i paragrafi successivi
+            if (states[states.length - 1] != oldLastState && to + 1 < paragraphs) {
+                markDirty(to + 1, to + CHUNK);
+            }
+        }
+        scheduleRound();
+    }
+}
@@ -0,0 +1,88 @@
+package com.play.utils;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Dizionario limitato di stringhe canoniche, usato nella lettura dei tentativi: username, tipi,
+ * livelli, ID e testi delle domande si ripetono in quasi tutti i record e, decodificati
+ * tramite il dizionario, ogni tentativo punta alla stessa istanza invece che a una copia propria.
+ *
+ * È una tabella di dimensione fissa in cui ogni stringa può stare in una coppia di slot (associativa a due vie):
+ * una stringa nuova prende il primo slot della coppia e sposta nel secondo quella che c'era, scartando
+ * la meno recente. La memoria resta quindi limitata anche con moltissimi valori distinti; nel caso
+ * peggiore alcune copie non vengono condivise, ma il risultato resta corretto.
+ *
+ * Thread-safe senza lock: gli slot contengono riferimenti a stringhe immutabili e una scrittura
+ * concorrente può al più sostituire una voce con un'altra.
+ */
+public final class StringDictionary {
+
+    private final String[] table;
+    private final int mask;
+
+    /**
+     * @param capacity Numero di slot (arrotondato alla potenza di due successiva, almeno 2); 0 disattiva il dizionario
+     */
+    public StringDictionary(int capacity) {
+        int size = capacity <= 0 ? 0 : Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.table = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Restituisce l'istanza canonica di una stringa, registrandola se non è già presente.
+     *
+     * @param value Stringa appena decodificata (può essere null)
+     * @return Istanza uguale già presente nel dizionario, oppure la stringa stessa
+     */
+    public String intern(String value) {
+        if (value == null || table.length == 0) return value;
+        int h = value.hashCode();
+        // Coppia di slot allineata: le stringhe con lo stesso indice condividono entrambe le posizioni
+        int slot = (h ^ (h >>> 16)) & mask & ~1;
+        String first = table[slot];
+        if (first != null && first.equals(value)) return first;
+        String second = table[slot + 1];
+        if (second != null && second.equals(value)) return second;
+
+        table[slot + 1] = first;
+        table[slot] = value;
+        return value;
+    }
+
+    /** @return Numero di slot della tabella (0 se il dizionario è disattivato) */
+    public int capacity() {
+        return table.length;
+    }
+
+    /**
+     * Adattatore Gson per le stringhe che decodifica tramite il dizionario.
+     * La scrittura è identica a quella predefinita di Gson.
+     *
+     * @return Adattatore da registrare per {@code String.class}
+     */
+    public TypeAdapter<String> typeAdapter() {
+        return new TypeAdapter<String>() {
+            @Override
+            public void write(JsonWriter out, String value) throws IOException {
+                out.value(value);
+            }
+
+            @Override
+            public String read(JsonReader in) throws IOException {
+                JsonToken token = in.peek();
+                if (token == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                // Come l'adattatore predefinito, accetta anche booleani e numeri come testo
+                return intern(token == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString());
+            }
+        };
+    }
+}
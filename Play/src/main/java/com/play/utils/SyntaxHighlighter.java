@@ -4,11 +4,93 @@ import org.fxmisc.richtext.model.StyleSpans;
 import org.fxmisc.richtext.model.StyleSpansBuilder;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Evidenziatore della sintassi Java per le {@code CodeArea} degli esercizi.
+ *
+ * Il testo viene analizzato da un lexer scritto a mano, in un'unica passata e senza
+ * espressioni regolari: la classe di ogni carattere ASCII è letta da una tabella e le
+ * parole chiave sono riconosciute con una tabella hash sui caratteri, senza creare stringhe.
+ *
+ * I costrutti che possono attraversare più righe (commenti a blocco e text block) sono
+ * rappresentati da uno stato del lexer: analizzando una riga a partire dallo stato in cui
+ * è terminata la precedente si ottiene lo stesso risultato dell'analisi dell'intero testo,
+ * il che permette di rianalizzare solo le righe modificate.
+ */
 public class SyntaxHighlighter {
 
+    /** Versione delle regole di evidenziazione: va incrementata quando cambiano i token prodotti */
+    public static final int VERSION = 2;
+
+    // ==============================================================
+    // ======================  TOKEN E STATI ========================
+    // ==============================================================
+
+    // Tipi di token prodotti dal lexer (indici in STYLES)
+    public static final int KEYWORD = 0;
+    public static final int PAREN = 1;
+    public static final int BRACE = 2;
+    public static final int BRACKET = 3;
+    public static final int SEMICOLON = 4;
+    public static final int STRING = 5;
+    public static final int COMMENT = 6;
+    public static final int CHAR = 7;
+    public static final int NUMBER = 8;
+    public static final int ANNOTATION = 9;
+
+    // Stato del lexer alla fine di una porzione di testo
+    public static final int STATE_CODE = 0;
+    public static final int STATE_BLOCK_COMMENT = 1;
+    public static final int STATE_TEXT_BLOCK = 2;
+
+    // Classi CSS dei token (vedi styles/syntax.css), create una volta sola
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Collection<String>[] STYLES = new Collection[] {
+            Collections.singleton("keyword"),
+            Collections.singleton("paren"),
+            Collections.singleton("brace"),
+            Collections.singleton("bracket"),
+            Collections.singleton("semicolon"),
+            Collections.singleton("string"),
+            Collections.singleton("comment"),
+            Collections.singleton("char"),
+            Collections.singleton("number"),
+            Collections.singleton("annotation")
+    };
+
+    /**
+     * Destinatario dei token riconosciuti dal lexer.
+     */
+    @FunctionalInterface
+    public interface TokenSink {
+        /**
+         * @param kind  Tipo di token (es. {@link #KEYWORD})
+         * @param start Indice iniziale (incluso)
+         * @param end   Indice finale (escluso)
+         */
+        void token(int kind, int start, int end);
+    }
+
+    // ==============================================================
+    // =====================  TABELLE DEL LEXER =====================
+    // ==============================================================
+
+    // Classi dei caratteri ASCII
+    private static final byte OTHER = 0;
+    private static final byte IDENT = 1;
+    private static final byte DIGIT = 2;
+    private static final byte DOT = 3;
+    private static final byte C_PAREN = 4;
+    private static final byte C_BRACE = 5;
+    private static final byte C_BRACKET = 6;
+    private static final byte C_SEMICOLON = 7;
+    private static final byte QUOTE = 8;
+    private static final byte APOSTROPHE = 9;
+    private static final byte SLASH = 10;
+    private static final byte AT = 11;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+
     private static final String[] KEYWORDS = {
             "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
             "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally",
@@ -18,47 +100,316 @@ public class SyntaxHighlighter {
             "try", "void", "volatile", "while"
     };
 
-    private static final String KEYWORD_PATTERN = "\\b(" + String.join("|", KEYWORDS) + ")\\b";
-    private static final String PAREN_PATTERN = "\\(|\\)";
-    private static final String BRACE_PATTERN = "\\{|\\}";
-    private static final String BRACKET_PATTERN = "\\[|\\]";
-    private static final String SEMICOLON_PATTERN = "\\;";
-    private static final String STRING_PATTERN = "\"([^\"\\\\]|\\\\.)*\"";
-    private static final String COMMENT_PATTERN = "//[^\n]*" + "|" + "/\\*(.|\\R)*?\\*/";
-
-    private static final Pattern PATTERN = Pattern.compile(
-            "(?<KEYWORD>" + KEYWORD_PATTERN + ")"
-                    + "|(?<PAREN>" + PAREN_PATTERN + ")"
-                    + "|(?<BRACE>" + BRACE_PATTERN + ")"
-                    + "|(?<BRACKET>" + BRACKET_PATTERN + ")"
-                    + "|(?<SEMICOLON>" + SEMICOLON_PATTERN + ")"
-                    + "|(?<STRING>" + STRING_PATTERN + ")"
-                    + "|(?<COMMENT>" + COMMENT_PATTERN + ")"
-    );
+    // Tabella hash (indirizzamento aperto) delle parole chiave, indicizzata con l'hash di String
+    private static final int KEYWORD_MASK = 255;
+    private static final char[][] KEYWORD_TABLE = new char[KEYWORD_MASK + 1][];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) CHAR_CLASS[c] = IDENT;
+        for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASS[c] = IDENT;
+        for (char c = '0'; c <= '9'; c++) CHAR_CLASS[c] = DIGIT;
+        CHAR_CLASS['_'] = IDENT;
+        CHAR_CLASS['$'] = IDENT;
+        CHAR_CLASS['.'] = DOT;
+        CHAR_CLASS['('] = C_PAREN;
+        CHAR_CLASS[')'] = C_PAREN;
+        CHAR_CLASS['{'] = C_BRACE;
+        CHAR_CLASS['}'] = C_BRACE;
+        CHAR_CLASS['['] = C_BRACKET;
+        CHAR_CLASS[']'] = C_BRACKET;
+        CHAR_CLASS[';'] = C_SEMICOLON;
+        CHAR_CLASS['"'] = QUOTE;
+        CHAR_CLASS['\''] = APOSTROPHE;
+        CHAR_CLASS['/'] = SLASH;
+        CHAR_CLASS['@'] = AT;
+
+        for (String keyword : KEYWORDS) {
+            int slot = keyword.hashCode() & KEYWORD_MASK;
+            while (KEYWORD_TABLE[slot] != null) slot = (slot + 1) & KEYWORD_MASK;
+            KEYWORD_TABLE[slot] = keyword.toCharArray();
+        }
+    }
+
+    // Frammento usato per il preriscaldamento: contiene tutti i tipi di token
+    private static final String WARM_UP_SAMPLE =
+            "@Override public class A { /* c */ int[] a = {1, 0x2F}; char c = 'x'; // c\n"
+                    + " void f() { System.out.println(\"x\" + \"\"\"\n  t\n  \"\"\"); } }";
+
+    /**
+     * Forza l'inizializzazione delle tabelle e una prima evidenziazione, così che il costo
+     * non ricada sulla prima schermata che mostra del codice. Chiamato all'avvio.
+     */
+    public static void warmUp() {
+        computeHighlighting(WARM_UP_SAMPLE);
+    }
 
+    // ==============================================================
+    // ======================  EVIDENZIAZIONE =======================
+    // ==============================================================
+
+    /**
+     * Calcola gli stili dell'intero testo.
+     *
+     * @param text Codice da evidenziare
+     * @return Stili da applicare alla CodeArea
+     */
     public static StyleSpans<Collection<String>> computeHighlighting(String text) {
-        Matcher matcher = PATTERN.matcher(text);
-        int lastKwEnd = 0;
-        StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
-
-        while (matcher.find()) {
-            String styleClass =
-                    matcher.group("KEYWORD") != null ? "keyword" :
-                            matcher.group("PAREN") != null ? "paren" :
-                                    matcher.group("BRACE") != null ? "brace" :
-                                            matcher.group("BRACKET") != null ? "bracket" :
-                                                    matcher.group("SEMICOLON") != null ? "semicolon" :
-                                                            matcher.group("STRING") != null ? "string" :
-                                                                    matcher.group("COMMENT") != null ? "comment" :
-                                                                            null;
-
-            assert styleClass != null;
-            spansBuilder.add(Collections.emptyList(), matcher.start() - lastKwEnd);
-            spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
-            lastKwEnd = matcher.end();
+        SpanCollector collector = new SpanCollector();
+        lex(text, 0, text.length(), STATE_CODE, collector);
+        return collector.finish(text.length());
+    }
+
+    /**
+     * @param kind Tipo di token
+     * @return Classi CSS associate al tipo di token
+     */
+    public static Collection<String> styleOf(int kind) {
+        return STYLES[kind];
+    }
+
+    /**
+     * Analizza il testo in [start, end) a partire dallo stato indicato e notifica i token trovati.
+     * Il testo tra un token e l'altro non ha stile.
+     *
+     * @param text  Testo da analizzare
+     * @param start Indice iniziale (incluso)
+     * @param end   Indice finale (escluso)
+     * @param state Stato in cui si trovava il lexer in {@code start} (es. {@link #STATE_CODE})
+     * @param sink  Destinatario dei token, in ordine di posizione
+     * @return Stato del lexer in {@code end}
+     */
+    public static int lex(CharSequence text, int start, int end, int state, TokenSink sink) {
+        int i = start;
+
+        // Riprende un costrutto su più righe rimasto aperto
+        if (state == STATE_BLOCK_COMMENT || state == STATE_TEXT_BLOCK) {
+            boolean comment = state == STATE_BLOCK_COMMENT;
+            int close = comment ? blockCommentEnd(text, i, end) : textBlockEnd(text, i, end);
+            if (close < 0) {
+                if (end > i) sink.token(comment ? COMMENT : STRING, i, end);
+                return state;
+            }
+            sink.token(comment ? COMMENT : STRING, i, close);
+            i = close;
+        }
+
+        while (i < end) {
+            char c = text.charAt(i);
+            byte cls = c < 128 ? CHAR_CLASS[c] : (Character.isJavaIdentifierStart(c) ? IDENT : OTHER);
+
+            switch (cls) {
+                case IDENT: {
+                    int j = i;
+                    int hash = 0;
+                    while (j < end && isIdentifierPart(text.charAt(j))) {
+                        hash = 31 * hash + text.charAt(j);
+                        j++;
+                    }
+                    if (isKeyword(text, i, j, hash)) sink.token(KEYWORD, i, j);
+                    i = j;
+                    break;
+                }
+                case DIGIT: {
+                    int j = numberEnd(text, i, end);
+                    sink.token(NUMBER, i, j);
+                    i = j;
+                    break;
+                }
+                case DOT: {
+                    if (i + 1 < end && isDigit(text.charAt(i + 1))) {
+                        int j = numberEnd(text, i, end);
+                        sink.token(NUMBER, i, j);
+                        i = j;
+                    } else {
+                        i++;
+                    }
+                    break;
+                }
+                case C_PAREN:
+                    sink.token(PAREN, i, ++i);
+                    break;
+                case C_BRACE:
+                    sink.token(BRACE, i, ++i);
+                    break;
+                case C_BRACKET:
+                    sink.token(BRACKET, i, ++i);
+                    break;
+                case C_SEMICOLON:
+                    sink.token(SEMICOLON, i, ++i);
+                    break;
+                case QUOTE: {
+                    if (i + 2 < end && text.charAt(i + 1) == '"' && text.charAt(i + 2) == '"') {
+                        int close = textBlockEnd(text, i + 3, end);
+                        if (close < 0) {
+                            sink.token(STRING, i, end);
+                            return STATE_TEXT_BLOCK;
+                        }
+                        sink.token(STRING, i, close);
+                        i = close;
+                    } else {
+                        int j = quotedEnd(text, i + 1, end, '"');
+                        sink.token(STRING, i, j);
+                        i = j;
+                    }
+                    break;
+                }
+                case APOSTROPHE: {
+                    int j = quotedEnd(text, i + 1, end, '\'');
+                    sink.token(CHAR, i, j);
+                    i = j;
+                    break;
+                }
+                case SLASH: {
+                    char next = i + 1 < end ? text.charAt(i + 1) : 0;
+                    if (next == '/') {
+                        int j = i + 2;
+                        while (j < end && text.charAt(j) != '\n') j++;
+                        sink.token(COMMENT, i, j);
+                        i = j;
+                    } else if (next == '*') {
+                        int close = blockCommentEnd(text, i + 2, end);
+                        if (close < 0) {
+                            sink.token(COMMENT, i, end);
+                            return STATE_BLOCK_COMMENT;
+                        }
+                        sink.token(COMMENT, i, close);
+                        i = close;
+                    } else {
+                        i++;
+                    }
+                    break;
+                }
+                case AT: {
+                    int j = annotationEnd(text, i + 1, end);
+                    if (j > i + 1) sink.token(ANNOTATION, i, j);
+                    i = Math.max(j, i + 1);
+                    break;
+                }
+                default:
+                    i++;
+            }
+        }
+        return STATE_CODE;
+    }
+
+    // ==============================================================
+    // ====================  SCANSIONE DEI TOKEN ====================
+    // ==============================================================
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        if (c < 128) {
+            byte cls = CHAR_CLASS[c];
+            return cls == IDENT || cls == DIGIT;
+        }
+        return Character.isJavaIdentifierPart(c);
+    }
+
+    private static boolean isKeyword(CharSequence text, int start, int end, int hash) {
+        int length = end - start;
+        for (int slot = hash & KEYWORD_MASK; KEYWORD_TABLE[slot] != null; slot = (slot + 1) & KEYWORD_MASK) {
+            char[] keyword = KEYWORD_TABLE[slot];
+            if (keyword.length != length) continue;
+            int k = 0;
+            while (k < length && keyword[k] == text.charAt(start + k)) k++;
+            if (k == length) return true;
+        }
+        return false;
+    }
+
+    // Letterale numerico: cifre, lettere (esadecimali, suffissi), '_', '.' ed esponente con segno
+    private static int numberEnd(CharSequence text, int start, int end) {
+        boolean hex = start + 1 < end && text.charAt(start) == '0'
+                && (text.charAt(start + 1) == 'x' || text.charAt(start + 1) == 'X');
+        int j = start;
+        while (j < end) {
+            char c = text.charAt(j);
+            if (c == '.' || c == '_' || (c < 128 && (CHAR_CLASS[c] == IDENT || CHAR_CLASS[c] == DIGIT))) {
+                boolean exponent = hex ? (c == 'p' || c == 'P') : (c == 'e' || c == 'E');
+                if (exponent && j + 1 < end && (text.charAt(j + 1) == '+' || text.charAt(j + 1) == '-')) j++;
+                j++;
+            } else {
+                break;
+            }
+        }
+        return j;
+    }
+
+    // Stringa o carattere: fino alla chiusura (inclusa) o, se non chiusa, fino a fine riga
+    private static int quotedEnd(CharSequence text, int from, int end, char quote) {
+        int j = from;
+        while (j < end) {
+            char c = text.charAt(j);
+            if (c == quote) return j + 1;
+            if (c == '\n') return j;
+            if (c == '\\' && j + 1 < end && text.charAt(j + 1) != '\n') j++;
+            j++;
         }
+        return end;
+    }
+
+    // Indice successivo a "*/", oppure -1 se il commento non si chiude entro end
+    private static int blockCommentEnd(CharSequence text, int from, int end) {
+        for (int j = from; j + 1 < end; j++) {
+            if (text.charAt(j) == '*' && text.charAt(j + 1) == '/') return j + 2;
+        }
+        return -1;
+    }
+
+    // Indice successivo al '"""' di chiusura, oppure -1 se il text block non si chiude entro end
+    private static int textBlockEnd(CharSequence text, int from, int end) {
+        for (int j = from; j + 2 < end; j++) {
+            char c = text.charAt(j);
+            if (c == '\\') {
+                j++;
+            } else if (c == '"' && text.charAt(j + 1) == '"' && text.charAt(j + 2) == '"') {
+                return j + 3;
+            }
+        }
+        return -1;
+    }
 
-        spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
-        return spansBuilder.create();
+    // Nome (anche qualificato) di un'annotazione che inizia in from, subito dopo '@'
+    private static int annotationEnd(CharSequence text, int from, int end) {
+        int j = from;
+        while (j < end) {
+            char c = text.charAt(j);
+            boolean start = c < 128 ? CHAR_CLASS[c] == IDENT : Character.isJavaIdentifierStart(c);
+            if (!start) break;
+            while (j < end && isIdentifierPart(text.charAt(j))) j++;
+            if (j + 1 < end && text.charAt(j) == '.') {
+                char next = text.charAt(j + 1);
+                boolean nextStart = next < 128 ? CHAR_CLASS[next] == IDENT : Character.isJavaIdentifierStart(next);
+                if (!nextStart) break;
+                j++;
+            } else {
+                break;
+            }
+        }
+        return j;
+    }
+
+    /**
+     * Costruisce gli StyleSpans dai token, inserendo intervalli senza stile tra un token e l'altro.
+     * Usato anche da {@link IncrementalHighlighter} per evidenziare singole righe.
+     */
+    static final class SpanCollector implements TokenSink {
+        private final StyleSpansBuilder<Collection<String>> builder = new StyleSpansBuilder<>();
+        private int last;
+
+        @Override
+        public void token(int kind, int start, int end) {
+            if (start > last) builder.add(Collections.emptyList(), start - last);
+            builder.add(STYLES[kind], end - start);
+            last = end;
+        }
+
+        StyleSpans<Collection<String>> finish(int length) {
+            builder.add(Collections.emptyList(), length - last);
+            return builder.create();
+        }
     }
 }
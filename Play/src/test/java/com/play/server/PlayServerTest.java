@@ -0,0 +1,113 @@
+package com.play.server;
+
+import com.play.model.Exercise;
+import com.play.service.ExerciseCatalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test delle API del server su una porta libera, con la cartella dati di prova ({@code play.dataDir}).
+ * Solo richieste che non registrano tentativi.
+ */
+class PlayServerTest {
+
+    private static final long SESSION_TTL_MILLIS = 300;
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private PlayServer server;
+    private String base;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new PlayServer(0, SESSION_TTL_MILLIS);
+        server.start();
+        base = "http://localhost:" + server.getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void onlyExactPathsAreRouted() throws Exception {
+        assertEquals(200, get("/api/leaderboard", null).statusCode());
+        assertEquals(404, get("/api/leaderboardX", null).statusCode());
+        assertEquals(404, get("/api/leaderboard/1", null).statusCode());
+
+        String token = login();
+        assertEquals(400, get("/api/session", token).statusCode());   // Tipo mancante
+        assertEquals(404, get("/api/sessionX", token).statusCode());
+    }
+
+    @Test
+    void answerIndexOutOfRangeIsRejected() throws Exception {
+        String token = login();
+        Exercise exercise = ExerciseCatalog.getInstance().getAll().get(0);
+        int options = exercise.getOptions().size();
+
+        for (int answer : new int[]{-1, options, Integer.MAX_VALUE}) {
+            HttpResponse<String> response = post("/api/attempts",
+                    "{\"exerciseId\":\"" + exercise.getId() + "\",\"answer\":" + answer + "}", token);
+            assertEquals(400, response.statusCode(), "risposta " + answer);
+        }
+    }
+
+    @Test
+    void idleSessionExpires() throws Exception {
+        String token = login();
+        assertEquals(200, get("/api/progress", token).statusCode());
+
+        // Ogni richiesta sposta la scadenza in avanti
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(SESSION_TTL_MILLIS / 2);
+            assertEquals(200, get("/api/progress", token).statusCode());
+        }
+
+        Thread.sleep(SESSION_TTL_MILLIS * 2);
+        assertEquals(401, get("/api/progress", token).statusCode());
+        assertEquals(401, get("/api/progress", token).statusCode());
+    }
+
+    // ==============================================================
+    // =========================  UTILITY ===========================
+    // ==============================================================
+
+    private String login() throws Exception {
+        String username = "u" + UUID.randomUUID().toString().substring(0, 8);
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"pw\",\"name\":\"N\",\"surname\":\"S\"}";
+        assertEquals(201, post("/api/register", credentials, null).statusCode());
+
+        HttpResponse<String> response = post("/api/login", credentials, null);
+        assertEquals(200, response.statusCode());
+        Matcher matcher = TOKEN.matcher(response.body());
+        assertTrue(matcher.find(), response.body());
+        return matcher.group(1);
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(base + path)).GET(), token);
+    }
+
+    private HttpResponse<String> post(String path, String body, String token) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(base + path)).POST(HttpRequest.BodyPublishers.ofString(body)), token);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request, String token) throws Exception {
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,109 @@
+package com.play.service;
+
+import com.play.model.Exercise;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Il catalogo ricostruito dal binario deve coincidere con quello letto dai file JSON:
+ * stesso ordine, stessi campi, stessi intervalli di ordinali.
+ */
+class CatalogBinaryTest {
+
+    private static final byte[] HASH = new byte[32];
+
+    @Test
+    void binaryMatchesJsonCatalog() throws IOException {
+        ExerciseCatalog json = ExerciseCatalog.loadFromJson();
+        assertTrue(json.size() > 0);
+        assertSameCatalog(json, roundTrip(json));
+    }
+
+    @Test
+    void mixedCaseLevelsAndStoredTypeSurvive() throws IOException {
+        Map<String, List<Exercise>> source = new LinkedHashMap<>();
+        for (String type : ExerciseCatalog.types()) source.put(type, List.of());
+        source.put("output", List.of(
+                exercise("o1", "output", "Facile"),
+                exercise("o2", "output", "medio"),
+                exercise("o3", "output", "facile"),
+                exercise("o4", null, "MEDIO"),
+                exercise("o5", "completa", null)));
+        ExerciseCatalog catalog = new ExerciseCatalog(source);
+
+        ExerciseCatalog read = roundTrip(catalog);
+        assertSameCatalog(catalog, read);
+        assertEquals(List.of("o1", "o3"), ids(read.getByTypeAndLevel("output", "FACILE")));
+        assertEquals("Facile", read.getById("o1").getLevel());
+        assertNull(read.getById("o4").getType());
+        assertEquals("completa", read.getById("o5").getType());
+    }
+
+    @Test
+    void staleHashFallsBack() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogBinary.write(ExerciseCatalog.loadFromJson(), HASH, out);
+        byte[] other = HASH.clone();
+        other[0] = 1;
+        assertNull(CatalogBinary.read(new ByteArrayInputStream(out.toByteArray()), other));
+    }
+
+    // ==============================================================
+    // =========================  UTILITY ===========================
+    // ==============================================================
+
+    private static ExerciseCatalog roundTrip(ExerciseCatalog catalog) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogBinary.write(catalog, HASH, out);
+        Map<String, List<Exercise>> read = CatalogBinary.read(new ByteArrayInputStream(out.toByteArray()), HASH);
+        assertNotNull(read);
+        return new ExerciseCatalog(read);
+    }
+
+    private static void assertSameCatalog(ExerciseCatalog expected, ExerciseCatalog actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Exercise e = expected.getAll().get(i);
+            Exercise a = actual.getAll().get(i);
+            assertEquals(e.getId(), a.getId(), "posizione " + i);
+            assertEquals(e.getType(), a.getType(), e.getId());
+            assertEquals(e.getLevel(), a.getLevel(), e.getId());
+            assertEquals(e.getQuestion(), a.getQuestion(), e.getId());
+            assertEquals(e.getCode(), a.getCode(), e.getId());
+            assertEquals(e.getOptions() == null ? List.of() : e.getOptions(), a.getOptions(), e.getId());
+            assertEquals(e.getCorrectOptionIndex(), a.getCorrectOptionIndex(), e.getId());
+            assertEquals(expected.ordinalOf(e.getId()), actual.ordinalOf(a.getId()), e.getId());
+        }
+        for (String type : ExerciseCatalog.types()) {
+            assertRange(expected.rangeOf(type), actual.rangeOf(type));
+            for (String level : List.of("facile", "medio", "difficile")) {
+                assertRange(expected.rangeOf(type, level), actual.rangeOf(type, level));
+                assertEquals(ids(expected.getByTypeAndLevel(type, level)), ids(actual.getByTypeAndLevel(type, level)));
+            }
+        }
+    }
+
+    private static void assertRange(ExerciseCatalog.OrdinalRange expected, ExerciseCatalog.OrdinalRange actual) {
+        assertEquals(expected.getFrom(), actual.getFrom());
+        assertEquals(expected.getTo(), actual.getTo());
+    }
+
+    private static List<String> ids(List<Exercise> exercises) {
+        List<String> ids = new ArrayList<>();
+        for (Exercise e : exercises) ids.add(e.getId());
+        return ids;
+    }
+
+    private static Exercise exercise(String id, String type, String level) {
+        return new Exercise(id, type, level, "Domanda " + id, "int x = 1;", List.of("a", "b"), 1);
+    }
+}
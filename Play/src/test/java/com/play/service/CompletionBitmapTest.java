@@ -0,0 +1,77 @@
+package com.play.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Confronta i conteggi della bitmap per intervallo con un conteggio bit per bit,
+ * con intervalli che iniziano e finiscono dentro, sopra e oltre i bordi delle parole.
+ */
+class CompletionBitmapTest {
+
+    private static final int[] BOUNDS = {0, 1, 2, 62, 63, 64, 65, 100, 127, 128, 129, 191, 192, 300};
+
+    @Test
+    void rangeMasksCoverExactlyTheirOrdinals() {
+        for (int from : BOUNDS) {
+            for (int to : BOUNDS) {
+                if (to < from) continue;
+                ExerciseCatalog.OrdinalRange range = new ExerciseCatalog.OrdinalRange(from, to);
+                assertEquals(to - from, range.size());
+                assertEquals(to == from, range.isEmpty());
+
+                // Bitmap piena: il conteggio è la dimensione dell'intervallo
+                CompletionBitmap full = new CompletionBitmap(300);
+                for (int i = 0; i < 300; i++) full.set(i);
+                assertEquals(to - from, full.count(range), from + ".." + to);
+            }
+        }
+    }
+
+    @Test
+    void countsMatchNaiveCount() {
+        Random random = new Random(1);
+        CompletionBitmap bitmap = new CompletionBitmap(300);
+        BitSet naive = new BitSet();
+        for (int i = 0; i < 150; i++) {
+            int ordinal = random.nextInt(300);
+            assertEquals(!naive.get(ordinal), bitmap.set(ordinal));
+            naive.set(ordinal);
+        }
+        assertEquals(naive.cardinality(), bitmap.cardinality());
+
+        for (int from : BOUNDS) {
+            for (int to : BOUNDS) {
+                if (to < from) continue;
+                int expected = naive.get(from, to).cardinality();
+                assertEquals(expected, bitmap.count(new ExerciseCatalog.OrdinalRange(from, to)), from + ".." + to);
+            }
+        }
+        for (int i = 0; i < 400; i++) {
+            assertEquals(naive.get(i), bitmap.get(i), "ordinale " + i);
+        }
+    }
+
+    @Test
+    void rangeBeyondTheBitmapCountsOnlyStoredWords() {
+        // Bitmap di una sola parola: gli intervalli che la superano non leggono oltre
+        CompletionBitmap bitmap = new CompletionBitmap(1);
+        bitmap.set(0);
+        bitmap.set(63);
+        assertEquals(2, bitmap.count(new ExerciseCatalog.OrdinalRange(0, 300)));
+        assertEquals(1, bitmap.count(new ExerciseCatalog.OrdinalRange(1, 300)));
+        assertEquals(0, bitmap.count(new ExerciseCatalog.OrdinalRange(64, 300)));
+        assertEquals(0, bitmap.count(ExerciseCatalog.OrdinalRange.EMPTY));
+
+        // La bitmap cresce e l'ordinale oltre la capacità iniziale viene contato
+        assertTrue(bitmap.set(200));
+        assertFalse(bitmap.set(200));
+        assertEquals(3, bitmap.count(new ExerciseCatalog.OrdinalRange(0, 300)));
+        assertEquals(1, bitmap.count(new ExerciseCatalog.OrdinalRange(200, 201)));
+        assertEquals(3, bitmap.cardinality());
+    }
+}
@@ -0,0 +1,238 @@
+package com.play.service;
+
+import com.play.model.Attempt;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Confronta la classifica incrementale con un modello ingenuo: mappa dei punteggi
+ * ordinata da capo ad ogni verifica (punteggio decrescente, poi username).
+ */
+class LeaderboardTest {
+
+    private static final String[] LEVELS = {"facile", "medio", "difficile"};
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    // Punteggi del modello ingenuo
+    private final Map<String, Integer> expected = new HashMap<>();
+
+    // ==============================================================
+    // ====================  RANGHI E PAGINE ========================
+    // ==============================================================
+
+    @Test
+    void ranksAndPagesMatchNaiveOrderingWithTies() {
+        Random random = new Random(1);
+        List<Attempt> attempts = new ArrayList<>();
+        // Pochi livelli e molti utenti: tanti punteggi uguali
+        for (int i = 0; i < 2000; i++) {
+            attempts.add(randomAttempt(random, "user" + random.nextInt(300)));
+        }
+        Leaderboard leaderboard = new Leaderboard(attempts);
+        attempts.forEach(this::expect);
+
+        assertMatchesNaive(leaderboard);
+        assertTrue(sorted().stream().map(expected::get).distinct().count() < expected.size(), "servono pareggi");
+    }
+
+    @Test
+    void wrongAttemptsAddUserWithZeroPoints() {
+        Leaderboard leaderboard = new Leaderboard(List.of());
+        leaderboard.onAttemptRecorded(attempt("zoe", "difficile", false));
+        leaderboard.onAttemptRecorded(attempt("amy", "facile", false));
+
+        assertEquals(2, leaderboard.size());
+        assertEquals(List.of("amy", "zoe"), usernames(leaderboard.topK(10)));
+        assertEquals(1, leaderboard.rankOf("zoe"));
+        assertEquals(1, leaderboard.positionOf("zoe"));
+    }
+
+    // ==============================================================
+    // =====================  AGGIORNAMENTI =========================
+    // ==============================================================
+
+    @Test
+    void scoreUpdatesMoveUsersPastEachOther() {
+        Leaderboard leaderboard = new Leaderboard(List.of(
+                attempt("ann", "facile", true), attempt("bob", "medio", true), attempt("cid", "medio", true)));
+        assertEquals(List.of("bob", "cid", "ann"), usernames(leaderboard.topK(3)));
+        assertEquals(1, leaderboard.rankOf("cid"));
+
+        // ann supera entrambi, poi cid raggiunge ann a pari punti e la precede per username
+        leaderboard.onAttemptRecorded(attempt("ann", "medio", true));
+        assertEquals(List.of("ann", "bob", "cid"), usernames(leaderboard.topK(3)));
+        leaderboard.onAttemptRecorded(attempt("cid", "facile", true));
+        assertEquals(List.of("ann", "cid", "bob"), usernames(leaderboard.topK(3)));
+        assertEquals(1, leaderboard.rankOf("cid"));
+        assertEquals(1, leaderboard.positionOf("cid"));
+        assertEquals(3, leaderboard.rankOf("bob"));
+    }
+
+    @Test
+    void randomUpdatesAndDeletionsMatchNaiveOrdering() {
+        Random random = new Random(2);
+        Leaderboard leaderboard = new Leaderboard(List.of());
+        for (int step = 1; step <= 3000; step++) {
+            String username = "u" + random.nextInt(150);
+            if (random.nextInt(20) == 0) {
+                leaderboard.onUserDeleted(username);
+                expected.remove(username);
+            } else {
+                Attempt attempt = randomAttempt(random, username);
+                leaderboard.onAttemptRecorded(attempt);
+                expect(attempt);
+            }
+            if (step % 250 == 0) assertMatchesNaive(leaderboard);
+        }
+    }
+
+    @Test
+    void deletedUserLeavesRankingAndSearch() {
+        Leaderboard leaderboard = new Leaderboard(List.of(
+                attempt("ann", "difficile", true), attempt("anna", "medio", true), attempt("bob", "facile", true)));
+        leaderboard.onUserDeleted("ann");
+        leaderboard.onUserDeleted("nessuno");
+
+        assertEquals(2, leaderboard.size());
+        assertEquals(-1, leaderboard.rankOf("ann"));
+        assertEquals(-1, leaderboard.positionOf("ann"));
+        assertNull(leaderboard.entryOf("ann"));
+        assertEquals(List.of("anna"), usernames(leaderboard.searchPrefix("ann", 10)));
+        assertEquals(1, leaderboard.rankOf("anna"));
+
+        // Un nuovo tentativo lo rimette in classifica partendo da zero
+        leaderboard.onAttemptRecorded(attempt("ann", "facile", true));
+        assertEquals(List.of("anna", "ann", "bob"), usernames(leaderboard.topK(3)));
+        assertEquals(2, leaderboard.rankOf("bob"));
+    }
+
+    @Test
+    void versionChangesOnlyWhenRankingChanges() {
+        Leaderboard leaderboard = new Leaderboard(List.of(attempt("ann", "facile", true)));
+        long version = leaderboard.version();
+
+        // Tentativo errato di un utente già in classifica: nulla cambia
+        leaderboard.onAttemptRecorded(attempt("ann", "medio", false));
+        leaderboard.onUserDeleted("nessuno");
+        assertEquals(version, leaderboard.version());
+
+        leaderboard.onAttemptRecorded(attempt("bob", "facile", false));
+        assertNotEquals(version, version = leaderboard.version());
+        leaderboard.onAttemptRecorded(attempt("ann", "facile", true));
+        assertNotEquals(version, version = leaderboard.version());
+        leaderboard.onUserDeleted("bob");
+        assertNotEquals(version, leaderboard.version());
+    }
+
+    // ==============================================================
+    // ====================  RICERCA PER PREFISSO ===================
+    // ==============================================================
+
+    @Test
+    void prefixSearchMatchesNaiveFilter() {
+        Random random = new Random(3);
+        List<Attempt> attempts = new ArrayList<>();
+        String[] prefixes = {"Marco", "marta", "Mario", "luca", "Luigi"};
+        for (int i = 0; i < 3000; i++) {
+            String username = prefixes[random.nextInt(prefixes.length)] + random.nextInt(200);
+            attempts.add(randomAttempt(random, username));
+        }
+        // Oltre 512 utenti con "m": la ricerca scorre la classifica invece di usare l'indice
+        for (int i = 0; i < 700; i++) {
+            attempts.add(randomAttempt(random, "m" + i));
+        }
+        Leaderboard leaderboard = new Leaderboard(attempts);
+        attempts.forEach(this::expect);
+
+        for (String prefix : List.of("mar", "MAR", "Marco1", "lu", "luigi19", "m", "", "zz")) {
+            for (int limit : List.of(1, 5, 20)) {
+                List<String> naive = new ArrayList<>();
+                for (String username : sorted()) {
+                    if (username.toLowerCase(Locale.ROOT).startsWith(prefix.toLowerCase(Locale.ROOT))) {
+                        naive.add(username);
+                        if (naive.size() == limit) break;
+                    }
+                }
+                List<Leaderboard.Entry> found = leaderboard.searchPrefix(prefix, limit);
+                assertEquals(naive, usernames(found), "prefisso '" + prefix + "', limite " + limit);
+                for (Leaderboard.Entry entry : found) {
+                    assertEntry(entry, sorted());
+                }
+            }
+        }
+    }
+
+    // ==============================================================
+    // =========================  UTILITY ===========================
+    // ==============================================================
+
+    private void expect(Attempt attempt) {
+        expected.merge(attempt.getUsername(), Leaderboard.points(attempt), Integer::sum);
+    }
+
+    // Ordinamento ingenuo: punteggio decrescente, poi username
+    private List<String> sorted() {
+        List<String> users = new ArrayList<>(expected.keySet());
+        users.sort(Comparator.comparing((String u) -> -expected.get(u)).thenComparing(u -> u));
+        return users;
+    }
+
+    private void assertMatchesNaive(Leaderboard leaderboard) {
+        List<String> sorted = sorted();
+        assertEquals(sorted.size(), leaderboard.size());
+        for (String username : sorted) {
+            assertEntry(leaderboard.entryOf(username), sorted);
+            assertEquals(sorted.indexOf(username), leaderboard.positionOf(username));
+            assertEquals(naiveRank(username), leaderboard.rankOf(username));
+        }
+        for (int from : new int[]{0, 1, 7, sorted.size() / 2, sorted.size() - 3, sorted.size(), sorted.size() + 5}) {
+            for (int count : new int[]{0, 1, 10, 100}) {
+                List<Leaderboard.Entry> page = leaderboard.range(from, count);
+                List<String> naive = sorted.subList(Math.min(Math.max(0, from), sorted.size()),
+                        Math.min(Math.max(0, from + count), sorted.size()));
+                assertEquals(naive, usernames(page), "pagina " + from + "+" + count);
+                for (Leaderboard.Entry entry : page) {
+                    assertEntry(entry, sorted);
+                }
+            }
+        }
+    }
+
+    private void assertEntry(Leaderboard.Entry entry, List<String> sorted) {
+        assertNotNull(entry);
+        String username = entry.getUsername();
+        assertEquals(expected.get(username), entry.getScore(), username);
+        assertEquals(sorted.indexOf(username), entry.getPosition(), username);
+        assertEquals(naiveRank(username), entry.getRank(), username);
+    }
+
+    // Rango "competition": 1 + utenti con punteggio strettamente maggiore
+    private int naiveRank(String username) {
+        int score = expected.get(username);
+        int greater = 0;
+        for (int other : expected.values()) {
+            if (other > score) greater++;
+        }
+        return greater + 1;
+    }
+
+    private static List<String> usernames(List<Leaderboard.Entry> entries) {
+        List<String> usernames = new ArrayList<>();
+        for (Leaderboard.Entry entry : entries) {
+            usernames.add(entry.getUsername());
+        }
+        return usernames;
+    }
+
+    private static Attempt randomAttempt(Random random, String username) {
+        return attempt(username, LEVELS[random.nextInt(LEVELS.length)], random.nextInt(3) != 0);
+    }
+
+    private static Attempt attempt(String username, String level, boolean correct) {
+        return new Attempt(username, "output", level, "Domanda", correct, "output_1", T0);
+    }
+}
@@ -0,0 +1,98 @@
+package com.play.service;
+
+import com.play.model.Attempt;
+import com.play.model.Exercise;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test dell'ordine delle sessioni di ripasso su un piccolo catalogo: scaduti dal più vecchio,
+ * poi esercizi mai tentati nell'ordine del catalogo, con l'intervallo predefinito di un giorno.
+ */
+class ReviewSchedulerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    private final ExerciseCatalog catalog = catalog(6);
+    private final Map<String, List<Attempt>> history = new HashMap<>();
+    private final ReviewScheduler scheduler =
+            new ReviewScheduler(catalog, u -> history.getOrDefault(u, List.of()));
+
+    @Test
+    void newUserGetsCatalogOrder() {
+        assertEquals(List.of("e0", "e1", "e2"), session("ann", 3, T0));
+        assertEquals(List.of(), scheduler.nextSession("ann", "output", "medio", 3, T0));
+        assertEquals(List.of(), session("ann", 0, T0));
+    }
+
+    @Test
+    void dueReviewsComeFirstOldestFirst() {
+        history.put("ann", List.of(
+                attempt("e3", false, T0.plusMinutes(10)),
+                attempt("e1", false, T0),
+                attempt("e0", true, T0.plusMinutes(5))));
+
+        // Errati subito scaduti, dal più vecchio; quello corretto non ancora; poi i nuovi
+        assertEquals(List.of("e1", "e3", "e2", "e4"), session("ann", 4, T0.plusHours(1)));
+
+        // Dopo un giorno scade anche e0, ma dopo gli errati
+        assertEquals(List.of("e1", "e3", "e0", "e2"), session("ann", 4, T0.plusDays(1).plusHours(1)));
+    }
+
+    @Test
+    void correctAnswersDoubleTheInterval() {
+        List<Attempt> attempts = new ArrayList<>(List.of(attempt("e0", true, T0), attempt("e0", true, T0.plusDays(1))));
+        // Tutti gli altri già visti e lontani dalla scadenza: nessun esercizio nuovo da proporre
+        for (String id : List.of("e1", "e2", "e3", "e4", "e5")) attempts.add(attempt(id, true, T0.plusDays(5)));
+        history.put("ann", attempts);
+
+        // Seconda risposta corretta: ripasso due giorni dopo l'ultima, non prima
+        assertEquals(List.of(), session("ann", 3, T0.plusDays(2)));
+        assertEquals(List.of("e0"), session("ann", 3, T0.plusDays(3)));
+    }
+
+    @Test
+    void newAttemptsUpdateTheOrder() {
+        assertEquals(List.of("e0", "e1"), session("ann", 2, T0));
+
+        scheduler.onAttemptRecorded(attempt("e0", true, T0));
+        scheduler.onAttemptRecorded(attempt("e2", false, T0.plusMinutes(1)));
+        scheduler.onAttemptRecorded(attempt("e1", false, T0));
+        assertEquals(List.of("e1", "e2", "e3"), session("ann", 3, T0.plusHours(1)));
+
+        // Un posto resta sempre agli esercizi nuovi
+        assertEquals(List.of("e1", "e3"), session("ann", 2, T0.plusHours(1)));
+
+        scheduler.onUserDeleted("ann");
+        assertEquals(List.of("e0", "e1"), session("ann", 2, T0));
+    }
+
+    // ==============================================================
+    // =========================  UTILITY ===========================
+    // ==============================================================
+
+    private List<String> session(String username, int limit, LocalDateTime now) {
+        List<String> ids = new ArrayList<>();
+        for (Exercise e : scheduler.nextSession(username, "output", "facile", limit, now)) ids.add(e.getId());
+        return ids;
+    }
+
+    private static Attempt attempt(String exerciseId, boolean correct, LocalDateTime at) {
+        return new Attempt("ann", "output", "facile", "Domanda " + exerciseId, correct, exerciseId, at);
+    }
+
+    private static ExerciseCatalog catalog(int size) {
+        Map<String, List<Exercise>> source = new LinkedHashMap<>();
+        for (String type : ExerciseCatalog.types()) source.put(type, List.of());
+        List<Exercise> exercises = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            exercises.add(new Exercise("e" + i, "output", "facile", "Domanda e" + i, "int x = 1;", List.of("a", "b"), 1));
+        }
+        source.put("output", exercises);
+        return new ExerciseCatalog(source);
+    }
+}
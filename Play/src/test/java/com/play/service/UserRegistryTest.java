@@ -0,0 +1,110 @@
+package com.play.service;
+
+import com.play.model.User;
+import com.play.utils.FileManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del registro utenti: username senza distinzione di maiuscole, account legacy in collisione
+ * e salvataggio sul file degli utenti della cartella dati di prova ({@code play.dataDir}).
+ */
+class UserRegistryTest {
+
+    private Path usersFile;
+
+    @BeforeEach
+    void cleanUsersFile() throws IOException {
+        Files.createDirectories(FileManager.dataDir());
+        usersFile = FileManager.dataDir().resolve("users.jsonl");
+        if (Files.isDirectory(usersFile)) Files.delete(usersFile);
+        Files.deleteIfExists(usersFile);
+    }
+
+    // ==============================================================
+    // =====================  REGISTRAZIONE =========================
+    // ==============================================================
+
+    @Test
+    void registerRejectsCaseVariantsAndPersists() throws IOException {
+        UserRegistry registry = new UserRegistry(List.of());
+        assertTrue(registry.register(user("Mario", "pw")));
+        assertFalse(registry.register(user(" mario ", "altra")));
+        assertTrue(registry.isTaken("MARIO"));
+        assertFalse(registry.isTaken("luigi"));
+
+        assertTrue(registry.authenticate("Mario", "pw").isPresent());
+        assertTrue(registry.authenticate("mario", "pw").isEmpty());
+        assertEquals("Mario Rossi", registry.displayName("mario"));
+        assertEquals(List.of("Mario"), usernames(FileManager.loadUsers()));
+    }
+
+    @Test
+    void failedWriteLeavesUserUnregistered() throws IOException {
+        Files.createDirectories(usersFile);   // Una cartella al posto del file fa fallire la scrittura
+
+        UserRegistry registry = new UserRegistry(List.of());
+        assertThrows(IOException.class, () -> registry.register(user("anna", "pw")));
+        assertFalse(registry.isTaken("anna"));
+        assertEquals(0, registry.size());
+
+        Files.delete(usersFile);
+        assertTrue(registry.register(user("anna", "pw")));
+        assertEquals(List.of("anna"), usernames(FileManager.loadUsers()));
+    }
+
+    @Test
+    void tornTailIsNotGluedToTheNextUser() throws IOException {
+        UserRegistry registry = new UserRegistry(List.of());
+        assertTrue(registry.register(user("anna", "pw")));
+        // Registrazione interrotta: resta metà riga senza terminatore
+        Files.writeString(usersFile, Files.readString(usersFile) + "{\"username\":\"bru");
+
+        assertTrue(registry.register(user("carla", "pw")));
+        assertEquals(List.of("anna", "carla"), usernames(FileManager.loadUsers()));
+    }
+
+    // ==============================================================
+    // ======================  COLLISIONI ===========================
+    // ==============================================================
+
+    @Test
+    void legacyCaseCollisionsStayReachableByExactName() {
+        UserRegistry registry = new UserRegistry(List.of(
+                user("Mario", "uno"), user("mario", "due"), user("MARIO", "tre"), user("Mario", "copia")));
+
+        assertTrue(registry.authenticate("Mario", "uno").isPresent());
+        assertTrue(registry.authenticate("mario", "due").isPresent());
+        assertTrue(registry.authenticate("MARIO", "tre").isPresent());
+        assertTrue(registry.authenticate("Mario", "copia").isEmpty());
+        assertTrue(registry.authenticate("mario", "uno").isEmpty());
+        assertTrue(registry.authenticate("maRIO", "uno").isEmpty());
+
+        assertEquals("due", registry.find("mario").orElseThrow().getPassword());
+        assertEquals("uno", registry.find("maRIO").orElseThrow().getPassword());
+        assertEquals(3, registry.size());
+        assertTrue(registry.isTaken("maRio"));
+    }
+
+    // ==============================================================
+    // =========================  UTILITY ===========================
+    // ==============================================================
+
+    private static User user(String username, String password) {
+        return new User(username, password, username.trim(), "Rossi");
+    }
+
+    private static List<String> usernames(List<User> users) {
+        List<String> usernames = new ArrayList<>();
+        for (User user : users) usernames.add(user.getUsername());
+        return usernames;
+    }
+}
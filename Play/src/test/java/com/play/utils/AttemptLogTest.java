@@ -0,0 +1,322 @@
+package com.play.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.play.model.Attempt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del log dei tentativi su cartelle temporanee: fusione dei segmenti di più istanze,
+ * tombstone, righe troncate, segmenti accorciati o rimossi e migrazione del vecchio formato.
+ */
+class AttemptLogTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .disableHtmlEscaping()
+            .create();
+
+    @TempDir
+    Path dir;
+
+    // ==============================================================
+    // ========================  FUSIONE ============================
+    // ==============================================================
+
+    @Test
+    void segmentsOfTwoInstancesAreMergedInTimestampOrder() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        AttemptLog b = new AttemptLog(dir, "b");
+        a.append(List.of(attempt("ann", 1), attempt("ann", 3), attempt("ann", 5)), false);
+        b.append(List.of(attempt("bob", 2), attempt("bob", 4)), false);
+        b.append(List.of(attempt("bob", 6)), false);
+
+        AttemptLog reader = new AttemptLog(dir, "reader");
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), minutes(reader.loadAll()));
+
+        // Lettura incrementale: il record di b con timestamp precedente va prima di quello di a
+        a.append(List.of(attempt("ann", 8)), false);
+        b.append(List.of(attempt("bob", 7)), false);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), minutes(reader.loadAll()));
+    }
+
+    @Test
+    void sameInstanceIdInTwoProcessesUsesSeparateSegments() throws IOException {
+        AttemptLog first = new AttemptLog(dir, "host");
+        AttemptLog second = new AttemptLog(dir, "host");
+        first.append(List.of(attempt("ann", 1)), false);
+        second.append(List.of(attempt("bob", 2)), false);
+        first.append(List.of(attempt("ann", 3)), false);
+
+        assertTrue(Files.exists(dir.resolve("attempts-host-1.jsonl")));
+        assertTrue(Files.exists(dir.resolve("attempts-host.2-1.jsonl")));
+        assertEquals(List.of(1, 2, 3), minutes(new AttemptLog(dir, "reader").loadAll()));
+
+        // Rilasciato l'identificativo, chi scrive dopo lo riprende insieme al suo segmento
+        first.close();
+        AttemptLog restarted = new AttemptLog(dir, "host");
+        restarted.append(List.of(attempt("cid", 4)), false);
+        assertEquals(3, Files.readAllLines(dir.resolve("attempts-host-1.jsonl")).size());
+        assertEquals(List.of(1, 2, 3, 4), minutes(new AttemptLog(dir, "reader").loadAll()));
+    }
+
+    // ==============================================================
+    // =======================  TOMBSTONE ===========================
+    // ==============================================================
+
+    @Test
+    void tombstoneHidesUserAttemptsBeforeAndAfterCompaction() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        AttemptLog b = new AttemptLog(dir, "b");
+        a.append(List.of(attempt("ann", 1), attempt("bob", 2)), false);
+        b.append(List.of(attempt("ann", 3)), false);
+        a.appendTombstone("ann", T0.plusMinutes(4), false);
+        a.append(List.of(attempt("ann", 5)), false);
+
+        AttemptLog reader = new AttemptLog(dir, "reader");
+        assertEquals(List.of("bob@2", "ann@5"), labels(reader.loadAll()));
+
+        a.compact();
+        assertTrue(Files.exists(dir.resolve("attempts.snapshot")));
+        assertEquals(List.of("bob@2", "ann@5"), labels(a.loadAll()));
+        assertEquals(List.of("bob@2", "ann@5"), labels(reader.loadAll()));
+        assertEquals(List.of("bob@2", "ann@5"), labels(new AttemptLog(dir, "fresh").loadAll()));
+    }
+
+    @Test
+    void tombstoneSurvivesCompactionForSkewedInstance() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        AttemptLog b = new AttemptLog(dir, "b");
+        a.append(List.of(attempt("ann", 1), attempt("bob", 2)), false);
+        a.appendTombstone("ann", T0.plusMinutes(10), false);
+        // b ha l'orologio indietro: i suoi tentativi arrivano dopo il tombstone ma con un istante precedente
+        b.append(List.of(attempt("ann", 5)), false);
+
+        AttemptLog reader = new AttemptLog(dir, "reader");
+        assertEquals(List.of("bob@2"), labels(reader.loadAll()));
+
+        a.compact();
+        b.append(List.of(attempt("ann", 6), attempt("ann", 12)), false);
+        assertEquals(List.of("bob@2", "ann@12"), labels(reader.loadAll()));
+        assertEquals(List.of("ann@12"), labels(reader.query(new AttemptQuery().user("ann"))));
+
+        // Anche dopo una seconda compattazione, fatta da un'altra istanza
+        b.compact();
+        b.append(List.of(attempt("ann", 7)), false);
+        assertEquals(List.of("bob@2", "ann@12"), labels(new AttemptLog(dir, "fresh").loadAll()));
+        assertEquals(List.of("bob@2", "ann@12"), labels(reader.loadAll()));
+        assertEquals(List.of("ann@12"), labels(reader.query(new AttemptQuery().user("ann"))));
+    }
+
+    // ==============================================================
+    // ===================  FILE INCOMPLETI =========================
+    // ==============================================================
+
+    @Test
+    void truncatedLastLineIsSkippedUntilCompleted() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        a.append(List.of(attempt("ann", 1), attempt("ann", 2)), false);
+
+        // Scrittura in corso su un'altra postazione: metà riga senza terminatore
+        String line = GSON.toJson(attempt("ann", 3));
+        Path segment = dir.resolve("attempts-a-1.jsonl");
+        Files.writeString(segment, line.substring(0, line.length() / 2), StandardOpenOption.APPEND);
+
+        AttemptLog reader = new AttemptLog(dir, "reader");
+        assertEquals(List.of(1, 2), minutes(reader.loadAll()));
+
+        Files.writeString(segment, line.substring(line.length() / 2) + "\n", StandardOpenOption.APPEND);
+        assertEquals(List.of(1, 2, 3), minutes(reader.loadAll()));
+    }
+
+    @Test
+    void tornTailIsDroppedBeforeAppendingAfterRestart() throws IOException {
+        AttemptLog before = new AttemptLog(dir, "a");
+        before.append(List.of(attempt("ann", 1)), false);
+
+        // Processo interrotto a metà scrittura: resta un frammento senza terminatore
+        String line = GSON.toJson(attempt("ann", 2));
+        Path segment = dir.resolve("attempts-a-1.jsonl");
+        Files.writeString(segment, line.substring(0, line.length() / 2), StandardOpenOption.APPEND);
+        before.close();
+
+        AttemptLog restarted = new AttemptLog(dir, "a");
+        restarted.append(List.of(attempt("ann", 3)), true);
+
+        assertEquals(List.of(1, 3), minutes(restarted.loadAll()));
+        assertEquals(List.of(1, 3), minutes(new AttemptLog(dir, "reader").loadAll()));
+        assertTrue(Files.readString(segment).endsWith("\n"));
+    }
+
+    @Test
+    void shrunkSegmentForcesRebuild() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        a.append(List.of(attempt("ann", 1)), false);
+        Path segment = dir.resolve("attempts-a-1.jsonl");
+        long firstLine = Files.size(segment);
+        a.append(List.of(attempt("ann", 2), attempt("ann", 3)), false);
+
+        AttemptLog reader = new AttemptLog(dir, "reader");
+        assertEquals(List.of(1, 2, 3), minutes(reader.loadAll()));
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(firstLine);
+        }
+        assertEquals(List.of(1), minutes(reader.loadAll()));
+    }
+
+    @Test
+    void removedSegmentForcesRebuild() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        AttemptLog b = new AttemptLog(dir, "b");
+        a.append(List.of(attempt("ann", 1)), false);
+        b.append(List.of(attempt("bob", 2)), false);
+
+        AttemptLog reader = new AttemptLog(dir, "reader");
+        assertEquals(List.of(1, 2), minutes(reader.loadAll()));
+
+        Files.delete(dir.resolve("attempts-b-1.jsonl"));
+        assertEquals(List.of("ann@1"), labels(reader.loadAll()));
+    }
+
+    // ==============================================================
+    // ===================  QUERY IN STREAMING ======================
+    // ==============================================================
+
+    @Test
+    void invalidLinesDoNotHideLaterRecordsInQuery() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        a.append(List.of(attempt("u1", 1)), false);
+        Path segment = dir.resolve("attempts-a-1.jsonl");
+        // Riga troncata seguita da altre, e riga con un campo del tipo sbagliato
+        Files.writeString(segment, "{\"username\":\"u2\",\"ty\n{\"username\":[\"u3\"]}\n", StandardOpenOption.APPEND);
+        a.append(List.of(attempt("u4", 4)), false);
+
+        AttemptLog reader = new AttemptLog(dir, "reader");
+        assertEquals(List.of("u1@1", "u4@4"), labels(reader.loadAll()));
+        assertEquals(List.of("u1@1", "u4@4"), labels(reader.query(new AttemptQuery())));
+    }
+
+    @Test
+    void queryMatchesFilteredLoadAll() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        AttemptLog b = new AttemptLog(dir, "b");
+        String[] users = {"ann", "bob", "cid"};
+        String[] levels = {"facile", "medio"};
+        for (int i = 0; i < 30; i++) {
+            Attempt attempt = new Attempt(users[i % 3], i % 4 == 0 ? "teoria" : "output", levels[i % 2],
+                    "Domanda " + i, i % 3 != 1, "output_" + i, T0.plusMinutes(i));
+            (i % 2 == 0 ? a : b).append(List.of(attempt), false);
+            if (i == 12) a.compact();   // Parte dei record nello snapshot, parte nei segmenti
+        }
+        b.appendTombstone("cid", T0.plusMinutes(20), false);
+        Files.writeString(dir.resolve("attempts-b-1.jsonl"), "non json\n{\"username\":", StandardOpenOption.APPEND);
+
+        AttemptLog reader = new AttemptLog(dir, "reader");
+        List<Attempt> all = reader.loadAll();
+        List<AttemptQuery> queries = List.of(
+                new AttemptQuery(),
+                new AttemptQuery().user("ann"),
+                new AttemptQuery().user("cid"),
+                new AttemptQuery().user("nessuno"),
+                new AttemptQuery().type("teoria").correct(true),
+                new AttemptQuery().level("medio").correct(false),
+                new AttemptQuery().between(T0.plusMinutes(5), T0.plusMinutes(25)),
+                new AttemptQuery().user("bob").type("output").between(null, T0.plusMinutes(15)));
+        for (AttemptQuery query : queries) {
+            List<Attempt> expected = new ArrayList<>();
+            for (Attempt attempt : all) {
+                if (query.matches(attempt)) expected.add(attempt);
+            }
+            assertEquals(labels(expected), labels(reader.query(query)));
+        }
+    }
+
+    // ==============================================================
+    // =======================  MIGRAZIONE ==========================
+    // ==============================================================
+
+    @Test
+    void legacyFileIsMigratedExactlyOnce() throws IOException {
+        Files.writeString(dir.resolve("attempts.json"),
+                GSON.toJson(List.of(attempt("ann", 1), attempt("bob", 2))), StandardCharsets.UTF_8);
+
+        AttemptLog a = new AttemptLog(dir, "a");
+        assertEquals(List.of(1, 2), minutes(a.loadAll()));
+        assertTrue(Files.exists(dir.resolve("attempts.jsonl")));
+
+        a.append(List.of(attempt("ann", 3)), false);
+        // Il vecchio file resta, ma con un log presente non viene più migrato
+        assertEquals(List.of(1, 2, 3), minutes(new AttemptLog(dir, "b").loadAll()));
+
+        a.compact();
+        assertFalse(Files.exists(dir.resolve("attempts.jsonl")));
+        assertEquals(List.of(1, 2, 3), minutes(new AttemptLog(dir, "c").loadAll()));
+    }
+
+    // ==============================================================
+    // ========================  NOVITÀ =============================
+    // ==============================================================
+
+    @Test
+    void pollChangesReportsEachRecordOnceAcrossCompaction() throws IOException {
+        AttemptLog a = new AttemptLog(dir, "a");
+        AttemptLog b = new AttemptLog(dir, "b");
+        a.append(List.of(attempt("ann", 1)), false);
+        a.trackChanges();
+        assertEquals(List.of(1), minutes(a.loadAll()));
+
+        b.append(List.of(attempt("bob", 2)), false);
+        assertEquals(List.of(2), minutes(a.pollChanges().getAttempts()));
+        assertTrue(a.pollChanges().isEmpty());
+
+        // Dopo la compattazione di b le novità si ricavano dal confronto con la cache precedente
+        b.append(List.of(attempt("bob", 3)), false);
+        b.appendTombstone("ann", T0.plusMinutes(1), false);
+        b.compact();
+        AttemptLog.Changes changes = a.pollChanges();
+        assertEquals(List.of(3), minutes(changes.getAttempts()));
+        assertEquals(T0.plusMinutes(1), changes.getTombstones().get("ann"));
+    }
+
+    // ==============================================================
+    // =========================  UTILITY ===========================
+    // ==============================================================
+
+    private static Attempt attempt(String username, int minute) {
+        return new Attempt(username, "output", "facile", "Domanda " + minute, minute % 2 == 0,
+                "output_" + minute, T0.plusMinutes(minute));
+    }
+
+    private static List<Integer> minutes(List<Attempt> attempts) {
+        List<Integer> minutes = new ArrayList<>();
+        for (Attempt attempt : attempts) {
+            minutes.add((int) Duration.between(T0, attempt.getTimestamp()).toMinutes());
+        }
+        return minutes;
+    }
+
+    private static List<String> labels(List<Attempt> attempts) {
+        List<String> labels = new ArrayList<>();
+        for (Attempt attempt : attempts) {
+            labels.add(attempt.getUsername() + "@" + minutes(List.of(attempt)).get(0));
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,78 @@
+package com.play.utils;
+
+import com.play.model.Attempt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test dello scrittore asincrono sulla cartella dati di prova ({@code play.dataDir}, impostata da surefire):
+ * un record conta come scritto solo quando è davvero sul log.
+ */
+class AttemptWriterTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    private Path dir;
+
+    @BeforeEach
+    void cleanDataDir() throws IOException {
+        dir = FileManager.dataDir();
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "attempts*")) {
+            for (Path file : files) {
+                if (Files.isDirectory(file)) Files.delete(file);
+                else Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void flushReportsCommittedAttempts() throws IOException {
+        AttemptWriter writer = new AttemptWriter(AttemptWriter.DurabilityPolicy.INTERVAL, 50);
+        try {
+            writer.submit(attempt("ann", 1));
+            writer.submit(attempt("bob", 2));
+            assertTrue(writer.flush());
+            assertEquals(2, writer.getCommittedRecords());
+            assertEquals(2, new AttemptLog(dir, "reader").loadAll().size());
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void failedCommitIsNotReportedAsWrittenAndIsRetried() throws IOException {
+        // Una cartella al posto del segmento fa fallire ogni scrittura
+        Path segment = dir.resolve("attempts-test-1.jsonl");
+        Files.createDirectories(segment);
+
+        AttemptWriter writer = new AttemptWriter(AttemptWriter.DurabilityPolicy.EVERY_RECORD, 0);
+        try {
+            writer.submit(attempt("ann", 1));
+            assertFalse(writer.flush());
+            assertEquals(0, writer.getCommittedRecords());
+            assertTrue(writer.getFailedCommits() > 0);
+
+            Files.delete(segment);
+            writer.submit(attempt("ann", 2));
+            assertTrue(writer.flush());
+            assertEquals(2, writer.getCommittedRecords());
+            assertEquals(2, new AttemptLog(dir, "reader").loadAll().size());
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    private static Attempt attempt(String username, int minute) {
+        return new Attempt(username, "output", "facile", "Domanda " + minute, true,
+                "output_" + minute, T0.plusMinutes(minute));
+    }
+}
@@ -0,0 +1,65 @@
+package com.play.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del filtro di Bloom: nessun falso negativo e falsi positivi vicini alla probabilità richiesta.
+ */
+class BloomFilterTest {
+
+    @Test
+    void addedKeysAreNeverReportedAbsent() {
+        Random random = new Random(1);
+        for (int expected : new int[]{1, 10, 1000, 20000}) {
+            BloomFilter filter = new BloomFilter(expected, 0.01);
+            List<String> keys = new ArrayList<>();
+            // Anche oltre il numero previsto: il filtro si satura ma non perde chiavi
+            for (int i = 0; i < expected * 2; i++) {
+                String key = randomKey(random);
+                keys.add(key);
+                filter.add(key);
+            }
+            for (String key : keys) {
+                assertTrue(filter.mightContain(key), key + " con " + expected + " chiavi previste");
+            }
+        }
+    }
+
+    @Test
+    void similarAndUnusualKeysAreFound() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        List<String> keys = List.of("", "a", "A", "mario", "Mario", "mario1", "màrio", "utente con spazi", "\u0000", "😀");
+        keys.forEach(filter::add);
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key), key);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("other" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < 2000, "falsi positivi: " + falsePositives);
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder key = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            key.append((char) (random.nextBoolean() ? 'a' + random.nextInt(26) : random.nextInt(0x3000)));
+        }
+        return key.toString();
+    }
+}
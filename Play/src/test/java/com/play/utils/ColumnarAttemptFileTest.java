@@ -0,0 +1,78 @@
+package com.play.utils;
+
+import com.play.model.Attempt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del formato colonnare: ogni campo scritto viene riletto uguale, compresi i valori null.
+ */
+class ColumnarAttemptFileTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void attemptsRoundTripIncludingNulls() throws IOException {
+        List<Attempt> attempts = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            // Più di 64 righe per la colonna dei bit, timestamp anche all'indietro e con nanosecondi
+            attempts.add(new Attempt("user" + (i % 7), i % 3 == 0 ? "teoria" : "output", "facile",
+                    "Domanda " + (i % 11), i % 5 == 0, "output_" + i, T0.plusSeconds(i * 37L - 900).plusNanos(i * 1_234L)));
+        }
+        attempts.add(new Attempt("ann", "output", null, null, true, null, null));
+        attempts.add(new Attempt(null, "output", "medio", "Domanda", false, "output_1", T0));
+        attempts.add(new Attempt("bob", "output", "medio", "Domanda", true, "output_2", null));
+        attempts.add(new Attempt("bob", "output", "medio", "Domanda", true, "output_3", LocalDateTime.of(1970, 1, 1, 0, 0)));
+
+        Path path = dir.resolve("attempts.snapshot");
+        ColumnarAttemptFile.write(attempts, path, 7, Map.of("attempts-a-1.jsonl", 123L),
+                Map.of("cid", T0.plusNanos(999)));
+        ColumnarAttemptFile file = ColumnarAttemptFile.open(path);
+
+        assertEquals(attempts.size(), file.size());
+        assertEquals(7, file.getEpoch());
+        assertEquals(Map.of("attempts-a-1.jsonl", 123L), file.getWatermarks());
+        assertEquals(Map.of("attempts-a-1.jsonl", 123L), ColumnarAttemptFile.readWatermarks(path));
+        assertEquals(7, ColumnarAttemptFile.readEpoch(path));
+        // I tombstone conservano l'istante esatto, i tentativi il microsecondo
+        assertEquals(Map.of("cid", T0.plusNanos(999)), file.getTombstones());
+
+        List<Attempt> read = file.readAll();
+        for (int i = 0; i < attempts.size(); i++) {
+            Attempt expected = attempts.get(i);
+            Attempt actual = read.get(i);
+            assertEquals(expected.getUsername(), actual.getUsername(), "riga " + i);
+            assertEquals(expected.getType(), actual.getType(), "riga " + i);
+            assertEquals(expected.getLevel(), actual.getLevel(), "riga " + i);
+            assertEquals(expected.getQuestion(), actual.getQuestion(), "riga " + i);
+            assertEquals(expected.getExerciseId(), actual.getExerciseId(), "riga " + i);
+            assertEquals(expected.isCorrect(), actual.isCorrect(), "riga " + i);
+            LocalDateTime timestamp = expected.getTimestamp();
+            assertEquals(timestamp == null ? null : timestamp.truncatedTo(ChronoUnit.MICROS), actual.getTimestamp(), "riga " + i);
+        }
+    }
+
+    @Test
+    void nullTimestampIsNotEpoch() throws IOException {
+        Path path = dir.resolve("attempts.snapshot");
+        ColumnarAttemptFile.write(List.of(new Attempt("ann", "output", "facile", "Domanda", true, "output_1", null)), path);
+
+        List<Boolean> present = new ArrayList<>();
+        ColumnarAttemptFile.open(path).scan(row -> present.add(row.hasTimestamp()));
+        assertEquals(List.of(false), present);
+        assertNull(ColumnarAttemptFile.open(path).readAll().get(0).getTimestamp());
+    }
+}
@@ -0,0 +1,74 @@
+package com.play.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test del dizionario di stringhe: istanza canonica condivisa, sostituzione dei valori
+ * nella stessa coppia di slot e dizionario disattivato.
+ */
+class StringDictionaryTest {
+
+    @Test
+    void equalStringsShareTheFirstInstance() {
+        StringDictionary dictionary = new StringDictionary(64);
+        String first = new String("output");
+        String copy = new String("output");
+        assertNotSame(first, copy);
+
+        assertSame(first, dictionary.intern(first));
+        assertSame(first, dictionary.intern(copy));
+        assertNull(dictionary.intern(null));
+    }
+
+    @Test
+    void thirdValueInTheSameSlotPairEvictsTheOldest() {
+        // Con due soli slot tutte le stringhe cadono nella stessa coppia
+        StringDictionary dictionary = new StringDictionary(2);
+        assertEquals(2, dictionary.capacity());
+        String a = new String("a");
+        String b = new String("b");
+        String c = new String("c");
+        dictionary.intern(a);
+        dictionary.intern(b);
+
+        // Entrambe ancora presenti: "a" è stata spostata nel secondo slot
+        assertSame(a, dictionary.intern(new String("a")));
+        assertSame(b, dictionary.intern(new String("b")));
+
+        // "c" entra nel primo slot e sposta "b": la meno recente, "a", viene scartata
+        dictionary.intern(c);
+        assertSame(b, dictionary.intern(new String("b")));
+        String otherA = new String("a");
+        assertSame(otherA, dictionary.intern(otherA));
+        assertEquals("a", otherA);
+    }
+
+    @Test
+    void capacityIsRoundedAndZeroDisables() {
+        assertEquals(2, new StringDictionary(1).capacity());
+        assertEquals(64, new StringDictionary(64).capacity());
+        assertEquals(128, new StringDictionary(65).capacity());
+
+        StringDictionary disabled = new StringDictionary(0);
+        assertEquals(0, disabled.capacity());
+        String value = new String("output");
+        assertSame(value, disabled.intern(value));
+        assertNotSame(value, disabled.intern(new String("output")));
+    }
+
+    @Test
+    void gsonAdapterDecodesThroughTheDictionary() {
+        StringDictionary dictionary = new StringDictionary(64);
+        Gson gson = new GsonBuilder().registerTypeAdapter(String.class, dictionary.typeAdapter()).create();
+
+        String[] first = gson.fromJson("[\"mario\", null, true, 12]", String[].class);
+        String[] second = gson.fromJson("[\"mario\"]", String[].class);
+        assertArrayEquals(new String[]{"mario", null, "true", "12"}, first);
+        assertSame(first[0], second[0]);
+        assertEquals("[\"mario\",null]", gson.toJson(new String[]{"mario", null}));
+    }
+}